@@ -22,6 +22,13 @@ typedef int  (__cdecl *getStructureConfig_fn)(int, int, StructureConfig *);
 typedef int  (__cdecl *getStructurePos_fn)(int, int, uint64_t, int, int, Pos *);
 typedef int  (__cdecl *isViableStructurePos_fn)(int, Generator *, int, int, uint32_t);
 
+/*
+ * Thread safety: the library is loaded once under g_init_lock and published through g_ready.
+ * Errors and generator state are thread-local, so Java may call render and structure
+ * functions from many threads at once.
+ */
+static SRWLOCK g_init_lock = SRWLOCK_INIT;
+static volatile LONG g_ready = 0;
 static HMODULE g_lib = NULL;
 static setupGenerator_fn p_setupGenerator = NULL;
 static applySeed_fn p_applySeed = NULL;
@@ -30,7 +37,19 @@ static initBiomeColors_fn p_initBiomeColors = NULL;
 static getStructureConfig_fn p_getStructureConfig = NULL;
 static getStructurePos_fn p_getStructurePos = NULL;
 static isViableStructurePos_fn p_isViableStructurePos = NULL;
-static char g_last_error[512];
+static _Thread_local char g_last_error[512];
+
+typedef struct {
+    int valid;
+    int mc;
+    int dim;
+    uint64_t seed;
+    Generator g;
+} ThreadGenerator;
+
+static _Thread_local ThreadGenerator t_gen;
+static _Thread_local int t_colors_ready = 0;
+static _Thread_local unsigned char t_biome_colors[256][3];
 
 static void set_last_error(const char *msg)
 {
@@ -82,18 +101,44 @@ static int floor_div(int a, int b)
 
 LP_EXPORT int __cdecl lp_init(const char *cubiomes_path)
 {
-    if (g_lib != NULL) return 0;
-    const char *path = cubiomes_path && cubiomes_path[0] ? cubiomes_path : "cubiomes.dll";
-    g_lib = LoadLibraryA(path);
-    if (!g_lib) {
-        char msg[512];
-        append_win_error(msg, sizeof(msg), "LoadLibraryA(cubiomes.dll) failed");
-        set_last_error(msg);
-        return -1;
+    if (InterlockedCompareExchange(&g_ready, 0, 0)) return 0;
+    AcquireSRWLockExclusive(&g_init_lock);
+    int rc = 0;
+    if (!g_ready) {
+        const char *path = cubiomes_path && cubiomes_path[0] ? cubiomes_path : "cubiomes.dll";
+        if (!g_lib) g_lib = LoadLibraryA(path);
+        if (!g_lib) {
+            char msg[512];
+            append_win_error(msg, sizeof(msg), "LoadLibraryA(cubiomes.dll) failed");
+            set_last_error(msg);
+            rc = -1;
+        } else if (load_symbols() != 0) {
+            rc = -2;
+        } else {
+            InterlockedExchange(&g_ready, 1);
+        }
     }
-    if (load_symbols() != 0) return -2;
-    set_last_error("");
-    return 0;
+    ReleaseSRWLockExclusive(&g_init_lock);
+    if (rc == 0) set_last_error("");
+    return rc;
+}
+
+/* The calling thread's generator, set up again only when version, dimension or seed change. */
+static Generator *thread_generator(int mc, int dim, uint64_t seed)
+{
+    if (!t_gen.valid || t_gen.mc != mc) {
+        memset(&t_gen.g, 0, sizeof(t_gen.g));
+        p_setupGenerator(&t_gen.g, mc, 0);
+        t_gen.mc = mc;
+        t_gen.valid = 1;
+        t_gen.dim = INT32_MIN;
+    }
+    if (t_gen.dim != dim || t_gen.seed != seed) {
+        p_applySeed(&t_gen.g, dim, seed);
+        t_gen.dim = dim;
+        t_gen.seed = seed;
+    }
+    return &t_gen.g;
 }
 
 LP_EXPORT const char* __cdecl lp_last_error(void)
@@ -108,19 +153,17 @@ LP_EXPORT int __cdecl lp_render_map(
     int *out_argb
 )
 {
-    if (!g_lib && lp_init(NULL) != 0) return -1;
+    if (!g_ready && lp_init(NULL) != 0) return -1;
     if (!out_argb || width <= 0 || height <= 0 || radius <= 0) {
         set_last_error("invalid render arguments");
         return -2;
     }
 
-    Generator g;
-    memset(&g, 0, sizeof(g));
-    p_setupGenerator(&g, mc, 0);
-    p_applySeed(&g, dim, seed);
-
-    unsigned char biome_colors[256][3];
-    p_initBiomeColors(biome_colors);
+    const Generator *g = thread_generator(mc, dim, seed);
+    if (!t_colors_ready) {
+        p_initBiomeColors(t_biome_colors);
+        t_colors_ready = 1;
+    }
 
     for (int py = 0; py < height; py++) {
         for (int px = 0; px < width; px++) {
@@ -129,12 +172,12 @@ LP_EXPORT int __cdecl lp_render_map(
             int wx = (int) llround(center_x + nx * radius);
             int wz = (int) llround(center_z + nz * radius);
 
-            int id = p_getBiomeAt(&g, 1, wx, 63, wz);
+            int id = p_getBiomeAt(g, 1, wx, 63, wz);
             unsigned int argb;
             if (id >= 0 && id < 256) {
-                unsigned char r = biome_colors[id][0];
-                unsigned char gg = biome_colors[id][1];
-                unsigned char b = biome_colors[id][2];
+                unsigned char r = t_biome_colors[id][0];
+                unsigned char gg = t_biome_colors[id][1];
+                unsigned char b = t_biome_colors[id][2];
                 argb = 0xFF000000u | (r << 16) | (gg << 8) | b;
             } else {
                 argb = 0xFF303030u;
@@ -145,23 +188,13 @@ LP_EXPORT int __cdecl lp_render_map(
     return 0;
 }
 
-LP_EXPORT int __cdecl lp_generate_structures(
-    uint64_t seed, int mc, int dim,
+static int collect_structures(
+    Generator *g, uint64_t seed, int mc, int dim,
     int min_x, int min_z, int max_x, int max_z,
     const int *structure_types, int structure_type_count,
     int max_out, int *out_triplets
 )
 {
-    if (!g_lib && lp_init(NULL) != 0) return -1;
-    if (!structure_types || structure_type_count <= 0 || max_out <= 0 || !out_triplets) {
-        return 0;
-    }
-
-    Generator g;
-    memset(&g, 0, sizeof(g));
-    p_setupGenerator(&g, mc, 0);
-    p_applySeed(&g, dim, seed);
-
     int out_count = 0;
     for (int i = 0; i < structure_type_count; i++) {
         int st = structure_types[i];
@@ -185,7 +218,7 @@ LP_EXPORT int __cdecl lp_generate_structures(
                 Pos p;
                 if (!p_getStructurePos(st, mc, seed, rx, rz, &p)) continue;
                 if (p.x < min_x || p.x > max_x || p.z < min_z || p.z > max_z) continue;
-                if (!p_isViableStructurePos(st, &g, p.x, p.z, 0)) continue;
+                if (!p_isViableStructurePos(st, g, p.x, p.z, 0)) continue;
 
                 if (out_count >= max_out) return out_count;
                 int o = out_count * 3;
@@ -198,3 +231,23 @@ LP_EXPORT int __cdecl lp_generate_structures(
     }
     return out_count;
 }
+
+LP_EXPORT int __cdecl lp_generate_structures(
+    uint64_t seed, int mc, int dim,
+    int min_x, int min_z, int max_x, int max_z,
+    const int *structure_types, int structure_type_count,
+    int max_out, int *out_triplets
+)
+{
+    if (!g_ready && lp_init(NULL) != 0) return -1;
+    if (!structure_types || structure_type_count <= 0 || max_out <= 0 || !out_triplets) {
+        return 0;
+    }
+
+    Generator *g = thread_generator(mc, dim, seed);
+    int out_count = collect_structures(g, seed, mc, dim, min_x, min_z, max_x, max_z,
+                                       structure_types, structure_type_count, max_out, out_triplets);
+    /* Viability checks may leave the generator on another dimension; reseed on next use. */
+    t_gen.dim = INT32_MIN;
+    return out_count;
+}
@@ -0,0 +1,101 @@
+package dev.lootprobe.paper;
+
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plugin chunk tickets for extraction. A loaded chunk keeps a ticket while any chunk request holds it; once released
+ * it moves to a bounded LRU so overlapping jobs find it still loaded, and the eldest released chunks drop their
+ * tickets so the server can unload them. Loaded chunk count therefore stays bounded over a long session instead of
+ * growing with every structure scanned. Main thread only.
+ */
+final class ChunkTicketCache {
+    private static final class Entry {
+        final World world;
+        final int x;
+        final int z;
+        int refs;
+
+        Entry(World world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+    }
+
+    private final Plugin plugin;
+    private final int maxRetained;
+    private final Map<String, Entry> held = new HashMap<>();
+    private final Map<String, Entry> retained = new LinkedHashMap<>(64, 0.75f, true);
+
+    ChunkTicketCache(Plugin plugin, int maxRetained) {
+        this.plugin = plugin;
+        this.maxRetained = Math.max(0, maxRetained);
+    }
+
+    /**
+     * Holds a ticket on a chunk that has finished loading. Adding a ticket to an unloaded chunk would load it
+     * synchronously, so only call this once the async load completed.
+     */
+    void acquire(World world, int x, int z) {
+        String key = key(world, x, z);
+        Entry entry = held.get(key);
+        if (entry == null) {
+            entry = retained.remove(key);
+            if (entry == null) {
+                entry = new Entry(world, x, z);
+                world.addPluginChunkTicket(x, z, plugin);
+            }
+            held.put(key, entry);
+        }
+        entry.refs++;
+    }
+
+    void release(World world, int x, int z) {
+        String key = key(world, x, z);
+        Entry entry = held.get(key);
+        if (entry == null || --entry.refs > 0) {
+            return;
+        }
+        held.remove(key);
+        if (maxRetained == 0) {
+            entry.world.removePluginChunkTicket(entry.x, entry.z, plugin);
+            return;
+        }
+        retained.put(key, entry);
+        Iterator<Entry> it = retained.values().iterator();
+        while (retained.size() > maxRetained && it.hasNext()) {
+            Entry eldest = it.next();
+            eldest.world.removePluginChunkTicket(eldest.x, eldest.z, plugin);
+            it.remove();
+        }
+    }
+
+    int heldCount() {
+        return held.size();
+    }
+
+    int retainedCount() {
+        return retained.size();
+    }
+
+    void releaseAll() {
+        for (Entry entry : held.values()) {
+            entry.world.removePluginChunkTicket(entry.x, entry.z, plugin);
+        }
+        for (Entry entry : retained.values()) {
+            entry.world.removePluginChunkTicket(entry.x, entry.z, plugin);
+        }
+        held.clear();
+        retained.clear();
+    }
+
+    private static String key(World world, int x, int z) {
+        return world.getName() + "|" + x + "|" + z;
+    }
+}
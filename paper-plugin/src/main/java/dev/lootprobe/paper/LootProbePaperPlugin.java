@@ -1,6 +1,7 @@
 package dev.lootprobe.paper;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
@@ -15,9 +16,12 @@ import org.bukkit.block.Container;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.enchantments.Enchantment;
 import org.bukkit.generator.structure.Structure;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.loot.LootContext;
 import org.bukkit.loot.LootTable;
 import org.bukkit.loot.Lootable;
@@ -27,19 +31,34 @@ import org.bukkit.util.StructureSearchResult;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 public final class LootProbePaperPlugin extends JavaPlugin implements CommandExecutor {
     private static final int CHEST_ATTACH_RADIUS = 256;
@@ -49,8 +68,49 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
     private static final int ZERO_SEED_LOG_EXAMPLE_LIMIT = 12;
     private static final int UNSUPPORTED_CONTEXT_LOG_EXAMPLE_LIMIT = 12;
     private static final int POST_LOAD_SETTLE_TICKS = 2;
+    // Main-thread time per tick spent reading chest contents, unless a batch manifest sets its own.
+    private static final int DEFAULT_PROCESS_BUDGET_MS = 10;
+    private static final int DUMP_WRITER_THREADS = 2;
+    private static final long DUMP_WRITER_SHUTDOWN_WAIT_SEC = 10;
+    // Chunk loads in flight across all extract jobs; half of what the client can ask for (8 jobs x 12 chunks), so
+    // the widest settings queue on the server instead of flooding its chunk system.
+    private static final int GLOBAL_MAX_IN_FLIGHT_CHUNKS = 48;
+    // Released chunks kept ticketed for overlapping jobs; beyond this the oldest are handed back to the server.
+    private static final int RETAINED_CHUNK_TICKETS = 256;
+    private static final String COMPLETION_LOG = "out/extract-completions.log";
+    // Finished jobs and batches are dropped once their final status is read, or this long after finishing otherwise.
+    private static final long FINISHED_JOB_TTL_MS = 10 * 60 * 1000L;
+    // Weight of the newest sample in the tick-time and chunk-latency moving averages reported to the client.
+    private static final double LOAD_AVERAGE_WEIGHT = 0.2;
+    private static final int MAX_SAMPLES_PER_COMMAND = 100_000;
+    private static final int STATS_MIN_SAMPLES = 1_000;
+    private static final int STATS_ROUND_SAMPLES = 20_000;
+    // Rolls per slice when a table has to be rolled on the main thread; the tick budget is checked between slices.
+    private static final int STATS_MAIN_THREAD_SLICE = 32;
     private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final ObjectWriter compactWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
     private final Map<String, ExtractJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ExtractBatch> batches = new ConcurrentHashMap<>();
+    private final Map<String, DiscoverJob> discoverJobs = new ConcurrentHashMap<>();
+    // Chunk loads shared by every extract job; only touched from the main thread.
+    private final Map<String, ChunkRequest> chunkRequests = new HashMap<>();
+    private final ChunkTicketCache chunkTickets = new ChunkTicketCache(this, RETAINED_CHUNK_TICKETS);
+    private final List<ChunkRequest> inFlightChunkRequests = new ArrayList<>();
+    private final List<ExtractJob> chunkClients = new ArrayList<>();
+    private int chunkClientCursor;
+    private long lastSchedulerTickNanos;
+    private double tickMsAverage = 50.0;
+    private double chunkLoadMsAverage;
+    private int chunkLoadFailures;
+    private long schedulerTicks;
+    // Chunks whose tile entities can be read, drained each tick under the budget of the job at the head.
+    private final ArrayDeque<ProcessTask> processQueue = new ArrayDeque<>();
+    private BukkitTask chunkSchedulerTask;
+    private ExecutorService samplingPool;
+    // Sorts, encodes and writes finished extract dumps so the main thread only hands them over.
+    private ExecutorService dumpWriter;
+    // One lock per appended output file, so an append to one file never waits on encoding or writing another.
+    private final Map<String, Object> appendLocks = new ConcurrentHashMap<>();
 
     @Override
     public void onEnable() {
@@ -63,19 +123,99 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         if (getCommand("lootprobe_extract_status") != null) {
             getCommand("lootprobe_extract_status").setExecutor(this);
         }
+        if (getCommand("lootprobe_extract_batch") != null) {
+            getCommand("lootprobe_extract_batch").setExecutor(this);
+        }
+        if (getCommand("lootprobe_extract_batch_status") != null) {
+            getCommand("lootprobe_extract_batch_status").setExecutor(this);
+        }
+        if (getCommand("lootprobe_extract_batch_cancel") != null) {
+            getCommand("lootprobe_extract_batch_cancel").setExecutor(this);
+        }
+        if (getCommand("lootprobe_extract_batch_tune") != null) {
+            getCommand("lootprobe_extract_batch_tune").setExecutor(this);
+        }
         if (getCommand("lootprobe_discover") != null) {
             getCommand("lootprobe_discover").setExecutor(this);
         }
+        if (getCommand("lootprobe_discover_placements") != null) {
+            getCommand("lootprobe_discover_placements").setExecutor(this);
+        }
+        if (getCommand("lootprobe_discover_start") != null) {
+            getCommand("lootprobe_discover_start").setExecutor(this);
+        }
+        if (getCommand("lootprobe_discover_status") != null) {
+            getCommand("lootprobe_discover_status").setExecutor(this);
+        }
+        if (getCommand("lootprobe_discover_cancel") != null) {
+            getCommand("lootprobe_discover_cancel").setExecutor(this);
+        }
+        if (getCommand("lootprobe_sample") != null) {
+            getCommand("lootprobe_sample").setExecutor(this);
+        }
+        if (getCommand("lootprobe_sample_stats") != null) {
+            getCommand("lootprobe_sample_stats").setExecutor(this);
+        }
+        chunkSchedulerTask = Bukkit.getScheduler().runTaskTimer(this, this::tickChunkScheduler, 1L, 1L);
+        dumpWriter = Executors.newFixedThreadPool(DUMP_WRITER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "lootprobe-dump-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        File completionLog = new File(getDataFolder(), COMPLETION_LOG);
+        if (completionLog.exists() && !completionLog.delete()) {
+            getLogger().warning("lootprobe could not reset completion log " + completionLog.getAbsolutePath());
+        }
     }
 
     @Override
     public void onDisable() {
+        if (chunkSchedulerTask != null) {
+            chunkSchedulerTask.cancel();
+            chunkSchedulerTask = null;
+        }
+        chunkRequests.clear();
+        chunkTickets.releaseAll();
+        inFlightChunkRequests.clear();
+        chunkClients.clear();
+        processQueue.clear();
+        for (ExtractBatch batch : batches.values()) {
+            if (batch.task != null) {
+                batch.task.cancel();
+            }
+            for (ExtractJob job : batch.running) {
+                if (job.task != null) {
+                    job.task.cancel();
+                }
+            }
+        }
+        batches.clear();
+        for (DiscoverJob job : discoverJobs.values()) {
+            if (job.task != null) {
+                job.task.cancel();
+            }
+        }
+        discoverJobs.clear();
         for (ExtractJob job : jobs.values()) {
             if (job.task != null) {
                 job.task.cancel();
             }
         }
         jobs.clear();
+        if (samplingPool != null) {
+            samplingPool.shutdownNow();
+            samplingPool = null;
+        }
+        if (dumpWriter != null) {
+            // Let dumps already handed over reach disk; their main-thread callbacks are skipped once disabled.
+            dumpWriter.shutdown();
+            try {
+                dumpWriter.awaitTermination(DUMP_WRITER_SHUTDOWN_WAIT_SEC, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dumpWriter = null;
+        }
     }
 
     @Override
@@ -83,8 +223,18 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         String cmd = command.getName().toLowerCase(Locale.ROOT);
         return switch (cmd) {
             case "lootprobe_discover" -> handleDiscover(sender, args);
+            case "lootprobe_discover_placements" -> handleDiscoverPlacements(sender, args);
+            case "lootprobe_discover_start" -> handleDiscoverStart(sender, args);
+            case "lootprobe_discover_status" -> handleDiscoverStatus(sender, args);
+            case "lootprobe_discover_cancel" -> handleDiscoverCancel(sender, args);
+            case "lootprobe_sample" -> handleSample(sender, args);
+            case "lootprobe_sample_stats" -> handleSampleStats(sender, args);
             case "lootprobe_extract_start" -> handleExtractStart(sender, args);
             case "lootprobe_extract_status" -> handleExtractStatus(sender, args);
+            case "lootprobe_extract_batch" -> handleExtractBatch(sender, args);
+            case "lootprobe_extract_batch_status" -> handleExtractBatchStatus(sender, args);
+            case "lootprobe_extract_batch_cancel" -> handleExtractBatchCancel(sender, args);
+            case "lootprobe_extract_batch_tune" -> handleExtractBatchTune(sender, args);
             case "lootprobe_extract" -> handleExtractLegacy(sender, args);
             default -> true;
         };
@@ -120,10 +270,11 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
             sender.sendMessage("not_found");
             return true;
         }
-        if (job.state == JobState.RUNNING) {
+        if (job.state == JobState.RUNNING || job.state == JobState.WRITING) {
             sender.sendMessage("running " + job.completedChunks + "/" + job.totalChunks);
             return true;
         }
+        jobs.remove(job.id);
         if (job.state == JobState.FAILED) {
             sender.sendMessage("failed " + (job.error != null ? job.error : "unknown"));
             return true;
@@ -161,6 +312,29 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         }
 
         String jobId = UUID.randomUUID().toString().replace("-", "");
+        ExtractJob job = newExtractJob(jobId, dimension, structureId, centerX, centerZ, chunkRadius, parallelChunks, parallelChunkCount, relativeOut);
+        pruneFinished();
+        jobs.put(jobId, job);
+        getLogger().info("lootprobe_extract_start job=" + jobId + " structure=" + structureId
+                + " dim=" + dimension + " center=" + centerX + "," + centerZ + " chunkRadius=" + chunkRadius);
+        if (parallelChunks) {
+            getLogger().info("lootprobe_extract_start job=" + jobId + " parallelChunks=true maxInFlight=" + job.maxInFlightChunks);
+        }
+        scheduleExtractJob(world, job);
+        return "job=" + jobId + " completion_log=" + COMPLETION_LOG;
+    }
+
+    private ExtractJob newExtractJob(
+            String jobId,
+            String dimension,
+            String structureId,
+            int centerX,
+            int centerZ,
+            int chunkRadius,
+            boolean parallelChunks,
+            int parallelChunkCount,
+            String relativeOut
+    ) {
         ExtractJob job = new ExtractJob();
         job.id = jobId;
         job.dimension = dimension;
@@ -181,25 +355,224 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
 
         int centerChunkX = Math.floorDiv(centerX, 16);
         int centerChunkZ = Math.floorDiv(centerZ, 16);
+        job.minChunkX = centerChunkX - chunkRadius;
+        job.minChunkZ = centerChunkZ - chunkRadius;
+        job.chunkSide = chunkRadius * 2 + 1;
+        job.chunkLoaded = new boolean[job.chunkSide * job.chunkSide];
+        job.chunkQueued = new boolean[job.chunkSide * job.chunkSide];
         for (int dz = -chunkRadius; dz <= chunkRadius; dz++) {
             for (int dx = -chunkRadius; dx <= chunkRadius; dx++) {
                 ChunkCoord coord = new ChunkCoord(centerChunkX + dx, centerChunkZ + dz);
                 job.pending.add(coord);
-                job.requestedChunks.add(coord);
             }
         }
         job.totalChunks = job.pending.size();
-        jobs.put(jobId, job);
-        getLogger().info("lootprobe_extract_start job=" + jobId + " structure=" + structureId
-                + " dim=" + dimension + " center=" + centerX + "," + centerZ + " chunkRadius=" + chunkRadius);
-        if (parallelChunks) {
-            getLogger().info("lootprobe_extract_start job=" + jobId + " parallelChunks=true maxInFlight=" + job.maxInFlightChunks);
+        return job;
+    }
+
+    private boolean handleExtractBatch(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage("Usage: /lootprobe_extract_batch <relativeManifestFile> <relativeResultsFile> [parallelStructures]");
+            return true;
+        }
+        int parallelStructures = 1;
+        if (args.length >= 3) {
+            try {
+                parallelStructures = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage("failed invalid_number");
+                return true;
+            }
+        }
+        sender.sendMessage(startExtractBatch(args[0], args[1], parallelStructures));
+        return true;
+    }
+
+    private boolean handleExtractBatchStatus(CommandSender sender, String[] args) {
+        if (args.length < 1) {
+            sender.sendMessage("Usage: /lootprobe_extract_batch_status <batchId>");
+            return true;
+        }
+        ExtractBatch batch = batches.get(args[0]);
+        if (batch == null) {
+            sender.sendMessage("not_found");
+            return true;
+        }
+        int finished = batch.completedEntries + batch.failedEntries;
+        String state = batch.state == JobState.RUNNING ? "running" : "done";
+        int queuedChunks = 0;
+        for (ExtractJob job : chunkClients) {
+            queuedChunks += job.pending.size();
+        }
+        // Load figures let the client size parallelism to what this server sustains.
+        sender.sendMessage(state + " " + finished + "/" + batch.totalEntries + " failed=" + batch.failedEntries
+                + " running=" + batch.running.size()
+                + String.format(Locale.ROOT, " tick_ms=%.1f chunk_ms=%.1f", tickMsAverage, chunkLoadMsAverage)
+                + " in_flight_chunks=" + inFlightChunkRequests.size()
+                + " queued_chunks=" + queuedChunks
+                + " chunk_failures=" + chunkLoadFailures
+                + " ticketed_chunks=" + chunkTickets.heldCount()
+                + " retained_chunks=" + chunkTickets.retainedCount());
+        if (batch.state != JobState.RUNNING) {
+            batches.remove(batch.id);
+        }
+        return true;
+    }
+
+    private boolean handleExtractBatchTune(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            sender.sendMessage("Usage: /lootprobe_extract_batch_tune <batchId> <parallelStructures> <parallelChunkCount>");
+            return true;
+        }
+        ExtractBatch batch = batches.get(args[0]);
+        if (batch == null) {
+            sender.sendMessage("not_found");
+            return true;
+        }
+        int parallelStructures;
+        int parallelChunkCount;
+        try {
+            parallelStructures = Integer.parseInt(args[1]);
+            parallelChunkCount = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            sender.sendMessage("failed invalid_number");
+            return true;
+        }
+        // Lowering the structure count only stops new jobs from starting; running ones finish normally.
+        batch.parallelStructures = Math.max(1, parallelStructures);
+        batch.parallelChunkCount = Math.min(PARALLEL_JOB_MAX_IN_FLIGHT_CHUNKS, Math.max(1, parallelChunkCount));
+        for (ExtractJob job : batch.running) {
+            if (job.parallelChunks) {
+                job.maxInFlightChunks = batch.parallelChunkCount;
+            }
+        }
+        sender.sendMessage("tuned " + batch.id + " parallelStructures=" + batch.parallelStructures
+                + " parallelChunkCount=" + batch.parallelChunkCount);
+        return true;
+    }
+
+    private boolean handleExtractBatchCancel(CommandSender sender, String[] args) {
+        if (args.length < 1) {
+            sender.sendMessage("Usage: /lootprobe_extract_batch_cancel <batchId>");
+            return true;
+        }
+        ExtractBatch batch = batches.get(args[0]);
+        if (batch == null) {
+            sender.sendMessage("not_found");
+            return true;
+        }
+        batch.cancelled = true;
+        sender.sendMessage("cancelled " + batch.id);
+        return true;
+    }
+
+    private String startExtractBatch(String relativeManifest, String relativeResults, int parallelStructures) {
+        ExtractBatchManifest manifest;
+        try {
+            manifest = mapper.readValue(new File(getDataFolder(), relativeManifest), ExtractBatchManifest.class);
+        } catch (IOException e) {
+            return "failed manifest_unreadable";
+        }
+        if (manifest == null || manifest.entries == null || manifest.entries.isEmpty()) {
+            return "failed manifest_empty";
+        }
+        File resultsFile = new File(getDataFolder(), relativeResults);
+        File parent = resultsFile.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        if (resultsFile.exists() && !resultsFile.delete()) {
+            return "failed results_not_writable";
+        }
+
+        ExtractBatch batch = new ExtractBatch();
+        batch.id = UUID.randomUUID().toString().replace("-", "");
+        batch.relativeResults = relativeResults;
+        batch.parallelStructures = Math.max(1, parallelStructures);
+        batch.startedMs = System.currentTimeMillis();
+        if (manifest.processBudgetMs > 0) {
+            batch.processBudgetNanos = manifest.processBudgetMs * 1_000_000L;
+        }
+        for (ExtractBatchEntry entry : manifest.entries) {
+            if (entry != null) {
+                batch.queue.add(entry);
+            }
+        }
+        batch.totalEntries = batch.queue.size();
+        pruneFinished();
+        batches.put(batch.id, batch);
+        getLogger().info("lootprobe_extract_batch start batch=" + batch.id + " entries=" + batch.totalEntries
+                + " parallelStructures=" + batch.parallelStructures);
+        batch.task = Bukkit.getScheduler().runTaskTimer(this, () -> tickExtractBatch(batch), 1L, 1L);
+        return "batch=" + batch.id + " entries=" + batch.totalEntries + " completion_log=" + COMPLETION_LOG;
+    }
+
+    private void tickExtractBatch(ExtractBatch batch) {
+        batch.running.removeIf(job -> job.state != JobState.RUNNING);
+        if (batch.cancelled) {
+            for (ExtractJob job : new ArrayList<>(batch.running)) {
+                failJob(job, "batch_cancelled");
+            }
+            batch.running.clear();
+            batch.queue.clear();
+        }
+        while (!batch.queue.isEmpty() && batch.running.size() < batch.parallelStructures) {
+            ExtractBatchEntry entry = batch.queue.removeFirst();
+            String jobId = entry.key != null && !entry.key.isBlank()
+                    ? entry.key
+                    : UUID.randomUUID().toString().replace("-", "");
+            ExtractJob job = newExtractJob(
+                    jobId,
+                    entry.dimension,
+                    entry.structureId,
+                    entry.centerX,
+                    entry.centerZ,
+                    Math.max(2, entry.chunkRadius),
+                    entry.parallelChunks,
+                    batch.parallelChunkCount > 0
+                            ? batch.parallelChunkCount
+                            : entry.parallelChunkCount > 0 ? entry.parallelChunkCount : PARALLEL_JOB_DEFAULT_IN_FLIGHT_CHUNKS,
+                    null
+            );
+            job.batch = batch;
+            job.processBudgetNanos = batch.processBudgetNanos;
+            World world = entry.dimension != null ? resolveWorld(entry.dimension) : null;
+            if (world == null) {
+                failJob(job, "world_not_found");
+                continue;
+            }
+            batch.running.add(job);
+            scheduleExtractJob(world, job);
+        }
+        if (batch.queue.isEmpty() && batch.running.isEmpty() && batch.pendingWrites == 0) {
+            batch.state = JobState.DONE;
+            batch.finishedMs = System.currentTimeMillis();
+            if (batch.task != null) {
+                batch.task.cancel();
+            }
+            getLogger().info("lootprobe_extract_batch done batch=" + batch.id
+                    + " entries=" + batch.totalEntries
+                    + " completed=" + batch.completedEntries
+                    + " failed=" + batch.failedEntries
+                    + " cancelled=" + batch.cancelled
+                    + " tookMs=" + (System.currentTimeMillis() - batch.startedMs));
         }
-        scheduleExtractJob(world, job);
-        return "job=" + jobId;
+    }
+
+    /**
+     * Drops jobs and batches that finished more than {@link #FINISHED_JOB_TTL_MS} ago without their final status being
+     * read, e.g. extract jobs whose completion the client picked up from the completion log.
+     */
+    private void pruneFinished() {
+        long cutoff = System.currentTimeMillis() - FINISHED_JOB_TTL_MS;
+        jobs.values().removeIf(job -> job.finishedMs > 0 && job.finishedMs < cutoff);
+        batches.values().removeIf(batch -> batch.finishedMs > 0 && batch.finishedMs < cutoff);
+        discoverJobs.values().removeIf(job -> job.finishedMs > 0 && job.finishedMs < cutoff);
     }
 
     private void scheduleExtractJob(World world, ExtractJob job) {
+        job.world = world;
+        chunkClients.add(job);
         job.task = Bukkit.getScheduler().runTaskTimer(this, () -> {
             if (job.state != JobState.RUNNING) {
                 if (job.task != null) {
@@ -213,72 +586,239 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
                 return;
             }
 
-            for (int i = job.inFlight.size() - 1; i >= 0; i--) {
-                InFlightChunk inFlight = job.inFlight.get(i);
-                if (!inFlight.future.isDone()) {
-                    continue;
-                }
-                try {
-                    Chunk chunk = inFlight.future.getNow(null);
-                    if (chunk == null) {
-                        throw new IllegalStateException("chunk_null");
-                    }
-                    if (!inFlight.wasLoaded && world.isChunkLoaded(inFlight.coord.x, inFlight.coord.z)) {
-                        job.dump.chunkStats.newlyLoaded++;
-                    }
-                    boolean nowGenerated = isChunkGeneratedSafe(world, inFlight.coord.x, inFlight.coord.z);
-                    if (!inFlight.wasGenerated && nowGenerated) {
-                        job.dump.chunkStats.newlyGenerated++;
-                    }
-                    job.completedChunks++;
-                    job.inFlight.remove(i);
-                } catch (Exception e) {
+            for (int i = job.awaitingChunks.size() - 1; i >= 0; i--) {
+                ChunkRequest request = job.awaitingChunks.get(i);
+                if (request.failed) {
                     failJob(job, "chunk_load_failed");
                     return;
                 }
+                if (!request.loaded) {
+                    continue;
+                }
+                job.completedChunks++;
+                job.awaitingChunks.remove(i);
+                markChunkLoaded(job, request.coord);
+            }
+
+            if (job.pending.isEmpty() && job.awaitingChunks.isEmpty() && job.processedChunks == job.totalChunks) {
+                finishJob(job);
+            }
+        }, 1L, 1L);
+    }
+
+    /**
+     * Queues every chunk of the job that is now loaded together with its loaded neighbours inside the job's square,
+     * so structure pieces spanning a chunk border are complete before their containers are read.
+     */
+    private void markChunkLoaded(ExtractJob job, ChunkCoord coord) {
+        int index = chunkIndex(job, coord.x, coord.z);
+        if (index < 0 || job.chunkLoaded[index]) {
+            return;
+        }
+        job.chunkLoaded[index] = true;
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                queueIfReady(job, coord.x + dx, coord.z + dz);
             }
+        }
+    }
 
-            if (job.pending.isEmpty() && job.inFlight.isEmpty()) {
-                if (job.settleTicksRemaining > 0) {
-                    job.settleTicksRemaining--;
+    private void queueIfReady(ExtractJob job, int chunkX, int chunkZ) {
+        int index = chunkIndex(job, chunkX, chunkZ);
+        if (index < 0 || !job.chunkLoaded[index] || job.chunkQueued[index]) {
+            return;
+        }
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int neighbour = chunkIndex(job, chunkX + dx, chunkZ + dz);
+                if (neighbour >= 0 && !job.chunkLoaded[neighbour]) {
                     return;
                 }
-                if (!job.postLoadProcessed) {
-                    processAllRequestedChunks(world, job);
-                    job.postLoadProcessed = true;
-                }
-                finishJob(job);
+            }
+        }
+        job.chunkQueued[index] = true;
+        processQueue.addLast(new ProcessTask(job, chunkX, chunkZ, schedulerTicks + POST_LOAD_SETTLE_TICKS));
+    }
+
+    private static int chunkIndex(ExtractJob job, int chunkX, int chunkZ) {
+        int dx = chunkX - job.minChunkX;
+        int dz = chunkZ - job.minChunkZ;
+        if (dx < 0 || dz < 0 || dx >= job.chunkSide || dz >= job.chunkSide) {
+            return -1;
+        }
+        return dz * job.chunkSide + dx;
+    }
+
+    /**
+     * Reads queued chunks until this tick's budget is spent. Each chunk may only start while the time used this tick is
+     * under its own job's budget, so batches with different budgets do not change each other's. At least one chunk is
+     * read per tick so a budget smaller than a single chunk still makes progress; tasks are queued in tick order, so
+     * the first unsettled one ends the pass.
+     */
+    private void drainProcessQueue() {
+        long startNanos = System.nanoTime();
+        boolean processedAny = false;
+        while (!processQueue.isEmpty()) {
+            ProcessTask task = processQueue.peekFirst();
+            if (task.job.state != JobState.RUNNING) {
+                processQueue.removeFirst();
+                continue;
+            }
+            if (task.readyTick > schedulerTicks
+                    || (processedAny && System.nanoTime() - startNanos >= task.job.processBudgetNanos)) {
                 return;
             }
+            processQueue.removeFirst();
+            processedAny = true;
+            try {
+                processChunk(task.job, task.job.world.getChunkAt(task.chunkX, task.chunkZ));
+            } catch (RuntimeException e) {
+                failJob(task.job, "chunk_process_failed");
+                continue;
+            }
+            task.job.processedChunks++;
+        }
+    }
+
+    private void tickChunkScheduler() {
+        long tickNanos = System.nanoTime();
+        if (lastSchedulerTickNanos != 0L) {
+            // This task runs every tick, so the gap between runs is the server's tick time.
+            double tickMs = (tickNanos - lastSchedulerTickNanos) / 1_000_000.0;
+            tickMsAverage += (tickMs - tickMsAverage) * LOAD_AVERAGE_WEIGHT;
+        }
+        lastSchedulerTickNanos = tickNanos;
+        schedulerTicks++;
+        drainProcessQueue();
+        for (int i = inFlightChunkRequests.size() - 1; i >= 0; i--) {
+            ChunkRequest request = inFlightChunkRequests.get(i);
+            if (!request.future.isDone()) {
+                continue;
+            }
+            inFlightChunkRequests.remove(i);
+            request.owner.ownedInFlightChunks--;
+            Chunk chunk = null;
+            try {
+                chunk = request.future.getNow(null);
+            } catch (Exception ignored) {
+            }
+            double loadMs = (tickNanos - request.requestedNanos) / 1_000_000.0;
+            chunkLoadMsAverage += (loadMs - chunkLoadMsAverage) * LOAD_AVERAGE_WEIGHT;
+            if (chunk == null) {
+                chunkLoadFailures++;
+                request.failed = true;
+                // Drop the failed entry so later jobs retry the load instead of inheriting the failure.
+                chunkRequests.remove(request.key, request);
+                continue;
+            }
+            request.loaded = true;
+            chunkTickets.acquire(request.world, request.coord.x, request.coord.z);
+            ChunkStats ownerStats = request.owner.dump.chunkStats;
+            if (!request.wasLoaded && request.world.isChunkLoaded(request.coord.x, request.coord.z)) {
+                ownerStats.newlyLoaded++;
+            }
+            if (!request.wasGenerated && isChunkGeneratedSafe(request.world, request.coord.x, request.coord.z)) {
+                ownerStats.newlyGenerated++;
+            }
+            if (request.refCount <= 0) {
+                dropLoadedChunkRequest(request);
+            }
+        }
+
+        chunkClients.removeIf(job -> job.state != JobState.RUNNING || job.pending.isEmpty());
+        if (chunkClients.isEmpty()) {
+            return;
+        }
+        int budget = 0;
+        for (ExtractJob job : chunkClients) {
+            budget += job.maxInFlightChunks;
+        }
+        budget = Math.min(GLOBAL_MAX_IN_FLIGHT_CHUNKS, budget);
 
-            while (!job.pending.isEmpty() && job.inFlight.size() < job.maxInFlightChunks) {
-                ChunkCoord next = job.pending.removeFirst();
-                job.dump.chunkStats.requested++;
-                boolean wasLoaded = world.isChunkLoaded(next.x, next.z);
-                if (wasLoaded) {
-                    job.dump.chunkStats.alreadyLoaded++;
+        // Round-robin across jobs so one large structure cannot starve the others of the shared budget.
+        boolean progressed = true;
+        while (progressed) {
+            progressed = false;
+            int size = chunkClients.size();
+            for (int n = 0; n < size; n++) {
+                ExtractJob job = chunkClients.get(Math.floorMod(chunkClientCursor + n, size));
+                ChunkCoord next = job.pending.peekFirst();
+                if (next == null) {
+                    continue;
+                }
+                String key = chunkRequestKey(job.world, next);
+                ChunkRequest existing = chunkRequests.get(key);
+                if (existing != null) {
+                    job.pending.removeFirst();
+                    attachChunkRequest(job, existing);
+                    job.dump.chunkStats.shared++;
+                    progressed = true;
+                    continue;
                 }
-                boolean wasGenerated = isChunkGeneratedSafe(world, next.x, next.z);
-                if (wasGenerated) {
-                    job.dump.chunkStats.alreadyGenerated++;
+                if (inFlightChunkRequests.size() >= budget || job.ownedInFlightChunks >= job.maxInFlightChunks) {
+                    continue;
                 }
-                InFlightChunk inFlight = new InFlightChunk();
-                inFlight.coord = next;
-                inFlight.wasLoaded = wasLoaded;
-                inFlight.wasGenerated = wasGenerated;
-                inFlight.future = world.getChunkAtAsync(next.x, next.z, true);
-                job.inFlight.add(inFlight);
+                job.pending.removeFirst();
+                ChunkRequest request = new ChunkRequest();
+                request.key = key;
+                request.world = job.world;
+                request.coord = next;
+                request.owner = job;
+                request.wasLoaded = job.world.isChunkLoaded(next.x, next.z);
+                request.wasGenerated = isChunkGeneratedSafe(job.world, next.x, next.z);
+                request.requestedNanos = System.nanoTime();
+                request.future = job.world.getChunkAtAsync(next.x, next.z, true);
+                chunkRequests.put(key, request);
+                inFlightChunkRequests.add(request);
+                job.ownedInFlightChunks++;
+                attachChunkRequest(job, request);
+                progressed = true;
             }
-        }, 1L, 1L);
+            chunkClientCursor++;
+        }
+    }
+
+    private void attachChunkRequest(ExtractJob job, ChunkRequest request) {
+        ChunkStats stats = job.dump.chunkStats;
+        stats.requested++;
+        if (job.world.isChunkLoaded(request.coord.x, request.coord.z)) {
+            stats.alreadyLoaded++;
+        }
+        if (isChunkGeneratedSafe(job.world, request.coord.x, request.coord.z)) {
+            stats.alreadyGenerated++;
+        }
+        request.refCount++;
+        job.heldChunks.add(request);
+        job.awaitingChunks.add(request);
+    }
+
+    private void releaseChunkInterest(ExtractJob job) {
+        chunkClients.remove(job);
+        for (ChunkRequest request : job.heldChunks) {
+            request.refCount--;
+            if (request.refCount <= 0 && request.loaded) {
+                dropLoadedChunkRequest(request);
+            } else if (request.refCount <= 0 && request.failed) {
+                chunkRequests.remove(request.key, request);
+            }
+        }
+        job.heldChunks.clear();
+        job.awaitingChunks.clear();
     }
 
-    private void processAllRequestedChunks(World world, ExtractJob job) {
-        for (ChunkCoord coord : job.requestedChunks) {
-            Chunk chunk = world.getChunkAt(coord.x, coord.z);
-            processChunk(job, chunk);
+    /**
+     * Forgets a loaded request nobody holds any more and releases its ticket into the retained LRU.
+     */
+    private void dropLoadedChunkRequest(ChunkRequest request) {
+        if (chunkRequests.remove(request.key, request)) {
+            chunkTickets.release(request.world, request.coord.x, request.coord.z);
         }
     }
 
+    private static String chunkRequestKey(World world, ChunkCoord coord) {
+        return world.getName() + "|" + coord.x + "|" + coord.z;
+    }
+
     private void processChunk(ExtractJob job, Chunk chunk) {
         World world = chunk.getWorld();
         int chunkX = chunk.getX();
@@ -326,16 +866,64 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         }
     }
 
+    /**
+     * Hands a fully processed job to the dump writer. Nothing touches the job's dump on the main thread afterwards, so
+     * the writer owns it; the job reports {@code done} once the write has landed.
+     */
     private void finishJob(ExtractJob job) {
+        job.state = JobState.WRITING;
+        releaseChunkInterest(job);
+        if (job.task != null) {
+            job.task.cancel();
+        }
+        if (job.batch != null) {
+            job.batch.pendingWrites++;
+        }
+        String relativeOut = job.batch != null ? job.batch.relativeResults : job.relativeOut;
+        File outFile = new File(getDataFolder(), relativeOut);
+        dumpWriter.execute(() -> {
+            String writeError = writeDump(job, relativeOut, outFile);
+            if (isEnabled()) {
+                Bukkit.getScheduler().runTask(this, () -> completeDumpWrite(job, writeError));
+            }
+        });
+    }
+
+    private void completeDumpWrite(ExtractJob job, String writeError) {
+        if (job.batch != null) {
+            job.batch.pendingWrites--;
+        }
+        if (writeError != null) {
+            failJob(job, writeError);
+            return;
+        }
+        if (job.batch != null) {
+            job.batch.completedEntries++;
+        }
+        job.state = JobState.DONE;
+        job.finishedMs = System.currentTimeMillis();
+    }
+
+    /**
+     * Runs on the dump writer. Returns null once the dump is written, otherwise the job's failure error.
+     */
+    private String writeDump(ExtractJob job, String relativeOut, File outFile) {
         try {
             job.dump.chests.sort(Comparator.comparingInt((ChestData c) -> c.x).thenComparingInt(c -> c.z).thenComparingInt(c -> c.y));
-            File outFile = new File(getDataFolder(), job.relativeOut);
             File parent = outFile.getParentFile();
             if (parent != null) {
                 parent.mkdirs();
             }
-            mapper.writeValue(outFile, job.dump);
-            job.state = JobState.DONE;
+            if (job.batch != null) {
+                job.dump.jobId = job.id;
+                appendBatchResult(outFile, job.dump);
+            } else {
+                // Written under a temp name and moved, so a client waiting for the file never reads a partial one.
+                File tmp = new File(outFile.getPath() + ".tmp");
+                mapper.writeValue(tmp, job.dump);
+                Files.move(tmp.toPath(), outFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            appendCompletion(job, "done " + relativeOut + " " + job.completedChunks + "/" + job.totalChunks);
             int itemCount = 0;
             for (ChestData chest : job.dump.chests) {
                 itemCount += chest.items != null ? chest.items.size() : 0;
@@ -344,6 +932,7 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
             getLogger().info("lootprobe_extract done structure=" + job.structureId
                     + " chunks=" + job.dump.chunkStats.requested
                     + " generated=" + job.dump.chunkStats.newlyGenerated
+                    + " shared=" + job.dump.chunkStats.shared
                     + " chests=" + job.dump.chests.size()
                     + " items=" + itemCount
                     + " zeroSeedLootTables=" + job.zeroSeedLootTableCount
@@ -368,22 +957,81 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
                     getLogger().warning("lootprobe_extract skipped_context_example structure=" + job.structureId + " " + sample);
                 }
             }
+            return null;
         } catch (Exception e) {
-            failJob(job, "write_failed");
-        } finally {
-            if (job.task != null) {
-                job.task.cancel();
-            }
+            getLogger().log(Level.WARNING, "lootprobe_extract dump write failed job=" + job.id + " out=" + outFile.getAbsolutePath(), e);
+            return "write_failed:" + e.getMessage();
         }
     }
 
     private void failJob(ExtractJob job, String error) {
         job.error = error;
         job.state = JobState.FAILED;
+        job.finishedMs = System.currentTimeMillis();
+        releaseChunkInterest(job);
+        if (job.batch != null) {
+            job.batch.failedEntries++;
+        }
         getLogger().warning("lootprobe_extract failed job=" + job.id + " structure=" + job.structureId + " error=" + error);
         if (job.task != null) {
             job.task.cancel();
         }
+        runOnDumpWriter(() -> appendCompletion(job, "failed " + error));
+    }
+
+    /**
+     * Hands file I/O to the dump writer, or runs it inline once the writer has shut down.
+     */
+    private void runOnDumpWriter(Runnable write) {
+        ExecutorService writer = dumpWriter;
+        if (writer != null) {
+            try {
+                writer.execute(write);
+                return;
+            } catch (RejectedExecutionException ignored) {
+            }
+        }
+        write.run();
+    }
+
+    private Object appendLock(File file) {
+        return appendLocks.computeIfAbsent(file.getAbsolutePath(), k -> new Object());
+    }
+
+    private void appendBatchResult(File resultsFile, PluginStructureDump dump) throws IOException {
+        // One compact JSON document per line so the client can stream results from a single file.
+        String line = compactWriter.writeValueAsString(dump) + "\n";
+        synchronized (appendLock(resultsFile)) {
+            Files.writeString(
+                    resultsFile.toPath(),
+                    line,
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND
+            );
+        }
+    }
+
+    private void appendCompletion(ExtractJob job, String status) {
+        // Lets the client block on file changes instead of polling lootprobe_extract_status.
+        File logFile = new File(getDataFolder(), COMPLETION_LOG);
+        File parent = logFile.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try {
+            synchronized (appendLock(logFile)) {
+                Files.writeString(
+                        logFile.toPath(),
+                        job.id + " " + status + "\n",
+                        StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND
+                );
+            }
+        } catch (IOException e) {
+            getLogger().warning("lootprobe_extract completion log write failed job=" + job.id + " error=" + e.getMessage());
+        }
     }
 
     private boolean handleDiscover(CommandSender sender, String[] args) {
@@ -450,38 +1098,309 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         return true;
     }
 
-    private PluginDiscoverDump discover(
-            World world,
-            String dimension,
-            int centerX,
-            int centerZ,
-            int radius,
-            int locateStep,
-            List<String> structureIds
-    ) {
-        PluginDiscoverDump dump = new PluginDiscoverDump();
-        dump.dimension = dimension;
-        dump.centerX = centerX;
-        dump.centerZ = centerZ;
-        dump.radius = radius;
-        dump.locateStep = locateStep;
-
-        int searchRadiusChunks = Math.max(64, (radius / 16) + 16);
-        Set<String> seen = new HashSet<>();
-
-        for (String structureId : structureIds) {
-            List<Structure> resolvedStructures = resolveStructures(structureId);
-            if (resolvedStructures.isEmpty()) {
-                getLogger().info("lootprobe_discover skip unresolved structure id=" + structureId);
+    private boolean handleDiscoverPlacements(CommandSender sender, String[] args) {
+        if (args.length < 6) {
+            sender.sendMessage("Usage: /lootprobe_discover_placements <dimension> <centerX> <centerZ> <radius> <relativeOutputFile> <structureId...>");
+            return true;
+        }
+        String dimension = args[0];
+        int centerX;
+        int centerZ;
+        int radius;
+        try {
+            centerX = Integer.parseInt(args[1]);
+            centerZ = Integer.parseInt(args[2]);
+            radius = Math.max(1, Integer.parseInt(args[3]));
+        } catch (NumberFormatException e) {
+            sender.sendMessage("failed invalid_number");
+            return true;
+        }
+        String relativeOut = args[4];
+        World world = resolveWorld(dimension);
+        if (world == null) {
+            sender.sendMessage("failed world_not_found");
+            return true;
+        }
+        Map<String, Set<String>> requested = new LinkedHashMap<>();
+        for (int i = 5; i < args.length; i++) {
+            String structureId = args[i].trim();
+            if (structureId.isEmpty()) {
                 continue;
             }
-            if (resolvedStructures.size() > 1) {
-                getLogger().info("lootprobe_discover expanded structure id=" + structureId + " to " + resolvedStructures.size() + " variants");
+            Set<String> keys = new HashSet<>();
+            for (Structure structure : resolveStructures(structureId)) {
+                if (structure.getKey() != null) {
+                    keys.add(structure.getKey().toString());
+                }
             }
-            for (Structure structure : resolvedStructures) {
-                for (int x = centerX - radius; x <= centerX + radius; x += locateStep) {
-                    for (int z = centerZ - radius; z <= centerZ + radius; z += locateStep) {
-                        if (dist2(centerX, centerZ, x, z) > (long) radius * radius) {
+            if (keys.isEmpty()) {
+                getLogger().info("lootprobe_discover_placements skip unresolved structure id=" + structureId);
+                continue;
+            }
+            requested.put(structureId, keys);
+        }
+
+        DiscoverJob job = new DiscoverJob();
+        try {
+            job.placements = StructurePlacementScanner.forWorld(world).begin(centerX, centerZ, radius, requested);
+        } catch (UnsupportedOperationException e) {
+            getLogger().warning("lootprobe_discover_placements unsupported: " + e.getMessage());
+            sender.sendMessage("failed placement_unsupported");
+            return true;
+        }
+        job.world = world;
+        job.dimension = dimension;
+        job.centerX = centerX;
+        job.centerZ = centerZ;
+        job.radius = radius;
+        job.total = (int) Math.min(Integer.MAX_VALUE, job.placements.candidateTotal());
+        job.outFile = new File(getDataFolder(), relativeOut);
+        File parent = job.outFile.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        if (job.outFile.exists() && !job.outFile.delete()) {
+            sender.sendMessage("failed output_not_writable");
+            return true;
+        }
+        job.id = UUID.randomUUID().toString().replace("-", "");
+        job.startedMs = System.currentTimeMillis();
+        pruneFinished();
+        discoverJobs.put(job.id, job);
+        getLogger().info("lootprobe_discover_placements start job=" + job.id + " dim=" + dimension
+                + " center=" + centerX + "," + centerZ + " radius=" + radius + " structureSets=" + job.placements.structureSetCount() + " candidates=" + job.total);
+        job.task = Bukkit.getScheduler().runTaskTimer(this, () -> tickDiscoverJob(job), 1L, 1L);
+        sender.sendMessage("job=" + job.id + " total=" + job.total);
+        return true;
+    }
+
+    private boolean handleDiscoverStart(CommandSender sender, String[] args) {
+        if (args.length < 7) {
+            sender.sendMessage("Usage: /lootprobe_discover_start <dimension> <centerX> <centerZ> <radius> <locateStep> <relativeOutputFile> <structureId...>");
+            return true;
+        }
+        DiscoverJob job = new DiscoverJob();
+        job.dimension = args[0];
+        try {
+            job.centerX = Integer.parseInt(args[1]);
+            job.centerZ = Integer.parseInt(args[2]);
+            job.radius = Math.max(1, Integer.parseInt(args[3]));
+            job.locateStep = Math.max(128, Integer.parseInt(args[4]));
+        } catch (NumberFormatException e) {
+            sender.sendMessage("failed invalid_number");
+            return true;
+        }
+        job.world = resolveWorld(job.dimension);
+        if (job.world == null) {
+            sender.sendMessage("failed world_not_found");
+            return true;
+        }
+        for (int i = 6; i < args.length; i++) {
+            String structureId = args[i].trim();
+            if (structureId.isEmpty()) {
+                continue;
+            }
+            List<Structure> resolved = resolveStructures(structureId);
+            if (resolved.isEmpty()) {
+                getLogger().info("lootprobe_discover_start skip unresolved structure id=" + structureId);
+            }
+            for (Structure structure : resolved) {
+                job.structureIds.add(structureId);
+                job.structures.add(structure);
+            }
+        }
+        for (int x = job.centerX - job.radius; x <= job.centerX + job.radius; x += job.locateStep) {
+            for (int z = job.centerZ - job.radius; z <= job.centerZ + job.radius; z += job.locateStep) {
+                if (dist2(job.centerX, job.centerZ, x, z) <= (long) job.radius * job.radius) {
+                    job.points.add(new ChunkCoord(x, z));
+                }
+            }
+        }
+        job.total = job.structures.size() * job.points.size();
+        job.outFile = new File(getDataFolder(), args[5]);
+        File parent = job.outFile.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        if (job.outFile.exists() && !job.outFile.delete()) {
+            sender.sendMessage("failed output_not_writable");
+            return true;
+        }
+        job.id = UUID.randomUUID().toString().replace("-", "");
+        job.startedMs = System.currentTimeMillis();
+        pruneFinished();
+        discoverJobs.put(job.id, job);
+        getLogger().info("lootprobe_discover_start job=" + job.id + " dim=" + job.dimension
+                + " center=" + job.centerX + "," + job.centerZ + " radius=" + job.radius
+                + " locates=" + job.total);
+        job.task = Bukkit.getScheduler().runTaskTimer(this, () -> tickDiscoverJob(job), 1L, 1L);
+        sender.sendMessage("job=" + job.id + " total=" + job.total);
+        return true;
+    }
+
+    private boolean handleDiscoverStatus(CommandSender sender, String[] args) {
+        if (args.length < 1) {
+            sender.sendMessage("Usage: /lootprobe_discover_status <jobId>");
+            return true;
+        }
+        DiscoverJob job = discoverJobs.get(args[0]);
+        if (job == null) {
+            sender.sendMessage("not_found");
+            return true;
+        }
+        if (job.state != JobState.RUNNING) {
+            discoverJobs.remove(job.id);
+        }
+        if (job.state == JobState.FAILED) {
+            sender.sendMessage("failed " + (job.error != null ? job.error : "unknown"));
+            return true;
+        }
+        String state = job.state == JobState.RUNNING ? "running" : "done";
+        sender.sendMessage(state + " " + job.done + "/" + job.total + " starts=" + job.found);
+        return true;
+    }
+
+    private boolean handleDiscoverCancel(CommandSender sender, String[] args) {
+        if (args.length < 1) {
+            sender.sendMessage("Usage: /lootprobe_discover_cancel <jobId>");
+            return true;
+        }
+        DiscoverJob job = discoverJobs.get(args[0]);
+        if (job == null) {
+            sender.sendMessage("not_found");
+            return true;
+        }
+        job.cancelled = true;
+        sender.sendMessage("cancelled " + job.id);
+        return true;
+    }
+
+    /**
+     * Advances one discovery job until this tick's budget is spent, then appends the new starts to its NDJSON output.
+     * A single locate or placement check can still run past the budget; the budget only bounds how many run back to
+     * back.
+     */
+    private void tickDiscoverJob(DiscoverJob job) {
+        if (job.state != JobState.RUNNING) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        try {
+            long deadline = System.nanoTime() + DEFAULT_PROCESS_BUDGET_MS * 1_000_000L;
+            if (job.placements != null) {
+                stepPlacements(job, deadline, lines);
+            } else {
+                stepLocates(job, deadline, lines);
+            }
+            if (!lines.isEmpty()) {
+                Files.writeString(job.outFile.toPath(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (UnsupportedOperationException e) {
+            failDiscoverJob(job, "placement_unsupported", e);
+            return;
+        } catch (Exception e) {
+            failDiscoverJob(job, "discover_failed:" + e.getMessage(), e);
+            return;
+        }
+        boolean finished = job.placements != null ? job.placements.done() : job.done >= job.total;
+        if (job.cancelled || finished) {
+            job.state = JobState.DONE;
+            job.finishedMs = System.currentTimeMillis();
+            job.task.cancel();
+            getLogger().info("lootprobe_discover done job=" + job.id + " mode=" + (job.placements != null ? "placements" : "locate")
+                    + " progress=" + job.done + "/" + job.total
+                    + " starts=" + job.found + " cancelled=" + job.cancelled
+                    + " tookMs=" + (System.currentTimeMillis() - job.startedMs));
+        }
+    }
+
+    private void failDiscoverJob(DiscoverJob job, String error, Exception cause) {
+        job.error = error;
+        job.state = JobState.FAILED;
+        job.finishedMs = System.currentTimeMillis();
+        job.task.cancel();
+        getLogger().warning("lootprobe_discover failed job=" + job.id + " error=" + cause);
+    }
+
+    private void stepPlacements(DiscoverJob job, long deadline, StringBuilder lines) throws IOException {
+        if (job.cancelled) {
+            return;
+        }
+        List<StructurePlacementScanner.Start> found = new ArrayList<>();
+        job.placements.step(deadline, found);
+        job.done = (int) Math.min(job.total, job.placements.candidatesDone());
+        for (StructurePlacementScanner.Start placed : found) {
+            DiscoverStart start = new DiscoverStart();
+            start.id = placed.requestedId();
+            start.x = placed.x();
+            start.y = placed.y();
+            start.z = placed.z();
+            lines.append(compactWriter.writeValueAsString(start)).append('\n');
+            job.found++;
+        }
+    }
+
+    private void stepLocates(DiscoverJob job, long deadline, StringBuilder lines) throws IOException {
+        while (!job.cancelled && job.done < job.total && System.nanoTime() < deadline) {
+            int structureIndex = job.done / job.points.size();
+            ChunkCoord point = job.points.get(job.done % job.points.size());
+            job.done++;
+            Structure structure = job.structures.get(structureIndex);
+            StructureSearchResult nearest = job.world.locateNearestStructure(
+                    new Location(job.world, point.x, 80, point.z), structure, job.searchRadiusChunks(), false);
+            if (nearest == null || nearest.getLocation() == null) {
+                continue;
+            }
+            Location loc = nearest.getLocation();
+            if (dist2(job.centerX, job.centerZ, loc.getBlockX(), loc.getBlockZ()) > (long) job.radius * job.radius) {
+                continue;
+            }
+            String structureId = job.structureIds.get(structureIndex);
+            if (!job.seen.add(structureId + "|" + (loc.getBlockX() >> 4) + "|" + (loc.getBlockZ() >> 4))) {
+                continue;
+            }
+            DiscoverStart start = new DiscoverStart();
+            start.id = structureId;
+            start.x = loc.getBlockX();
+            start.y = loc.getBlockY();
+            start.z = loc.getBlockZ();
+            lines.append(compactWriter.writeValueAsString(start)).append('\n');
+            job.found++;
+        }
+    }
+
+    private PluginDiscoverDump discover(
+            World world,
+            String dimension,
+            int centerX,
+            int centerZ,
+            int radius,
+            int locateStep,
+            List<String> structureIds
+    ) {
+        PluginDiscoverDump dump = new PluginDiscoverDump();
+        dump.dimension = dimension;
+        dump.centerX = centerX;
+        dump.centerZ = centerZ;
+        dump.radius = radius;
+        dump.locateStep = locateStep;
+
+        int searchRadiusChunks = Math.max(64, (radius / 16) + 16);
+        Set<String> seen = new HashSet<>();
+
+        for (String structureId : structureIds) {
+            List<Structure> resolvedStructures = resolveStructures(structureId);
+            if (resolvedStructures.isEmpty()) {
+                getLogger().info("lootprobe_discover skip unresolved structure id=" + structureId);
+                continue;
+            }
+            if (resolvedStructures.size() > 1) {
+                getLogger().info("lootprobe_discover expanded structure id=" + structureId + " to " + resolvedStructures.size() + " variants");
+            }
+            for (Structure structure : resolvedStructures) {
+                for (int x = centerX - radius; x <= centerX + radius; x += locateStep) {
+                    for (int z = centerZ - radius; z <= centerZ + radius; z += locateStep) {
+                        if (dist2(centerX, centerZ, x, z) > (long) radius * radius) {
                             continue;
                         }
                         dump.samplePoints++;
@@ -514,6 +1433,376 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         return dump;
     }
 
+    private boolean handleSample(CommandSender sender, String[] args) {
+        if (args.length < 4) {
+            sender.sendMessage("Usage: /lootprobe_sample <dimension> <lootTable> <samples> <relativeOutputFile> [seed,seed,...]");
+            return true;
+        }
+
+        String dimension = args[0];
+        String lootTableId = args[1];
+        String relativeOut = args[3];
+        int samples;
+        List<Long> seeds = new ArrayList<>();
+        try {
+            samples = Math.max(1, Integer.parseInt(args[2]));
+            if (args.length >= 5) {
+                for (String raw : args[4].split(",")) {
+                    if (!raw.isBlank()) {
+                        seeds.add(Long.parseLong(raw.trim()));
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            sender.sendMessage("samples and seeds must be integers.");
+            return true;
+        }
+        samples = Math.min(MAX_SAMPLES_PER_COMMAND, Math.max(samples, seeds.size()));
+
+        World world = resolveWorld(dimension);
+        if (world == null) {
+            sender.sendMessage("World not found for dimension: " + dimension);
+            return true;
+        }
+        NamespacedKey tableKey = NamespacedKey.fromString(lootTableId);
+        LootTable table = tableKey != null ? Bukkit.getLootTable(tableKey) : null;
+        if (table == null) {
+            sender.sendMessage("lootprobe_sample failed: loot table not found " + lootTableId);
+            return true;
+        }
+
+        SampleJob job = new SampleJob();
+        job.id = UUID.randomUUID().toString().replace("-", "");
+        job.lootTableId = lootTableId;
+        job.table = table;
+        job.context = new LootContext.Builder(new Location(world, 0, 240, 0)).build();
+        job.samples = samples;
+        job.seeds = seeds;
+        job.outFile = new File(getDataFolder(), relativeOut);
+        job.dump.lootTable = lootTableId;
+        job.dump.dimension = dimension;
+        job.startedMs = System.currentTimeMillis();
+        job.task = Bukkit.getScheduler().runTaskTimer(this, () -> tickSampleJob(job), 1L, 1L);
+        sender.sendMessage("lootprobe_sample job=" + job.id + " out=" + job.outFile.getAbsolutePath() + " samples=" + samples);
+        return true;
+    }
+
+    /**
+     * Rolls a sample job on the main thread until this tick's budget is spent, at least one roll per tick, then hands
+     * the finished dump to the dump writer.
+     */
+    private void tickSampleJob(SampleJob job) {
+        long deadline = System.nanoTime() + DEFAULT_PROCESS_BUDGET_MS * 1_000_000L;
+        boolean stopped = false;
+        try {
+            do {
+                stopped = !rollSample(job);
+            } while (!stopped && job.dump.samples.size() < job.samples && System.nanoTime() < deadline);
+        } catch (RuntimeException e) {
+            job.dump.error = "loot_populate_failed:" + e.getMessage();
+            stopped = true;
+        }
+        if (!stopped && job.dump.samples.size() < job.samples) {
+            return;
+        }
+        job.task.cancel();
+        runOnDumpWriter(() -> writeSampleDump(job));
+    }
+
+    /**
+     * Adds one roll to the job's dump. Returns false when the table cannot be rolled with the plugin's context.
+     */
+    private boolean rollSample(SampleJob job) {
+        int index = job.dump.samples.size();
+        PluginLootSample sample = new PluginLootSample();
+        sample.seed = index < job.seeds.size() ? job.seeds.get(index) : job.seedSource.nextLong();
+        Collection<ItemStack> rolled;
+        try {
+            rolled = job.table.populateLoot(new Random(sample.seed), job.context);
+        } catch (IllegalArgumentException ex) {
+            // Tables that need a tool, killer or damage source fail the same way on every roll.
+            job.dump.error = "loot_context_unsupported:" + ex.getMessage();
+            return false;
+        }
+        int slot = 0;
+        for (ItemStack item : rolled) {
+            if (item == null || item.getType() == Material.AIR || item.getAmount() <= 0) {
+                continue;
+            }
+            sample.items.add(toItemData(item, slot++));
+        }
+        job.dump.samples.add(sample);
+        return true;
+    }
+
+    private void writeSampleDump(SampleJob job) {
+        try {
+            writeAtomically(job.outFile, job.dump);
+            getLogger().info("lootprobe_sample done job=" + job.id + " table=" + job.lootTableId
+                    + " samples=" + job.dump.samples.size() + " tookMs=" + (System.currentTimeMillis() - job.startedMs));
+        } catch (IOException e) {
+            getLogger().warning("lootprobe_sample failed to write job=" + job.id + ": " + e.getMessage());
+            PluginSampleDump failed = new PluginSampleDump();
+            failed.lootTable = job.dump.lootTable;
+            failed.dimension = job.dump.dimension;
+            failed.error = "write_failed:" + e.getMessage();
+            try {
+                writeAtomically(job.outFile, failed);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Writes a compact JSON dump under a temp name and moves it into place, so a client waiting for the file never
+     * reads a partial one.
+     */
+    private void writeAtomically(File outFile, Object dump) throws IOException {
+        File parent = outFile.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        File tmp = new File(outFile.getPath() + ".tmp");
+        compactWriter.writeValue(tmp, dump);
+        try {
+            Files.move(tmp.toPath(), outFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), outFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private boolean handleSampleStats(CommandSender sender, String[] args) {
+        if (args.length < 5) {
+            sender.sendMessage("Usage: /lootprobe_sample_stats <dimension> <lootTable> <maxSamples> <targetHalfWidth> <relativeOutputFile> [seed]");
+            return true;
+        }
+
+        String dimension = args[0];
+        String lootTableId = args[1];
+        String relativeOut = args[4];
+        long maxSamples;
+        double targetHalfWidth;
+        long baseSeed;
+        try {
+            maxSamples = Math.max(STATS_MIN_SAMPLES, Long.parseLong(args[2]));
+            targetHalfWidth = Math.max(0.0, Double.parseDouble(args[3]));
+            baseSeed = args.length >= 6 ? Long.parseLong(args[5]) : new Random().nextLong();
+        } catch (NumberFormatException e) {
+            sender.sendMessage("maxSamples/seed must be integers and targetHalfWidth a number.");
+            return true;
+        }
+
+        World world = resolveWorld(dimension);
+        if (world == null) {
+            sender.sendMessage("World not found for dimension: " + dimension);
+            return true;
+        }
+        NamespacedKey tableKey = NamespacedKey.fromString(lootTableId);
+        LootTable table = tableKey != null ? Bukkit.getLootTable(tableKey) : null;
+        if (table == null) {
+            sender.sendMessage("lootprobe_sample_stats failed: loot table not found " + lootTableId);
+            return true;
+        }
+
+        File outFile = new File(getDataFolder(), relativeOut);
+        LootContext context = new LootContext.Builder(new Location(world, 0, 240, 0)).build();
+        String jobId = UUID.randomUUID().toString().replace("-", "");
+        String mainThreadReason = LootTableInspector.offThreadBlocker(table);
+        getLogger().info("lootprobe_sample_stats start job=" + jobId + " table=" + lootTableId
+                + " maxSamples=" + maxSamples + " targetHalfWidth=" + targetHalfWidth
+                + (mainThreadReason != null ? " mainThread=" + mainThreadReason : ""));
+        if (mainThreadReason != null) {
+            SampleStatsJob job = new SampleStatsJob();
+            job.id = jobId;
+            job.table = table;
+            job.context = context;
+            job.maxSamples = maxSamples;
+            job.seeds = new SplittableRandom(baseSeed);
+            job.outFile = outFile;
+            job.startedMs = System.currentTimeMillis();
+            job.dump.lootTable = lootTableId;
+            job.dump.dimension = dimension;
+            job.dump.baseSeed = baseSeed;
+            job.dump.targetHalfWidth = targetHalfWidth;
+            job.task = Bukkit.getScheduler().runTaskTimer(this, () -> tickSampleStatsJob(job), 1L, 1L);
+        } else {
+            Bukkit.getScheduler().runTaskAsynchronously(this, () -> runSampleStats(
+                    jobId, dimension, lootTableId, table, context, maxSamples, targetHalfWidth, baseSeed, outFile
+            ));
+        }
+        sender.sendMessage("lootprobe_sample_stats job=" + jobId + " out=" + outFile.getAbsolutePath());
+        return true;
+    }
+
+    /**
+     * Rolls in rounds across the sampling pool until every item's 95% confidence interval on its drop
+     * probability is within {@code targetHalfWidth}, or {@code maxSamples} is reached.
+     */
+    private void runSampleStats(
+            String jobId,
+            String dimension,
+            String lootTableId,
+            LootTable table,
+            LootContext context,
+            long maxSamples,
+            double targetHalfWidth,
+            long baseSeed,
+            File outFile
+    ) {
+        long started = System.currentTimeMillis();
+        PluginSampleStatsDump dump = new PluginSampleStatsDump();
+        dump.lootTable = lootTableId;
+        dump.dimension = dimension;
+        dump.baseSeed = baseSeed;
+        dump.targetHalfWidth = targetHalfWidth;
+        LootStatsAccumulator total = new LootStatsAccumulator();
+        SplittableRandom seeds = new SplittableRandom(baseSeed);
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        try {
+            ExecutorService pool = samplingPool(workers);
+            while (total.samples < maxSamples) {
+                long round = Math.min(STATS_ROUND_SAMPLES, maxSamples - total.samples);
+                List<CompletableFuture<LootStatsAccumulator>> parts = new ArrayList<>();
+                for (int w = 0; w < workers; w++) {
+                    long count = round / workers + (w < round % workers ? 1 : 0);
+                    if (count == 0) {
+                        continue;
+                    }
+                    long workerSeed = seeds.nextLong();
+                    parts.add(CompletableFuture.supplyAsync(() -> rollStats(table, context, workerSeed, count), pool));
+                }
+                for (CompletableFuture<LootStatsAccumulator> part : parts) {
+                    total.merge(part.join());
+                }
+                if (total.samples >= STATS_MIN_SAMPLES && total.maxHalfWidth() <= targetHalfWidth) {
+                    dump.converged = true;
+                    break;
+                }
+            }
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            dump.error = (cause instanceof IllegalArgumentException ? "loot_context_unsupported:" : "loot_populate_failed:")
+                    + cause.getMessage();
+        } catch (RuntimeException e) {
+            dump.error = "loot_populate_failed:" + e.getMessage();
+        }
+        writeSampleStats(jobId, dump, total, started, outFile);
+    }
+
+    /**
+     * Rolls a table whose functions or conditions touch the world on the main thread, a few rolls at a time until
+     * this tick's budget is spent, with the same stop rule as the sampling pool.
+     */
+    private void tickSampleStatsJob(SampleStatsJob job) {
+        long deadline = System.nanoTime() + DEFAULT_PROCESS_BUDGET_MS * 1_000_000L;
+        boolean stopped = false;
+        try {
+            do {
+                long count = Math.min(STATS_MAIN_THREAD_SLICE, job.maxSamples - job.total.samples);
+                job.total.merge(rollStats(job.table, job.context, job.seeds.nextLong(), count));
+            } while (job.total.samples < job.maxSamples && System.nanoTime() < deadline);
+        } catch (IllegalArgumentException e) {
+            job.dump.error = "loot_context_unsupported:" + e.getMessage();
+            stopped = true;
+        } catch (RuntimeException e) {
+            job.dump.error = "loot_populate_failed:" + e.getMessage();
+            stopped = true;
+        }
+        if (!stopped && job.total.samples >= STATS_MIN_SAMPLES && job.total.maxHalfWidth() <= job.dump.targetHalfWidth) {
+            job.dump.converged = true;
+            stopped = true;
+        }
+        if (!stopped && job.total.samples < job.maxSamples) {
+            return;
+        }
+        job.task.cancel();
+        runOnDumpWriter(() -> writeSampleStats(job.id, job.dump, job.total, job.startedMs, job.outFile));
+    }
+
+    /**
+     * Writes the finished statistics. When that fails a small dump carrying the error is written instead, so the
+     * client reports the failure rather than waiting out its timeout.
+     */
+    private void writeSampleStats(String jobId, PluginSampleStatsDump dump, LootStatsAccumulator total, long startedMs, File outFile) {
+        total.writeTo(dump);
+        dump.tookMs = System.currentTimeMillis() - startedMs;
+        try {
+            writeAtomically(outFile, dump);
+            getLogger().info("lootprobe_sample_stats done job=" + jobId + " samples=" + dump.samples
+                    + " converged=" + dump.converged + " tookMs=" + dump.tookMs);
+        } catch (IOException e) {
+            getLogger().warning("lootprobe_sample_stats failed to write job=" + jobId + ": " + e.getMessage());
+            PluginSampleStatsDump failed = new PluginSampleStatsDump();
+            failed.lootTable = dump.lootTable;
+            failed.dimension = dump.dimension;
+            failed.baseSeed = dump.baseSeed;
+            failed.targetHalfWidth = dump.targetHalfWidth;
+            failed.tookMs = dump.tookMs;
+            failed.error = "write_failed:" + e.getMessage();
+            try {
+                writeAtomically(outFile, failed);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private synchronized ExecutorService samplingPool(int workers) {
+        if (samplingPool == null) {
+            samplingPool = Executors.newFixedThreadPool(workers, runnable -> {
+                Thread thread = new Thread(runnable, "lootprobe-sampling");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return samplingPool;
+    }
+
+    private static LootStatsAccumulator rollStats(LootTable table, LootContext context, long seed, long count) {
+        LootStatsAccumulator stats = new LootStatsAccumulator();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        Map<String, Integer> countsThisRoll = new HashMap<>();
+        for (long i = 0; i < count; i++) {
+            Collection<ItemStack> rolled = table.populateLoot(new Random(seeds.nextLong()), context);
+            countsThisRoll.clear();
+            for (ItemStack item : rolled) {
+                if (item == null || item.getType() == Material.AIR || item.getAmount() <= 0) {
+                    continue;
+                }
+                String itemId = key(item.getType());
+                countsThisRoll.merge(itemId, item.getAmount(), Integer::sum);
+                ItemStatsAccumulator itemStats = stats.item(itemId);
+                itemStats.stacks++;
+                for (Enchantment enchantment : enchantmentsOf(item)) {
+                    NamespacedKey enchantmentKey = enchantment.getKey();
+                    itemStats.enchantments.merge(enchantmentKey != null ? enchantmentKey.toString() : "unknown", 1L, Long::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> e : countsThisRoll.entrySet()) {
+                ItemStatsAccumulator itemStats = stats.item(e.getKey());
+                itemStats.presentRolls++;
+                itemStats.totalCount += e.getValue();
+                itemStats.countHistogram.merge(e.getValue(), 1L, Long::sum);
+            }
+            stats.samples++;
+        }
+        return stats;
+    }
+
+    private static Collection<Enchantment> enchantmentsOf(ItemStack item) {
+        List<Enchantment> out = new ArrayList<>();
+        Map<Enchantment, Integer> applied = item.getEnchantments();
+        if (applied != null) {
+            out.addAll(applied.keySet());
+        }
+        if (item.hasItemMeta()) {
+            ItemMeta meta = item.getItemMeta();
+            if (meta instanceof EnchantmentStorageMeta stored && stored.getStoredEnchants() != null) {
+                out.addAll(stored.getStoredEnchants().keySet());
+            }
+        }
+        return out;
+    }
+
     private void populateFromLootTable(ExtractJob job, Lootable lootable, Inventory inventory, Location loc, ChestData chest) {
         LootTable table = lootable.getLootTable();
         if (table == null) {
@@ -672,7 +1961,7 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
     }
 
     private enum JobState {
-        RUNNING, DONE, FAILED
+        RUNNING, WRITING, DONE, FAILED
     }
 
     private static final class ChunkCoord {
@@ -694,16 +1983,26 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         int chunkRadius;
         boolean parallelChunks;
         int maxInFlightChunks = 1;
+        int ownedInFlightChunks;
+        World world;
         String relativeOut;
         long startedMs;
         int ticks;
         int totalChunks;
         int completedChunks;
-        int settleTicksRemaining = POST_LOAD_SETTLE_TICKS;
-        boolean postLoadProcessed;
+        int processedChunks;
+        // Square of requested chunks, indexed by chunkIndex.
+        int minChunkX;
+        int minChunkZ;
+        int chunkSide;
+        boolean[] chunkLoaded;
+        boolean[] chunkQueued;
+        long processBudgetNanos = DEFAULT_PROCESS_BUDGET_MS * 1_000_000L;
         BukkitTask task;
         JobState state = JobState.RUNNING;
+        long finishedMs;
         String error;
+        ExtractBatch batch;
         int zeroSeedLootTableCount;
         final List<String> zeroSeedExamples = new ArrayList<>();
         int unsupportedContextChestCount;
@@ -711,18 +2010,201 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         final List<String> unsupportedContextExamples = new ArrayList<>();
         final PluginStructureDump dump = new PluginStructureDump();
         final ArrayDeque<ChunkCoord> pending = new ArrayDeque<>();
-        final List<ChunkCoord> requestedChunks = new ArrayList<>();
-        final List<InFlightChunk> inFlight = new ArrayList<>();
+        final List<ChunkRequest> awaitingChunks = new ArrayList<>();
+        final List<ChunkRequest> heldChunks = new ArrayList<>();
     }
 
-    private static final class InFlightChunk {
+    private static final class DiscoverJob {
+        String id;
+        World world;
+        String dimension;
+        int centerX;
+        int centerZ;
+        int radius;
+        int locateStep;
+        File outFile;
+        long startedMs;
+        // One locate per (structure variant, sample point), run in structure-major order.
+        final List<String> structureIds = new ArrayList<>();
+        final List<Structure> structures = new ArrayList<>();
+        final List<ChunkCoord> points = new ArrayList<>();
+        final Set<String> seen = new HashSet<>();
+        // Set for placement enumeration jobs; done/total then count placement candidates rather than locates.
+        StructurePlacementScanner.Scan placements;
+        int total;
+        int done;
+        int found;
+        boolean cancelled;
+        BukkitTask task;
+        JobState state = JobState.RUNNING;
+        long finishedMs;
+        String error;
+
+        int searchRadiusChunks() {
+            return Math.max(64, (radius / 16) + 16);
+        }
+    }
+
+    private static final class ProcessTask {
+        final ExtractJob job;
+        final int chunkX;
+        final int chunkZ;
+        final long readyTick;
+
+        private ProcessTask(ExtractJob job, int chunkX, int chunkZ, long readyTick) {
+            this.job = job;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.readyTick = readyTick;
+        }
+    }
+
+    private static final class ExtractBatch {
+        String id;
+        String relativeResults;
+        int parallelStructures = 1;
+        // Set by lootprobe_extract_batch_tune; 0 keeps each entry's own chunk count.
+        int parallelChunkCount;
+        // Per-tick chest processing budget for this batch's jobs, from its manifest.
+        long processBudgetNanos = DEFAULT_PROCESS_BUDGET_MS * 1_000_000L;
+        long startedMs;
+        int totalEntries;
+        // Finished jobs whose dump is still being written; the batch is not done until they land.
+        int pendingWrites;
+        int completedEntries;
+        int failedEntries;
+        boolean cancelled;
+        BukkitTask task;
+        JobState state = JobState.RUNNING;
+        long finishedMs;
+        final ArrayDeque<ExtractBatchEntry> queue = new ArrayDeque<>();
+        final List<ExtractJob> running = new ArrayList<>();
+    }
+
+    private static final class SampleJob {
+        String id;
+        String lootTableId;
+        LootTable table;
+        LootContext context;
+        int samples;
+        List<Long> seeds;
+        File outFile;
+        long startedMs;
+        BukkitTask task;
+        final Random seedSource = new Random();
+        final PluginSampleDump dump = new PluginSampleDump();
+    }
+
+    private static final class SampleStatsJob {
+        String id;
+        LootTable table;
+        LootContext context;
+        long maxSamples;
+        SplittableRandom seeds;
+        File outFile;
+        long startedMs;
+        BukkitTask task;
+        final LootStatsAccumulator total = new LootStatsAccumulator();
+        final PluginSampleStatsDump dump = new PluginSampleStatsDump();
+    }
+
+    private static final class LootStatsAccumulator {
+        long samples;
+        final Map<String, ItemStatsAccumulator> items = new HashMap<>();
+
+        ItemStatsAccumulator item(String itemId) {
+            return items.computeIfAbsent(itemId, id -> new ItemStatsAccumulator());
+        }
+
+        void merge(LootStatsAccumulator other) {
+            samples += other.samples;
+            for (Map.Entry<String, ItemStatsAccumulator> e : other.items.entrySet()) {
+                ItemStatsAccumulator target = item(e.getKey());
+                ItemStatsAccumulator source = e.getValue();
+                target.presentRolls += source.presentRolls;
+                target.totalCount += source.totalCount;
+                target.stacks += source.stacks;
+                source.countHistogram.forEach((count, n) -> target.countHistogram.merge(count, n, Long::sum));
+                source.enchantments.forEach((id, n) -> target.enchantments.merge(id, n, Long::sum));
+            }
+        }
+
+        /**
+         * Widest 95% Wilson interval half-width over all items, the same interval the client reports.
+         */
+        double maxHalfWidth() {
+            double max = 0.0;
+            for (ItemStatsAccumulator item : items.values()) {
+                max = Math.max(max, wilsonHalfWidth(item.presentRolls, samples));
+            }
+            return max;
+        }
+
+        static double wilsonHalfWidth(long successes, long n) {
+            double z = 1.96;
+            double p = (double) successes / n;
+            double denominator = 1.0 + z * z / n;
+            double center = (p + z * z / (2.0 * n)) / denominator;
+            double margin = z * Math.sqrt(p * (1.0 - p) / n + z * z / (4.0 * n * n)) / denominator;
+            return (Math.min(1.0, center + margin) - Math.max(0.0, center - margin)) / 2.0;
+        }
+
+        void writeTo(PluginSampleStatsDump dump) {
+            dump.samples = samples;
+            for (Map.Entry<String, ItemStatsAccumulator> e : new TreeMap<>(items).entrySet()) {
+                ItemStatsAccumulator source = e.getValue();
+                PluginItemStats item = new PluginItemStats();
+                item.itemId = e.getKey();
+                item.presentRolls = source.presentRolls;
+                item.totalCount = source.totalCount;
+                item.stacks = source.stacks;
+                source.countHistogram.forEach((count, n) -> item.countHistogram.put(String.valueOf(count), n));
+                item.enchantments.putAll(new TreeMap<>(source.enchantments));
+                dump.items.add(item);
+            }
+        }
+    }
+
+    private static final class ItemStatsAccumulator {
+        long presentRolls;
+        long totalCount;
+        long stacks;
+        final Map<Integer, Long> countHistogram = new TreeMap<>();
+        final Map<String, Long> enchantments = new HashMap<>();
+    }
+
+    private static final class ChunkRequest {
+        String key;
+        World world;
         ChunkCoord coord;
+        ExtractJob owner;
         CompletableFuture<Chunk> future;
+        long requestedNanos;
         boolean wasLoaded;
         boolean wasGenerated;
+        boolean loaded;
+        boolean failed;
+        int refCount;
+    }
+
+    public static final class ExtractBatchManifest {
+        public int processBudgetMs;
+        public List<ExtractBatchEntry> entries = new ArrayList<>();
+    }
+
+    public static final class ExtractBatchEntry {
+        public String key;
+        public String dimension;
+        public String structureId;
+        public int centerX;
+        public int centerZ;
+        public int chunkRadius;
+        public boolean parallelChunks;
+        public int parallelChunkCount;
     }
 
     public static final class PluginStructureDump {
+        public String jobId;
         public String structureId;
         public String dimension;
         public int centerX;
@@ -737,6 +2219,7 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         public int newlyLoaded;
         public int alreadyGenerated;
         public int newlyGenerated;
+        public int shared;
     }
 
     public static final class ChestData {
@@ -762,6 +2245,39 @@ public final class LootProbePaperPlugin extends JavaPlugin implements CommandExe
         public String rawItemNbt;
     }
 
+    public static final class PluginSampleDump {
+        public String lootTable;
+        public String dimension;
+        public String error;
+        public List<PluginLootSample> samples = new ArrayList<>();
+    }
+
+    public static final class PluginLootSample {
+        public long seed;
+        public List<ItemStackData> items = new ArrayList<>();
+    }
+
+    public static final class PluginSampleStatsDump {
+        public String lootTable;
+        public String dimension;
+        public long baseSeed;
+        public long samples;
+        public double targetHalfWidth;
+        public boolean converged;
+        public long tookMs;
+        public String error;
+        public List<PluginItemStats> items = new ArrayList<>();
+    }
+
+    public static final class PluginItemStats {
+        public String itemId;
+        public long presentRolls;
+        public long totalCount;
+        public long stacks;
+        public Map<String, Long> countHistogram = new LinkedHashMap<>();
+        public Map<String, Long> enchantments = new LinkedHashMap<>();
+    }
+
     public static final class PluginDiscoverDump {
         public String dimension;
         public int centerX;
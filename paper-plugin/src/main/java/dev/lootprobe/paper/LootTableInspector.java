@@ -0,0 +1,110 @@
+package dev.lootprobe.paper;
+
+import org.bukkit.loot.LootTable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Decides whether a loot table may be rolled on sampling threads. Some functions and conditions read or search the
+ * world while rolling ({@code exploration_map}'s structure search, location, weather and time checks), which is not
+ * safe off the main thread. The server-side table is walked by reflection; anything that cannot be inspected, and
+ * references to other tables that would need a registry lookup, count as unsafe so the caller rolls on the main thread.
+ */
+final class LootTableInspector {
+    private static final String LOOT_PACKAGE = "net.minecraft.world.level.storage.loot";
+    private static final String EITHER_PACKAGE = "com.mojang.datafixers.util";
+    private static final Set<String> WORLD_ACCESS = Set.of(
+            "ExplorationMapFunction",
+            "FillPlayerHead",
+            "LocationCheck",
+            "WeatherCheck",
+            "TimeCheck"
+    );
+    private static final int MAX_NODES = 20_000;
+
+    private LootTableInspector() {
+    }
+
+    /**
+     * Returns the first reason the table is not safe off the main thread, or null when it is.
+     */
+    static String offThreadBlocker(LootTable table) {
+        Object handle;
+        try {
+            handle = table.getClass().getMethod("getHandle").invoke(table);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return "uninspectable";
+        }
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Object> queue = new ArrayDeque<>();
+        queue.add(handle);
+        while (!queue.isEmpty()) {
+            if (seen.size() > MAX_NODES) {
+                return "uninspectable";
+            }
+            Object node = queue.poll();
+            if (node == null || !seen.add(node)) {
+                continue;
+            }
+            if (node instanceof Collection<?> collection) {
+                queue.addAll(collection);
+                continue;
+            }
+            if (node instanceof Map<?, ?> map) {
+                queue.addAll(map.values());
+                continue;
+            }
+            if (node instanceof Optional<?> optional) {
+                optional.ifPresent(queue::add);
+                continue;
+            }
+            Class<?> type = node.getClass();
+            String name = type.getName();
+            if (name.equals("net.minecraft.resources.ResourceKey")) {
+                return "references another loot table";
+            }
+            if (WORLD_ACCESS.contains(type.getSimpleName())) {
+                return type.getSimpleName();
+            }
+            if (!name.startsWith(LOOT_PACKAGE) && !name.startsWith(EITHER_PACKAGE)) {
+                continue;
+            }
+            try {
+                queue.addAll(fieldValues(node));
+            } catch (RuntimeException e) {
+                return "uninspectable";
+            }
+        }
+        return null;
+    }
+
+    private static List<Object> fieldValues(Object node) {
+        List<Object> out = new ArrayList<>();
+        for (Class<?> type = node.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                    continue;
+                }
+                if (!field.trySetAccessible()) {
+                    throw new IllegalStateException("inaccessible " + type.getName() + "." + field.getName());
+                }
+                try {
+                    out.add(field.get(node));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,364 @@
+package dev.lootprobe.paper;
+
+import org.bukkit.World;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enumerates structure starts from the world's own structure sets instead of sampling locateNearestStructure.
+ * Random-spread placements yield one candidate chunk per spacing region and concentric-ring placements their ring
+ * positions; each candidate then goes through the same frequency, exclusion-zone and biome checks /locate uses.
+ * Datapack structure sets are included because they come from the generator's registry like vanilla ones.
+ *
+ * <p>The server internals are reached by reflection against Mojang-mapped names (Paper 1.20.5+). Anything missing
+ * raises {@link UnsupportedOperationException} so callers can fall back to locate sampling.
+ *
+ * <p>Main thread only. A candidate whose chunk already exists on disk is read synchronously at STRUCTURE_STARTS, as
+ * locate does, so callers should bound how many candidates they check per tick.
+ */
+final class StructurePlacementScanner {
+    private static final String RANDOM_SPREAD = "RandomSpreadStructurePlacement";
+    private static final String CONCENTRIC_RINGS = "ConcentricRingsStructurePlacement";
+    private static final Map<String, Method> METHODS = new ConcurrentHashMap<>();
+
+    record Start(String requestedId, int x, int y, int z) {
+    }
+
+    /**
+     * One enumeration, advanced a bounded slice at a time by {@link #step} so it can be spread over server ticks.
+     * Structure sets are visited in turn and their candidates addressed by index: a random-spread set's spacing
+     * regions in row order, a concentric-ring set's ring positions. Each candidate chunk is only computed when the
+     * cursor reaches it, so no set is enumerated in one go.
+     */
+    final class Scan {
+        private final int centerX;
+        private final int centerZ;
+        private final int radius;
+        private final List<CandidateSet> sets = new ArrayList<>();
+        private final Set<String> seen = new HashSet<>();
+        private int setIndex;
+        private long candidateIndex;
+        private long candidatesDone;
+        private long candidateTotal;
+        int checked;
+
+        private Scan(int centerX, int centerZ, int radius) {
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.radius = radius;
+        }
+
+        int structureSetCount() {
+            return sets.size();
+        }
+
+        long candidateTotal() {
+            return candidateTotal;
+        }
+
+        long candidatesDone() {
+            return candidatesDone;
+        }
+
+        boolean done() {
+            return setIndex >= sets.size();
+        }
+
+        /**
+         * Visits candidates until {@code deadlineNanos}, at least one per call, and adds the starts found to
+         * {@code out}.
+         */
+        void step(long deadlineNanos, List<Start> out) {
+            try {
+                boolean first = true;
+                while (!done() && (first || System.nanoTime() < deadlineNanos)) {
+                    first = false;
+                    CandidateSet set = sets.get(setIndex);
+                    if (candidateIndex >= set.count) {
+                        setIndex++;
+                        candidateIndex = 0;
+                        continue;
+                    }
+                    Object chunkPos = set.candidate(candidateIndex++);
+                    candidatesDone++;
+                    if (chunkPos != null) {
+                        checkCandidate(set, chunkPos, out);
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new UnsupportedOperationException("structure placement scan failed: " + e, e);
+            }
+        }
+
+        private void checkCandidate(CandidateSet set, Object chunkPos, List<Start> out) throws ReflectiveOperationException {
+            Object placement = set.placement;
+            int chunkX = chunkPosX.getInt(chunkPos);
+            int chunkZ = chunkPosZ.getInt(chunkPos);
+            Object locatePos = call(placement, "getLocatePos", chunkPos);
+            int x = ((Number) call(locatePos, "getX")).intValue();
+            int y = ((Number) call(locatePos, "getY")).intValue();
+            int z = ((Number) call(locatePos, "getZ")).intValue();
+            long dx = (long) x - centerX;
+            long dz = (long) z - centerZ;
+            if (dx * dx + dz * dz > (long) radius * radius) {
+                return;
+            }
+            checked++;
+            // Frequency reduction and exclusion zones.
+            if (!(Boolean) call(placement, "isStructureChunk", generatorState, chunkX, chunkZ)) {
+                return;
+            }
+            for (Target target : set.targets) {
+                // Variants of one requested id (villages) share a chunk key; the first present one wins.
+                String key = target.requestedId() + "|" + chunkX + "|" + chunkZ;
+                if (seen.contains(key) || !startPresent(chunkPos, target.structure(), placement)) {
+                    continue;
+                }
+                seen.add(key);
+                out.add(new Start(target.requestedId(), x, y, z));
+            }
+        }
+    }
+
+    private record Target(String requestedId, Object structure) {
+    }
+
+    /**
+     * Candidate chunks of one structure set. Random-spread regions are numbered row by row over the bounding box
+     * of the radius; a region whose chunks all lie outside the radius yields null without any reflective call.
+     */
+    private final class CandidateSet {
+        final Object placement;
+        final List<Target> targets;
+        final List<?> ring;
+        final int spacing;
+        final int minRegionX;
+        final int minRegionZ;
+        final int regionsX;
+        final long count;
+        final int centerX;
+        final int centerZ;
+        final int radius;
+
+        CandidateSet(Object placement, List<Target> targets, int centerX, int centerZ, int radius)
+                throws ReflectiveOperationException {
+            this.placement = placement;
+            this.targets = targets;
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.radius = radius;
+            String type = placement.getClass().getSimpleName();
+            if (type.equals(RANDOM_SPREAD)) {
+                spacing = ((Number) call(placement, "spacing")).intValue();
+                minRegionX = Math.floorDiv(Math.floorDiv(centerX - radius, 16), spacing);
+                minRegionZ = Math.floorDiv(Math.floorDiv(centerZ - radius, 16), spacing);
+                regionsX = Math.floorDiv(Math.floorDiv(centerX + radius, 16), spacing) - minRegionX + 1;
+                int regionsZ = Math.floorDiv(Math.floorDiv(centerZ + radius, 16), spacing) - minRegionZ + 1;
+                ring = null;
+                count = (long) regionsX * regionsZ;
+            } else if (type.equals(CONCENTRIC_RINGS)) {
+                List<?> positions = (List<?>) call(generatorState, "getRingPositionsFor", placement);
+                ring = positions != null ? positions : List.of();
+                spacing = 0;
+                minRegionX = 0;
+                minRegionZ = 0;
+                regionsX = 0;
+                count = ring.size();
+            } else {
+                throw new UnsupportedOperationException("unknown placement type " + placement.getClass().getName());
+            }
+        }
+
+        Object candidate(long index) throws ReflectiveOperationException {
+            if (ring != null) {
+                return ring.get((int) index);
+            }
+            int rx = minRegionX + (int) (index % regionsX);
+            int rz = minRegionZ + (int) (index / regionsX);
+            if (regionOutsideRadius(rx, rz)) {
+                return null;
+            }
+            return call(placement, "getPotentialStructureChunk", seed, rx, rz);
+        }
+
+        private boolean regionOutsideRadius(int rx, int rz) {
+            long minX = (long) rx * spacing * 16;
+            long minZ = (long) rz * spacing * 16;
+            long maxX = minX + (long) spacing * 16 - 1;
+            long maxZ = minZ + (long) spacing * 16 - 1;
+            long dx = Math.max(0, Math.max(minX - centerX, centerX - maxX));
+            long dz = Math.max(0, Math.max(minZ - centerZ, centerZ - maxZ));
+            return dx * dx + dz * dz > (long) radius * radius;
+        }
+    }
+
+    private final Object level;
+    private final Object generatorState;
+    private final Object structureManager;
+    private final long seed;
+    private final Field chunkPosX;
+    private final Field chunkPosZ;
+
+    private StructurePlacementScanner(World world) throws ReflectiveOperationException {
+        level = call(world, "getHandle");
+        generatorState = call(call(level, "getChunkSource"), "getGeneratorState");
+        structureManager = call(level, "structureManager");
+        seed = ((Number) call(generatorState, "getLevelSeed")).longValue();
+        Class<?> chunkPos = Class.forName("net.minecraft.world.level.ChunkPos", false, level.getClass().getClassLoader());
+        chunkPosX = chunkPos.getField("x");
+        chunkPosZ = chunkPos.getField("z");
+    }
+
+    static StructurePlacementScanner forWorld(World world) {
+        try {
+            return new StructurePlacementScanner(world);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new UnsupportedOperationException("structure placements unavailable: " + e, e);
+        }
+    }
+
+    /**
+     * Prepares an enumeration of every start within {@code radius} blocks of the center. {@code requested} maps each
+     * requested id to the registry keys it covers (a plain id, or every variant for {@code village}).
+     */
+    Scan begin(int centerX, int centerZ, int radius, Map<String, Set<String>> requested) {
+        try {
+            return beginUnchecked(centerX, centerZ, radius, requested);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new UnsupportedOperationException("structure placement scan failed: " + e, e);
+        }
+    }
+
+    private Scan beginUnchecked(int centerX, int centerZ, int radius, Map<String, Set<String>> requested)
+            throws ReflectiveOperationException {
+        Map<String, List<String>> requestedByKey = new HashMap<>();
+        for (Map.Entry<String, Set<String>> e : requested.entrySet()) {
+            for (String key : e.getValue()) {
+                requestedByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(e.getKey());
+            }
+        }
+        Scan scan = new Scan(centerX, centerZ, radius);
+        for (Object setHolder : (List<?>) call(generatorState, "possibleStructureSets")) {
+            Object structureSet = call(setHolder, "value");
+            List<Target> targets = new ArrayList<>();
+            for (Object entry : (List<?>) call(structureSet, "structures")) {
+                Object structureHolder = call(entry, "structure");
+                List<String> ids = requestedByKey.get(holderKey(structureHolder));
+                if (ids == null) {
+                    continue;
+                }
+                Object structure = call(structureHolder, "value");
+                for (String id : ids) {
+                    targets.add(new Target(id, structure));
+                }
+            }
+            if (!targets.isEmpty()) {
+                CandidateSet set = new CandidateSet(call(structureSet, "placement"), targets, centerX, centerZ, radius);
+                scan.sets.add(set);
+                scan.candidateTotal += set.count;
+            }
+        }
+        return scan;
+    }
+
+    /**
+     * Same test locate runs: biome and terrain checks without loading the chunk, or the saved start when the chunk
+     * already exists on disk.
+     */
+    private boolean startPresent(Object chunkPos, Object structure, Object placement) throws ReflectiveOperationException {
+        Object check = call(structureManager, "checkStructurePresence", chunkPos, structure, placement, false);
+        String name = ((Enum<?>) check).name();
+        if (name.equals("START_PRESENT")) {
+            return true;
+        }
+        if (!name.equals("CHUNK_LOAD_NEEDED")) {
+            return false;
+        }
+        Object chunk = call(level, "getChunk", chunkPosX.getInt(chunkPos), chunkPosZ.getInt(chunkPos), structureStartsStatus(), true);
+        Object start = chunk != null ? call(chunk, "getStartForStructure", structure) : null;
+        return start != null && (Boolean) call(start, "isValid");
+    }
+
+    private Object structureStartsStatus() throws ReflectiveOperationException {
+        ClassLoader loader = level.getClass().getClassLoader();
+        Class<?> status;
+        try {
+            status = Class.forName("net.minecraft.world.level.chunk.status.ChunkStatus", false, loader);
+        } catch (ClassNotFoundException e) {
+            status = Class.forName("net.minecraft.world.level.chunk.ChunkStatus", false, loader);
+        }
+        return status.getField("STRUCTURE_STARTS").get(null);
+    }
+
+    private static String holderKey(Object holder) throws ReflectiveOperationException {
+        Optional<?> key = (Optional<?>) call(holder, "unwrapKey");
+        return key.isPresent() ? call(key.get(), "location").toString() : "";
+    }
+
+    /**
+     * Invokes the public method {@code name} whose parameters accept {@code args}, caching the lookup per receiver
+     * class and argument classes so overloads of the same arity resolve separately.
+     */
+    private static Object call(Object target, String name, Object... args) throws ReflectiveOperationException {
+        Class<?> type = target.getClass();
+        StringBuilder cacheKey = new StringBuilder(type.getName()).append('#').append(name).append('(');
+        for (Object arg : args) {
+            cacheKey.append(arg != null ? arg.getClass().getName() : "null").append(',');
+        }
+        cacheKey.append(')');
+        Method method = METHODS.get(cacheKey.toString());
+        if (method == null) {
+            method = findMethod(type, name, args);
+            METHODS.put(cacheKey.toString(), method);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name, Object[] args) throws NoSuchMethodException {
+        for (Method candidate : type.getMethods()) {
+            if (!candidate.getName().equals(name) || candidate.getParameterCount() != args.length) {
+                continue;
+            }
+            Class<?>[] params = candidate.getParameterTypes();
+            boolean matches = true;
+            for (int i = 0; i < params.length && matches; i++) {
+                matches = accepts(params[i], args[i]);
+            }
+            if (matches) {
+                candidate.trySetAccessible();
+                return candidate;
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + "." + name + " with " + args.length + " arguments");
+    }
+
+    private static boolean accepts(Class<?> param, Object arg) {
+        if (arg == null) {
+            return !param.isPrimitive();
+        }
+        if (!param.isPrimitive()) {
+            return param.isInstance(arg);
+        }
+        return (param == int.class && arg instanceof Integer)
+                || (param == long.class && arg instanceof Long)
+                || (param == boolean.class && arg instanceof Boolean);
+    }
+}
@@ -0,0 +1,153 @@
+package dev.lootprobe;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * AIMD controller for batch extraction parallelism. Each batch status sample either grows the chunk-load depth, then
+ * the structure count, by one step, or halves them when the server falls behind: a slow tick halves both (post-load
+ * chest processing runs on the main thread), while slow or failing chunk loads halve only the chunk depth.
+ */
+public final class AdaptiveConcurrency {
+    public static final int MAX_STRUCTURES = 8;
+    public static final int MAX_CHUNKS = 12;
+    // Vanilla ticks every 50 ms; beyond this the main thread is the bottleneck.
+    private static final double TICK_BUDGET_MS = 60.0;
+    private static final double CHUNK_LATENCY_LIMIT_MS = 2_000.0;
+    // Samples to wait after a decrease so its effect shows before the next decision.
+    private static final int DECREASE_COOLDOWN_SAMPLES = 3;
+    private static final Pattern FIELD = Pattern.compile("(\\w+)=([-\\d.]+)");
+    private static final Pattern PROGRESS = Pattern.compile("(\\d+)/(\\d+)");
+
+    public record Sample(
+            double tickMs,
+            double chunkMs,
+            int inFlightChunks,
+            int queuedChunks,
+            int chunkFailures,
+            int failedEntries,
+            int waitingEntries
+    ) {
+        /**
+         * Parses a {@code lootprobe_extract_batch_status} reply, or returns null when the plugin reports no load figures.
+         */
+        public static Sample parse(String status) {
+            if (status == null) {
+                return null;
+            }
+            Matcher m = FIELD.matcher(status);
+            Double tickMs = null;
+            Double chunkMs = null;
+            int inFlight = 0;
+            int queued = 0;
+            int chunkFailures = 0;
+            int failed = 0;
+            int running = 0;
+            while (m.find()) {
+                try {
+                    switch (m.group(1)) {
+                        case "tick_ms" -> tickMs = Double.parseDouble(m.group(2));
+                        case "chunk_ms" -> chunkMs = Double.parseDouble(m.group(2));
+                        case "in_flight_chunks" -> inFlight = Integer.parseInt(m.group(2));
+                        case "queued_chunks" -> queued = Integer.parseInt(m.group(2));
+                        case "chunk_failures" -> chunkFailures = Integer.parseInt(m.group(2));
+                        case "failed" -> failed = Integer.parseInt(m.group(2));
+                        case "running" -> running = Integer.parseInt(m.group(2));
+                        default -> {
+                        }
+                    }
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            if (tickMs == null || chunkMs == null) {
+                return null;
+            }
+            Matcher progress = PROGRESS.matcher(status);
+            int waiting = 0;
+            if (progress.find()) {
+                waiting = Math.max(0, Integer.parseInt(progress.group(2)) - Integer.parseInt(progress.group(1)) - running);
+            }
+            return new Sample(tickMs, chunkMs, inFlight, queued, chunkFailures, failed, waiting);
+        }
+    }
+
+    private int structures;
+    private int chunks;
+    private int cooldown;
+    private int lastChunkFailures = -1;
+    private int lastFailedEntries = -1;
+    private String lastReason = "";
+
+    public AdaptiveConcurrency(int initialStructures, int initialChunks) {
+        this.structures = clamp(initialStructures, MAX_STRUCTURES);
+        this.chunks = clamp(initialChunks, MAX_CHUNKS);
+    }
+
+    public int structures() {
+        return structures;
+    }
+
+    public int chunks() {
+        return chunks;
+    }
+
+    /**
+     * Why the last change was made, for progress output.
+     */
+    public String lastReason() {
+        return lastReason;
+    }
+
+    /**
+     * Call when a new batch starts; failure counters in its status replies start again from zero.
+     */
+    public void resetCounters() {
+        lastChunkFailures = -1;
+        lastFailedEntries = -1;
+    }
+
+    /**
+     * Applies one status sample. Returns true when either limit changed.
+     */
+    public boolean update(Sample sample) {
+        boolean newFailures = (lastChunkFailures >= 0 && sample.chunkFailures() > lastChunkFailures)
+                || (lastFailedEntries >= 0 && sample.failedEntries() > lastFailedEntries);
+        lastChunkFailures = sample.chunkFailures();
+        lastFailedEntries = sample.failedEntries();
+        int oldStructures = structures;
+        int oldChunks = chunks;
+
+        if (cooldown > 0) {
+            cooldown--;
+        }
+        boolean slowTick = sample.tickMs() > TICK_BUDGET_MS;
+        boolean slowChunks = sample.chunkMs() > CHUNK_LATENCY_LIMIT_MS || newFailures;
+        if (slowTick || slowChunks) {
+            if (cooldown > 0) {
+                return false;
+            }
+            cooldown = DECREASE_COOLDOWN_SAMPLES;
+            chunks = Math.max(1, chunks / 2);
+            if (slowTick) {
+                structures = Math.max(1, structures / 2);
+            }
+            lastReason = slowTick
+                    ? String.format("tick %.0f ms", sample.tickMs())
+                    : newFailures ? "failed loads" : String.format("chunk loads %.0f ms", sample.chunkMs());
+        } else if (cooldown == 0 && sample.chunkMs() < CHUNK_LATENCY_LIMIT_MS / 2) {
+            // Only grow a limit that work is waiting on; an idle limit says nothing about headroom.
+            if (chunks < MAX_CHUNKS && sample.queuedChunks() > 0) {
+                chunks++;
+                lastReason = "headroom";
+            } else if (structures < MAX_STRUCTURES && sample.waitingEntries() > 0) {
+                structures++;
+                lastReason = "headroom";
+            }
+        }
+        return structures != oldStructures || chunks != oldChunks;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(1, Math.min(max, value));
+    }
+}
@@ -0,0 +1,62 @@
+package dev.lootprobe;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads complete lines appended to a file since the previous call. Partial trailing lines are left for the next read.
+ */
+final class AppendOnlyLineReader {
+    private final Path file;
+    private long offset;
+
+    AppendOnlyLineReader(Path file, long offset) {
+        this.file = file;
+        this.offset = offset;
+    }
+
+    List<String> readNewLines() throws IOException {
+        List<String> out = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return out;
+        }
+        long size = Files.size(file);
+        if (size < offset) {
+            // File was recreated by a plugin restart.
+            offset = 0;
+        }
+        if (size == offset) {
+            return out;
+        }
+        byte[] chunk;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            raf.seek(offset);
+            chunk = new byte[(int) Math.min(Integer.MAX_VALUE, size - offset)];
+            raf.readFully(chunk);
+        }
+        int lastNewline = -1;
+        for (int i = chunk.length - 1; i >= 0; i--) {
+            if (chunk[i] == '\n') {
+                lastNewline = i;
+                break;
+            }
+        }
+        if (lastNewline < 0) {
+            return out;
+        }
+        offset += lastNewline + 1;
+        String text = new String(chunk, 0, lastNewline + 1, StandardCharsets.UTF_8);
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                out.add(trimmed);
+            }
+        }
+        return out;
+    }
+}
@@ -6,7 +6,9 @@ import picocli.CommandLine.Option;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -15,12 +17,17 @@ import java.util.Map;
 import java.util.Scanner;
 import java.util.concurrent.Callable;
 
-@Command(name = "browse", description = "Browse a probe result JSON in a structured terminal view.")
+@Command(name = "browse", description = "Browse a probe result (JSON or columnar) in a structured terminal view.")
 public final class BrowseCommand implements Callable<Integer> {
 
-    @Option(names = "--input", required = true, description = "Path to probe result JSON")
+    private static final Comparator<WorldChestScanner.ScannedStructure> STRUCTURE_ORDER =
+            Comparator.comparing((WorldChestScanner.ScannedStructure s) -> s.id).thenComparingInt(s -> s.x).thenComparingInt(s -> s.z);
+
+    @Option(names = "--input", required = true, description = "Path to probe result JSON or .lpcol columnar result")
     private Path input;
 
+    private ItemIndex itemIndex;
+
     @Override
     public Integer call() throws Exception {
         Path path = input.toAbsolutePath();
@@ -28,16 +35,89 @@ public final class BrowseCommand implements Callable<Integer> {
             throw new IllegalArgumentException("Input file not found: " + path);
         }
 
+        if (ColumnarResult.isColumnar(path)) {
+            try (ColumnarResult.Reader reader = ColumnarResult.open(path)) {
+                return browseColumnar(path, reader);
+            }
+        }
+
         ObjectMapper mapper = new ObjectMapper();
         ProbeResult result = mapper.readValue(path.toFile(), ProbeResult.class);
         List<WorldChestScanner.ScannedStructure> structures = new ArrayList<>();
         if (result.regionScan != null && result.regionScan.structures != null) {
             structures.addAll(result.regionScan.structures);
         }
-        structures.sort(Comparator.comparing((WorldChestScanner.ScannedStructure s) -> s.id).thenComparingInt(s -> s.x).thenComparingInt(s -> s.z));
+        structures.sort(STRUCTURE_ORDER);
+        int[] chestCounts = new int[structures.size()];
+        int[] itemCounts = new int[structures.size()];
+        for (int i = 0; i < structures.size(); i++) {
+            WorldChestScanner.ScannedStructure s = structures.get(i);
+            if (s.chests == null) {
+                continue;
+            }
+            chestCounts[i] = s.chests.size();
+            for (WorldChestScanner.ChestData chest : s.chests) {
+                itemCounts[i] += chest.items != null ? chest.items.size() : 0;
+            }
+        }
+        return browse(path, result, structures, structures, chestCounts, itemCounts);
+    }
+
+    /**
+     * Structures stay in the mapped file; listing uses summaries and offsets, and only show/items/find decode chests.
+     */
+    private int browseColumnar(Path path, ColumnarResult.Reader reader) {
+        int count = reader.structureCount();
+        List<WorldChestScanner.ScannedStructure> summaries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            summaries.add(reader.structureSummary(i));
+        }
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> STRUCTURE_ORDER.compare(summaries.get(a), summaries.get(b)));
+        int[] chestCounts = new int[count];
+        int[] itemCounts = new int[count];
+        for (int i = 0; i < count; i++) {
+            chestCounts[i] = reader.chestCount(order[i]);
+            itemCounts[i] = reader.itemCount(order[i]);
+        }
+        List<WorldChestScanner.ScannedStructure> structures = new AbstractList<>() {
+            @Override
+            public WorldChestScanner.ScannedStructure get(int index) {
+                return reader.structure(order[index]);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+        List<WorldChestScanner.ScannedStructure> listed = new AbstractList<>() {
+            @Override
+            public WorldChestScanner.ScannedStructure get(int index) {
+                return summaries.get(order[index]);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+        return browse(path, reader.header(), listed, structures, chestCounts, itemCounts);
+    }
 
-        printHeader(path, result, structures);
-        printStructureSummary(structures);
+    private int browse(
+            Path path,
+            ProbeResult result,
+            List<WorldChestScanner.ScannedStructure> listed,
+            List<WorldChestScanner.ScannedStructure> structures,
+            int[] chestCounts,
+            int[] itemCounts
+    ) {
+        printHeader(path, result, listed.size(), chestCounts, itemCounts);
+        printStructureSummary(listed, chestCounts, itemCounts);
         printHelp();
 
         try (Scanner scanner = new Scanner(System.in)) {
@@ -59,13 +139,13 @@ public final class BrowseCommand implements Callable<Integer> {
                     }
                     case "h", "help" -> printHelp();
                     case "summary" -> {
-                        printHeader(path, result, structures);
-                        printStructureSummary(structures);
+                        printHeader(path, result, listed.size(), chestCounts, itemCounts);
+                        printStructureSummary(listed, chestCounts, itemCounts);
                     }
-                    case "list" -> printStructureSummary(structures);
+                    case "list" -> printStructureSummary(listed, chestCounts, itemCounts);
                     case "show" -> showStructure(parts, structures, false);
                     case "items" -> showStructure(parts, structures, true);
-                    case "find" -> findItems(parts, structures);
+                    case "find" -> findItems(parts, result, structures);
                     default -> System.out.println("Unknown command. Type 'help'.");
                 }
             }
@@ -73,16 +153,12 @@ public final class BrowseCommand implements Callable<Integer> {
         return 0;
     }
 
-    private static void printHeader(Path path, ProbeResult result, List<WorldChestScanner.ScannedStructure> structures) {
-        int chestCount = 0;
-        int itemCount = 0;
-        for (WorldChestScanner.ScannedStructure s : structures) {
-            chestCount += s.chests != null ? s.chests.size() : 0;
-            if (s.chests != null) {
-                for (WorldChestScanner.ChestData chest : s.chests) {
-                    itemCount += chest.items != null ? chest.items.size() : 0;
-                }
-            }
+    private static void printHeader(Path path, ProbeResult result, int structureCount, int[] chestCounts, int[] itemCounts) {
+        long chestCount = 0;
+        long itemCount = 0;
+        for (int i = 0; i < structureCount; i++) {
+            chestCount += chestCounts[i];
+            itemCount += itemCounts[i];
         }
 
         System.out.println("\n============================================================");
@@ -92,7 +168,7 @@ public final class BrowseCommand implements Callable<Integer> {
         System.out.println("Version   : " + safe(result.mcVersion));
         System.out.println("Seed      : " + result.seed);
         System.out.println("Duration  : " + result.durationSeconds + "s");
-        System.out.println("Structures: " + structures.size());
+        System.out.println("Structures: " + structureCount);
         System.out.println("Chests    : " + chestCount);
         System.out.println("Items     : " + itemCount);
         if (result.regionScan != null) {
@@ -102,7 +178,7 @@ public final class BrowseCommand implements Callable<Integer> {
         }
     }
 
-    private static void printStructureSummary(List<WorldChestScanner.ScannedStructure> structures) {
+    private static void printStructureSummary(List<WorldChestScanner.ScannedStructure> structures, int[] chestCounts, int[] itemCounts) {
         System.out.println("\n--- Structures ---");
         if (structures.isEmpty()) {
             System.out.println("No scanned structures in regionScan.");
@@ -111,15 +187,8 @@ public final class BrowseCommand implements Callable<Integer> {
         System.out.printf("%-5s %-30s %-18s %-8s %-8s%n", "Idx", "Structure", "Coords", "Chests", "Items");
         for (int i = 0; i < structures.size(); i++) {
             WorldChestScanner.ScannedStructure s = structures.get(i);
-            int itemCount = 0;
-            if (s.chests != null) {
-                for (WorldChestScanner.ChestData chest : s.chests) {
-                    itemCount += chest.items != null ? chest.items.size() : 0;
-                }
-            }
             String coords = s.x + "," + s.y + "," + s.z;
-            int chests = s.chests != null ? s.chests.size() : 0;
-            System.out.printf("%-5d %-30s %-18s %-8d %-8d%n", i, trim(s.id, 29), coords, chests, itemCount);
+            System.out.printf("%-5d %-30s %-18s %-8d %-8d%n", i, trim(s.id, 29), coords, chestCounts[i], itemCounts[i]);
         }
     }
 
@@ -169,43 +238,79 @@ public final class BrowseCommand implements Callable<Integer> {
         }
     }
 
-    private static void findItems(String[] parts, List<WorldChestScanner.ScannedStructure> structures) {
-        if (parts.length < 2) {
-            System.out.println("Usage: find <text>");
+    private void findItems(String[] parts, ProbeResult result, List<WorldChestScanner.ScannedStructure> structures) {
+        int originX = result.regionScan != null ? result.regionScan.centerX : 0;
+        int originZ = result.regionScan != null ? result.regionScan.centerZ : 0;
+        ItemIndex.Query query = ItemIndex.parseQuery(String.join(" ", List.of(parts).subList(1, parts.length)), originX, originZ);
+        String needle = query.text.toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            System.out.println("Usage: find <text> [within <blocks> [of <x>,<z>]]");
             return;
         }
-        String needle = String.join(" ", List.of(parts).subList(1, parts.length)).toLowerCase(Locale.ROOT);
-        int hits = 0;
-        System.out.println("\n--- Matches for '" + needle + "' ---");
-        for (int i = 0; i < structures.size(); i++) {
-            WorldChestScanner.ScannedStructure s = structures.get(i);
-            if (s.chests == null) {
-                continue;
+        if (itemIndex == null) {
+            long started = System.nanoTime();
+            itemIndex = ItemIndex.build(structures, originX, originZ);
+            System.out.printf("Indexed %d chests, %d terms in %d ms.%n",
+                    itemIndex.chestCount(), itemIndex.termCount(), (System.nanoTime() - started) / 1_000_000);
+        }
+        int[] refs = itemIndex.queryContaining(needle);
+        int pointX = originX;
+        int pointZ = originZ;
+        if (query.radius != null) {
+            refs = itemIndex.within(refs, query.x, query.z, query.radius);
+            pointX = query.x;
+            pointZ = query.z;
+        }
+        System.out.println("\n--- Matches for '" + needle + "'"
+                + (query.radius != null ? " within " + query.radius + " of " + query.x + "," + query.z : "") + " ---");
+        int cachedIndex = -1;
+        WorldChestScanner.ScannedStructure s = null;
+        for (int ref : refs) {
+            int i = itemIndex.structureOf(ref);
+            int c = itemIndex.chestOf(ref);
+            if (i != cachedIndex) {
+                s = structures.get(i);
+                cachedIndex = i;
             }
-            for (int c = 0; c < s.chests.size(); c++) {
-                WorldChestScanner.ChestData chest = s.chests.get(c);
-                if (chest.items == null) {
-                    continue;
-                }
-                Map<String, Integer> counts = new LinkedHashMap<>();
+            WorldChestScanner.ChestData chest = s.chests.get(c);
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            if (chest.items != null) {
                 for (LootSampler.ItemStackData item : chest.items) {
-                    String id = safe(item.itemId);
-                    if (id.toLowerCase(Locale.ROOT).contains(needle)) {
-                        counts.merge(id, item.count, Integer::sum);
-                    }
-                }
-                if (!counts.isEmpty()) {
-                    hits++;
-                    System.out.printf("structure[%d] chest[%d] %s @ (%d,%d,%d)%n", i, c, trim(s.id, 40), chest.x, chest.y, chest.z);
-                    for (Map.Entry<String, Integer> e : counts.entrySet()) {
-                        System.out.printf("  - %s x%d%n", e.getKey(), e.getValue());
+                    if (matches(item, needle)) {
+                        counts.merge(safe(item.itemId), item.count, Integer::sum);
                     }
                 }
             }
+            long dx = (long) chest.x - pointX;
+            long dz = (long) chest.z - pointZ;
+            System.out.printf("structure[%d] chest[%d] %s @ (%d,%d,%d) dist=%d%n",
+                    i, c, trim(s.id, 40), chest.x, chest.y, chest.z, Math.round(Math.sqrt(dx * dx + dz * dz)));
+            if (counts.isEmpty()) {
+                System.out.println("  (loot table " + safe(chest.lootTable) + ")");
+            }
+            for (Map.Entry<String, Integer> e : counts.entrySet()) {
+                System.out.printf("  - %s x%d%n", e.getKey(), e.getValue());
+            }
         }
-        if (hits == 0) {
+        if (refs.length == 0) {
             System.out.println("No matching items found.");
+        } else {
+            System.out.println(refs.length + " chest(s), nearest first.");
+        }
+    }
+
+    private static boolean matches(LootSampler.ItemStackData item, String needle) {
+        if (item.itemId != null && item.itemId.toLowerCase(Locale.ROOT).contains(needle)) {
+            return true;
+        }
+        if (item.enchantments != null) {
+            for (String enchantment : item.enchantments) {
+                if (enchantment != null && enchantment.toLowerCase(Locale.ROOT).contains(needle)) {
+                    return true;
+                }
+            }
         }
+        return false;
     }
 
     private static void printHelp() {
@@ -214,7 +319,7 @@ public final class BrowseCommand implements Callable<Integer> {
         System.out.println("  list                 list structures");
         System.out.println("  show <idx>           show chest list for a structure");
         System.out.println("  items <idx>          show full item stacks for a structure");
-        System.out.println("  find <text>          search item ids across all chests");
+        System.out.println("  find <text> [within <r> [of <x>,<z>]]  search item ids, enchantments and loot tables, nearest first");
         System.out.println("  help                 show this help");
         System.out.println("  quit                 exit browser");
     }
@@ -0,0 +1,568 @@
+package dev.lootprobe;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact columnar encoding of a {@link ProbeResult}. Low-cardinality strings (structure, item, block and loot
+ * table ids, enchantments) are dictionary-encoded; NBT and raw command responses are nearly all distinct, so they
+ * are stored inline as (offset, length) into a blob section instead of growing the dictionary. Structures, chests,
+ * items and enchantments are fixed-width int records that point into each other by index range. Readers
+ * memory-map the file and decode records only when asked.
+ *
+ * <p>Layout: 8-byte magic, int version, int section count, then (int id, long offset, long length) per section.
+ * Sections: META (result JSON without structures), STRING_OFFSETS, STRING_BYTES, STRUCTURES, CHESTS, ITEMS, ENCHANTS,
+ * INLINE_BYTES.
+ */
+public final class ColumnarResult {
+    public static final String EXTENSION = ".lpcol";
+    private static final byte[] MAGIC = "LPCOL\0\0\1".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int VERSION = 2;
+    private static final int NONE = -1;
+    private static final long NO_SEED = Long.MIN_VALUE;
+
+    private static final int SECTION_META = 0;
+    private static final int SECTION_STRING_OFFSETS = 1;
+    private static final int SECTION_STRING_BYTES = 2;
+    private static final int SECTION_STRUCTURES = 3;
+    private static final int SECTION_CHESTS = 4;
+    private static final int SECTION_ITEMS = 5;
+    private static final int SECTION_ENCHANTS = 6;
+    private static final int SECTION_INLINE_BYTES = 7;
+    private static final int SECTION_COUNT = 8;
+
+    // id, dimension, type, x, y, z, error, 6 chunk stats, chestStart, chestEnd
+    private static final int STRUCTURE_BYTES = 15 * 4;
+    // x, y, z, blockId, lootTable, rawResponse (offset, length), itemStart, itemEnd, lootTableSeed
+    private static final int CHEST_BYTES = 9 * 4 + 8;
+    // slot, count, itemId, id, displayName, nbt (offset, length), rawItemNbt (offset, length), enchantStart, enchantEnd
+    private static final int ITEM_BYTES = 11 * 4;
+    // name, level
+    private static final int ENCHANT_BYTES = 2 * 4;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ColumnarResult() {
+    }
+
+    /**
+     * Sibling path used for the columnar copy of a JSON result, e.g. {@code result.json -> result.lpcol}.
+     */
+    public static Path pathFor(Path output) {
+        Path absolute = output.toAbsolutePath();
+        String name = absolute.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return absolute.resolveSibling(base + EXTENSION);
+    }
+
+    public static boolean isColumnar(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the result; when {@code structureJournal} is set, structures are read from it one at a time.
+     */
+    public static void write(ProbeResult result, Path output, Path structureJournal) throws IOException {
+        Path target = output.toAbsolutePath();
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (Writer writer = new Writer(tmp)) {
+            WorldChestScanner.ScanReport scan = result.regionScan;
+            List<WorldChestScanner.ScannedStructure> structures = scan != null ? scan.structures : null;
+            if (scan != null) {
+                scan.structures = new ArrayList<>();
+            }
+            try {
+                writer.meta = MAPPER.writeValueAsBytes(result);
+            } finally {
+                if (scan != null) {
+                    scan.structures = structures;
+                }
+            }
+            if (scan != null && structureJournal != null) {
+                StructureJournal.forEachStructure(structureJournal, scan.centerX, scan.centerZ, writer::add);
+            } else if (structures != null) {
+                for (WorldChestScanner.ScannedStructure structure : structures) {
+                    writer.add(structure);
+                }
+            }
+            writer.finish();
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static Reader open(Path file) throws IOException {
+        return new Reader(file);
+    }
+
+    private static final class Writer implements AutoCloseable {
+        private final Path output;
+        private final Path dir;
+        private final DataOutputStream structures;
+        private final DataOutputStream chests;
+        private final DataOutputStream items;
+        private final DataOutputStream enchants;
+        private final DataOutputStream stringBytes;
+        private final DataOutputStream inlineBytes;
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private int[] stringOffsets = new int[1024];
+        private int stringCount;
+        private int stringBytesWritten;
+        private int inlineBytesWritten;
+        private int chestCount;
+        private int itemCount;
+        private int enchantCount;
+        byte[] meta = new byte[0];
+
+        Writer(Path output) throws IOException {
+            this.output = output;
+            this.dir = Files.createTempDirectory(output.toAbsolutePath().getParent(), "lpcol-");
+            this.structures = open("structures");
+            this.chests = open("chests");
+            this.items = open("items");
+            this.enchants = open("enchants");
+            this.stringBytes = open("strings");
+            this.inlineBytes = open("inline");
+        }
+
+        private DataOutputStream open(String name) throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dir.resolve(name)), 1 << 16));
+        }
+
+        void add(WorldChestScanner.ScannedStructure structure) throws IOException {
+            int chestStart = chestCount;
+            if (structure.chests != null) {
+                for (WorldChestScanner.ChestData chest : structure.chests) {
+                    addChest(chest);
+                }
+            }
+            WorldChestScanner.ChunkStats stats = structure.chunkStats != null ? structure.chunkStats : new WorldChestScanner.ChunkStats();
+            structures.writeInt(string(structure.id));
+            structures.writeInt(string(structure.dimension));
+            structures.writeInt(string(structure.type));
+            structures.writeInt(structure.x);
+            structures.writeInt(structure.y);
+            structures.writeInt(structure.z);
+            structures.writeInt(string(structure.error));
+            structures.writeInt(stats.requested);
+            structures.writeInt(stats.alreadyLoaded);
+            structures.writeInt(stats.newlyLoaded);
+            structures.writeInt(stats.alreadyGenerated);
+            structures.writeInt(stats.newlyGenerated);
+            structures.writeInt(stats.shared);
+            structures.writeInt(chestStart);
+            structures.writeInt(chestCount);
+        }
+
+        private void addChest(WorldChestScanner.ChestData chest) throws IOException {
+            int itemStart = itemCount;
+            if (chest.items != null) {
+                for (LootSampler.ItemStackData item : chest.items) {
+                    addItem(item);
+                }
+            }
+            chests.writeInt(chest.x);
+            chests.writeInt(chest.y);
+            chests.writeInt(chest.z);
+            chests.writeInt(string(chest.blockId));
+            chests.writeInt(string(chest.lootTable));
+            inline(chests, chest.rawLootCommandResponse);
+            chests.writeInt(itemStart);
+            chests.writeInt(itemCount);
+            chests.writeLong(chest.lootTableSeed != null ? chest.lootTableSeed : NO_SEED);
+            chestCount++;
+        }
+
+        private void addItem(LootSampler.ItemStackData item) throws IOException {
+            int enchantStart = enchantCount;
+            if (item.enchantments != null) {
+                for (int i = 0; i < item.enchantments.size(); i++) {
+                    Integer level = item.enchantmentLevels != null && i < item.enchantmentLevels.size()
+                            ? item.enchantmentLevels.get(i)
+                            : null;
+                    enchants.writeInt(string(item.enchantments.get(i)));
+                    enchants.writeInt(level != null ? level : 0);
+                    enchantCount++;
+                }
+            }
+            items.writeInt(item.slot);
+            items.writeInt(item.count);
+            items.writeInt(string(item.itemId));
+            items.writeInt(string(item.id));
+            items.writeInt(string(item.displayName));
+            inline(items, item.nbt);
+            inline(items, item.rawItemNbt);
+            items.writeInt(enchantStart);
+            items.writeInt(enchantCount);
+            itemCount++;
+        }
+
+        private int string(String value) throws IOException {
+            if (value == null) {
+                return NONE;
+            }
+            Integer existing = stringIds.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if ((long) stringBytesWritten + bytes.length > Integer.MAX_VALUE) {
+                throw new IOException("Columnar string table exceeds 2 GB.");
+            }
+            if (stringCount + 1 >= stringOffsets.length) {
+                stringOffsets = Arrays.copyOf(stringOffsets, stringOffsets.length * 2);
+            }
+            stringBytes.write(bytes);
+            stringOffsets[stringCount] = stringBytesWritten;
+            stringBytesWritten += bytes.length;
+            int id = stringCount++;
+            stringIds.put(value, id);
+            return id;
+        }
+
+        /**
+         * Appends {@code value} to the inline section and writes its (offset, length) to {@code record}.
+         */
+        private void inline(DataOutputStream record, String value) throws IOException {
+            if (value == null) {
+                record.writeInt(NONE);
+                record.writeInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if ((long) inlineBytesWritten + bytes.length > Integer.MAX_VALUE) {
+                throw new IOException("Columnar inline strings exceed 2 GB.");
+            }
+            inlineBytes.write(bytes);
+            record.writeInt(inlineBytesWritten);
+            record.writeInt(bytes.length);
+            inlineBytesWritten += bytes.length;
+        }
+
+        void finish() throws IOException {
+            stringOffsets[stringCount] = stringBytesWritten;
+            for (DataOutputStream out : List.of(structures, chests, items, enchants, stringBytes, inlineBytes)) {
+                out.close();
+            }
+            Path offsets = dir.resolve("string-offsets");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(offsets), 1 << 16))) {
+                for (int i = 0; i <= stringCount; i++) {
+                    out.writeInt(stringOffsets[i]);
+                }
+            }
+            Path[] sections = new Path[SECTION_COUNT];
+            Path metaFile = dir.resolve("meta");
+            Files.write(metaFile, meta);
+            sections[SECTION_META] = metaFile;
+            sections[SECTION_STRING_OFFSETS] = offsets;
+            sections[SECTION_STRING_BYTES] = dir.resolve("strings");
+            sections[SECTION_STRUCTURES] = dir.resolve("structures");
+            sections[SECTION_CHESTS] = dir.resolve("chests");
+            sections[SECTION_ITEMS] = dir.resolve("items");
+            sections[SECTION_ENCHANTS] = dir.resolve("enchants");
+            sections[SECTION_INLINE_BYTES] = dir.resolve("inline");
+
+            try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16);
+                 DataOutputStream out = new DataOutputStream(raw)) {
+                out.write(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(SECTION_COUNT);
+                long offset = MAGIC.length + 8L + SECTION_COUNT * 20L;
+                for (int i = 0; i < SECTION_COUNT; i++) {
+                    long length = Files.size(sections[i]);
+                    out.writeInt(i);
+                    out.writeLong(offset);
+                    out.writeLong(length);
+                    offset += length;
+                }
+                for (Path section : sections) {
+                    Files.copy(section, out);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DataOutputStream out : List.of(structures, chests, items, enchants, stringBytes, inlineBytes)) {
+                out.close();
+            }
+            try (var stream = Files.list(dir)) {
+                for (Path path : stream.toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Memory-mapped view of a columnar result. Structures are decoded on demand; counts come from index ranges.
+     */
+    public static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ProbeResult header;
+        private final ByteBuffer stringOffsets;
+        private final ByteBuffer stringBytes;
+        private final ByteBuffer structures;
+        private final ByteBuffer chests;
+        private final ByteBuffer items;
+        private final ByteBuffer enchants;
+        private final ByteBuffer inlineBytes;
+        private final String[] stringCache;
+
+        private Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                ByteBuffer head = ByteBuffer.allocate(MAGIC.length + 8 + SECTION_COUNT * 20);
+                while (head.hasRemaining()) {
+                    if (channel.read(head, head.position()) < 0) {
+                        break;
+                    }
+                }
+                head.flip();
+                if (head.remaining() < MAGIC.length + 8) {
+                    throw new IOException("Not a LootProbe columnar result: " + file);
+                }
+                byte[] magic = new byte[MAGIC.length];
+                head.get(magic);
+                if (!Arrays.equals(magic, MAGIC)) {
+                    throw new IOException("Not a LootProbe columnar result: " + file);
+                }
+                int version = head.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported columnar result version " + version + ": " + file);
+                }
+                int count = head.getInt();
+                if (count != SECTION_COUNT || head.remaining() < SECTION_COUNT * 20) {
+                    throw new IOException("Corrupt columnar result header (" + count + " sections): " + file);
+                }
+                long fileSize = channel.size();
+                MappedByteBuffer[] sections = new MappedByteBuffer[SECTION_COUNT];
+                for (int i = 0; i < count; i++) {
+                    int id = head.getInt();
+                    long offset = head.getLong();
+                    long length = head.getLong();
+                    if (id < 0 || id >= SECTION_COUNT || sections[id] != null) {
+                        throw new IOException("Corrupt columnar result header (section id " + id + "): " + file);
+                    }
+                    if (length > Integer.MAX_VALUE) {
+                        throw new IOException("Columnar section " + id + " exceeds 2 GB: " + file);
+                    }
+                    if (offset < 0 || length < 0 || offset > fileSize - length) {
+                        throw new IOException("Columnar section " + id + " lies outside the file: " + file);
+                    }
+                    sections[id] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                }
+                byte[] meta = new byte[sections[SECTION_META].remaining()];
+                sections[SECTION_META].get(meta);
+                header = MAPPER.readValue(meta, ProbeResult.class);
+                stringOffsets = sections[SECTION_STRING_OFFSETS];
+                stringBytes = sections[SECTION_STRING_BYTES];
+                structures = sections[SECTION_STRUCTURES];
+                chests = sections[SECTION_CHESTS];
+                items = sections[SECTION_ITEMS];
+                enchants = sections[SECTION_ENCHANTS];
+                inlineBytes = sections[SECTION_INLINE_BYTES];
+                stringCache = new String[Math.max(0, stringOffsets.capacity() / 4 - 1)];
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Result metadata; {@code regionScan.structures} is empty.
+         */
+        public ProbeResult header() {
+            return header;
+        }
+
+        public int structureCount() {
+            return structures.capacity() / STRUCTURE_BYTES;
+        }
+
+        public int totalChestCount() {
+            return chests.capacity() / CHEST_BYTES;
+        }
+
+        public int totalItemCount() {
+            return items.capacity() / ITEM_BYTES;
+        }
+
+        public int chestCount(int structure) {
+            int base = structure * STRUCTURE_BYTES;
+            return structures.getInt(base + 14 * 4) - structures.getInt(base + 13 * 4);
+        }
+
+        public int itemCount(int structure) {
+            int base = structure * STRUCTURE_BYTES;
+            int firstChest = structures.getInt(base + 13 * 4);
+            int endChest = structures.getInt(base + 14 * 4);
+            if (firstChest == endChest) {
+                return 0;
+            }
+            int firstItem = chests.getInt(firstChest * CHEST_BYTES + 7 * 4);
+            int endItem = chests.getInt((endChest - 1) * CHEST_BYTES + 8 * 4);
+            return endItem - firstItem;
+        }
+
+        /**
+         * Structure without its chests; cheap enough for listing every structure.
+         */
+        public WorldChestScanner.ScannedStructure structureSummary(int index) {
+            int base = index * STRUCTURE_BYTES;
+            WorldChestScanner.ScannedStructure structure = new WorldChestScanner.ScannedStructure();
+            structure.id = string(structures.getInt(base));
+            structure.dimension = string(structures.getInt(base + 4));
+            structure.type = string(structures.getInt(base + 8));
+            structure.x = structures.getInt(base + 12);
+            structure.y = structures.getInt(base + 16);
+            structure.z = structures.getInt(base + 20);
+            structure.error = string(structures.getInt(base + 24));
+            structure.chunkStats.requested = structures.getInt(base + 28);
+            structure.chunkStats.alreadyLoaded = structures.getInt(base + 32);
+            structure.chunkStats.newlyLoaded = structures.getInt(base + 36);
+            structure.chunkStats.alreadyGenerated = structures.getInt(base + 40);
+            structure.chunkStats.newlyGenerated = structures.getInt(base + 44);
+            structure.chunkStats.shared = structures.getInt(base + 48);
+            return structure;
+        }
+
+        public WorldChestScanner.ScannedStructure structure(int index) {
+            WorldChestScanner.ScannedStructure structure = structureSummary(index);
+            int base = index * STRUCTURE_BYTES;
+            int endChest = structures.getInt(base + 56);
+            for (int c = structures.getInt(base + 52); c < endChest; c++) {
+                structure.chests.add(chest(c));
+            }
+            return structure;
+        }
+
+        private WorldChestScanner.ChestData chest(int index) {
+            int base = index * CHEST_BYTES;
+            WorldChestScanner.ChestData chest = new WorldChestScanner.ChestData();
+            chest.x = chests.getInt(base);
+            chest.y = chests.getInt(base + 4);
+            chest.z = chests.getInt(base + 8);
+            chest.blockId = string(chests.getInt(base + 12));
+            chest.lootTable = string(chests.getInt(base + 16));
+            chest.rawLootCommandResponse = inline(chests, base + 20);
+            long seed = chests.getLong(base + 36);
+            chest.lootTableSeed = seed != NO_SEED ? seed : null;
+            int endItem = chests.getInt(base + 32);
+            for (int i = chests.getInt(base + 28); i < endItem; i++) {
+                chest.items.add(item(i));
+            }
+            return chest;
+        }
+
+        private LootSampler.ItemStackData item(int index) {
+            int base = index * ITEM_BYTES;
+            LootSampler.ItemStackData item = new LootSampler.ItemStackData();
+            item.slot = items.getInt(base);
+            item.count = items.getInt(base + 4);
+            item.itemId = string(items.getInt(base + 8));
+            item.id = string(items.getInt(base + 12));
+            item.displayName = string(items.getInt(base + 16));
+            item.nbt = inline(items, base + 20);
+            item.rawItemNbt = inline(items, base + 28);
+            int endEnchant = items.getInt(base + 40);
+            for (int e = items.getInt(base + 36); e < endEnchant; e++) {
+                item.enchantments.add(string(enchants.getInt(e * ENCHANT_BYTES)));
+                item.enchantmentLevels.add(enchants.getInt(e * ENCHANT_BYTES + 4));
+            }
+            return item;
+        }
+
+        private String string(int id) {
+            if (id == NONE) {
+                return null;
+            }
+            String cached = stringCache[id];
+            if (cached != null) {
+                return cached;
+            }
+            int start = stringOffsets.getInt(id * 4);
+            int end = stringOffsets.getInt(id * 4 + 4);
+            byte[] bytes = new byte[end - start];
+            stringBytes.get(start, bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            stringCache[id] = value;
+            return value;
+        }
+
+        private String inline(ByteBuffer records, int at) {
+            int offset = records.getInt(at);
+            if (offset == NONE) {
+                return null;
+            }
+            byte[] bytes = new byte[records.getInt(at + 4)];
+            inlineBytes.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Lazy list view; each {@code get} decodes one structure with its chests.
+         */
+        public List<WorldChestScanner.ScannedStructure> structures() {
+            return new AbstractList<>() {
+                @Override
+                public WorldChestScanner.ScannedStructure get(int index) {
+                    return structure(index);
+                }
+
+                @Override
+                public int size() {
+                    return structureCount();
+                }
+            };
+        }
+
+        /**
+         * Decodes everything into a regular {@link ProbeResult}.
+         */
+        public ProbeResult toProbeResult() throws IOException {
+            ProbeResult result = MAPPER.readValue(MAPPER.writeValueAsBytes(header), ProbeResult.class);
+            if (result.regionScan != null) {
+                result.regionScan.structures = new ArrayList<>(structures());
+            }
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
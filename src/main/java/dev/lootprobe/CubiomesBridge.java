@@ -1,25 +1,31 @@
 package dev.lootprobe;
 
 import com.sun.jna.Library;
+import com.sun.jna.Memory;
 import com.sun.jna.Native;
+import com.sun.jna.Pointer;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 public final class CubiomesBridge {
     private interface NativeBridge extends Library {
         int lp_init(String cubiomesPath);
         String lp_last_error();
-        int lp_render_map(long seed, int mc, int dim, int centerX, int centerZ, int radius, int width, int height, int[] outArgb);
+        // Output goes to native memory the caller owns, so JNA does not copy whole arrays in and out per call.
+        int lp_render_map(long seed, int mc, int dim, int centerX, int centerZ, int radius, int width, int height, Pointer outArgb);
         int lp_generate_structures(long seed, int mc, int dim, int minX, int minZ, int maxX, int maxZ,
-                                   int[] structureTypes, int structureTypeCount, int maxOut, int[] outTriplets);
+                                   int[] structureTypes, int structureTypeCount, int maxOut, Pointer outTriplets);
     }
 
     public record StructurePoint(int type, int x, int z) {}
 
+    private static final int PARALLEL_SPLIT_BLOCKS = 16_384;
+    private static final int MAX_PARALLEL_TILES_PER_AXIS = 16;
     private static final int DIM_NETHER = -1;
     private static final int DIM_OVERWORLD = 0;
     private static final int DIM_END = 1;
@@ -62,48 +68,108 @@ public final class CubiomesBridge {
         END_STRUCTS.put("minecraft:end_city", 20);
     }
 
-    private NativeBridge bridge;
-    private boolean initialized;
-    private String lastError = "";
+    private volatile NativeBridge bridge;
+    private volatile boolean initialized;
+    private volatile String initError = "";
+    // Errors are per calling thread so concurrent renders and structure queries do not clobber each other.
+    private final ThreadLocal<String> lastError = ThreadLocal.withInitial(() -> "");
+    // Per-thread native scratch buffers, grown on demand and reused across calls.
+    private final ThreadLocal<Memory> scratch = new ThreadLocal<>();
 
     public boolean ensureInitialized(String bridgeDllPath, String cubiomesDllPath) {
-        if (initialized && bridge != null) {
+        if (initialized) {
             return true;
         }
-        try {
-            String libName = stripLibrarySuffix(Path.of(bridgeDllPath).toAbsolutePath().toString());
-            bridge = Native.load(libName, NativeBridge.class);
-            int rc = bridge.lp_init(cubiomesDllPath != null && !cubiomesDllPath.isBlank() ? cubiomesDllPath : null);
-            if (rc != 0) {
-                lastError = safeError();
+        synchronized (this) {
+            if (initialized) {
+                return true;
+            }
+            try {
+                String libName = stripLibrarySuffix(Path.of(bridgeDllPath).toAbsolutePath().toString());
+                NativeBridge loaded = Native.load(libName, NativeBridge.class);
+                bridge = loaded;
+                int rc = loaded.lp_init(cubiomesDllPath != null && !cubiomesDllPath.isBlank() ? cubiomesDllPath : null);
+                if (rc != 0) {
+                    initError = safeError();
+                    lastError.set(initError);
+                    return false;
+                }
+                initialized = true;
+                initError = "";
+                lastError.set("");
+                return true;
+            } catch (Throwable t) {
+                initError = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+                lastError.set(initError);
                 return false;
             }
-            initialized = true;
-            lastError = "";
-            return true;
-        } catch (Throwable t) {
-            lastError = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
-            return false;
         }
     }
 
+    /**
+     * Error from the calling thread's last bridge call, or from initialisation when that failed.
+     */
     public String getLastError() {
-        return lastError != null ? lastError : "";
+        String error = lastError.get();
+        if (error != null && !error.isBlank()) {
+            return error;
+        }
+        return initialized ? "" : initError;
+    }
+
+    public boolean supportsStructure(String structureId, String dimension) {
+        return structureTypesForDimension(List.of(structureId), mapDimension(dimension)).length > 0;
     }
 
     public int[] renderMap(long seed, String mcVersion, String dimension, int centerX, int centerZ, int radius, int width, int height) {
-        if (!initialized || bridge == null) {
-            return null;
-        }
         int[] argb = new int[Math.max(0, width * height)];
-        int rc = bridge.lp_render_map(seed, mapMcVersion(mcVersion), mapDimension(dimension), centerX, centerZ, radius, width, height, argb);
+        return renderMapInto(seed, mcVersion, dimension, centerX, centerZ, radius, width, height, argb) ? argb : null;
+    }
+
+    /**
+     * Renders into {@code out} (row-major ARGB, at least {@code width * height} ints), typically the backing array
+     * of an image raster. The native side writes to a reused per-thread buffer that is copied into {@code out} once.
+     */
+    public boolean renderMapInto(
+            long seed,
+            String mcVersion,
+            String dimension,
+            int centerX,
+            int centerZ,
+            int radius,
+            int width,
+            int height,
+            int[] out
+    ) {
+        NativeBridge nativeBridge = bridge;
+        if (!initialized || nativeBridge == null || width <= 0 || height <= 0 || out.length < width * height) {
+            return false;
+        }
+        int pixels = width * height;
+        Memory buffer = scratch((long) pixels * Integer.BYTES);
+        int rc = nativeBridge.lp_render_map(seed, mapMcVersion(mcVersion), mapDimension(dimension), centerX, centerZ, radius, width, height, buffer);
         if (rc != 0) {
-            lastError = safeError();
-            return null;
+            lastError.set(safeError());
+            return false;
         }
-        return argb;
+        buffer.read(0, out, 0, pixels);
+        lastError.set("");
+        return true;
     }
 
+    private Memory scratch(long bytes) {
+        Memory buffer = scratch.get();
+        if (buffer == null || buffer.size() < bytes) {
+            buffer = new Memory(Math.max(bytes, 1L << 16));
+            scratch.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Structure starts in the box. Boxes wider than {@value #PARALLEL_SPLIT_BLOCKS} blocks are split into tiles
+     * queried in parallel; the native filter is inclusive on the box, so tiles never report the same start twice.
+     */
     public List<StructurePoint> generateStructures(
             long seed,
             String mcVersion,
@@ -123,24 +189,82 @@ public final class CubiomesBridge {
         if (types.length == 0) {
             return List.of();
         }
+        int mc = mapMcVersion(mcVersion);
         int limit = Math.max(1, maxOut);
-        int[] out = new int[limit * 3];
-        int count = bridge.lp_generate_structures(seed, mapMcVersion(mcVersion), dim, minX, minZ, maxX, maxZ, types, types.length, limit, out);
+        int tilesX = tileCount(minX, maxX);
+        int tilesZ = tileCount(minZ, maxZ);
+        if (tilesX * tilesZ <= 1) {
+            RangeResult single = generateRange(seed, mc, dim, minX, minZ, maxX, maxZ, types, limit);
+            lastError.set(single.error());
+            return single.error().isEmpty() ? single.points() : List.of();
+        }
+        int[][] boxes = new int[tilesX * tilesZ][];
+        for (int tz = 0; tz < tilesZ; tz++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                boxes[tz * tilesX + tx] = new int[]{
+                        tileEdge(minX, maxX, tilesX, tx),
+                        tileEdge(minZ, maxZ, tilesZ, tz),
+                        tileEdge(minX, maxX, tilesX, tx + 1) - 1,
+                        tileEdge(minZ, maxZ, tilesZ, tz + 1) - 1
+                };
+            }
+        }
+        List<RangeResult> parts = IntStream.range(0, boxes.length)
+                .parallel()
+                .mapToObj(i -> generateRange(seed, mc, dim, boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3], types, limit))
+                .toList();
+        List<StructurePoint> points = new ArrayList<>();
+        for (RangeResult part : parts) {
+            if (!part.error().isEmpty()) {
+                lastError.set(part.error());
+                return List.of();
+            }
+            for (StructurePoint point : part.points()) {
+                if (points.size() >= limit) {
+                    break;
+                }
+                points.add(point);
+            }
+        }
+        lastError.set("");
+        return points;
+    }
+
+    private record RangeResult(List<StructurePoint> points, String error) {
+    }
+
+    private RangeResult generateRange(long seed, int mc, int dim, int minX, int minZ, int maxX, int maxZ, int[] types, int limit) {
+        Memory buffer = scratch((long) limit * 3 * Integer.BYTES);
+        int count = bridge.lp_generate_structures(seed, mc, dim, minX, minZ, maxX, maxZ, types, types.length, limit, buffer);
         if (count < 0) {
-            lastError = safeError();
-            return List.of();
+            return new RangeResult(List.of(), safeError());
         }
+        // Only the filled part of the buffer crosses back into the heap.
+        int[] out = buffer.getIntArray(0, count * 3);
         List<StructurePoint> points = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
             int o = i * 3;
             points.add(new StructurePoint(out[o], out[o + 1], out[o + 2]));
         }
-        return points;
+        return new RangeResult(points, "");
+    }
+
+    private static int tileCount(int min, int max) {
+        long span = (long) max - min + 1;
+        long tiles = (span + PARALLEL_SPLIT_BLOCKS - 1) / PARALLEL_SPLIT_BLOCKS;
+        return (int) Math.max(1, Math.min(MAX_PARALLEL_TILES_PER_AXIS, tiles));
+    }
+
+    private static int tileEdge(int min, int max, int tiles, int index) {
+        long span = (long) max - min + 1;
+        return (int) (min + span * index / tiles);
     }
 
     private String safeError() {
         try {
-            String msg = bridge != null ? bridge.lp_last_error() : null;
+            NativeBridge nativeBridge = bridge;
+            // lp_last_error is thread-local on the native side, so this reads the error of the call just made.
+            String msg = nativeBridge != null ? nativeBridge.lp_last_error() : null;
             if (msg != null && !msg.isBlank()) {
                 return msg.trim();
             }
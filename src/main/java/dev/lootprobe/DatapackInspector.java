@@ -33,6 +33,7 @@ public final class DatapackInspector {
         out.overriddenStructures.sort(Comparator.naturalOrder());
         out.addedLootTables.sort(Comparator.naturalOrder());
         out.overriddenLootTables.sort(Comparator.naturalOrder());
+        out.worldgenOverrides.sort(Comparator.naturalOrder());
         return out;
     }
 
@@ -59,6 +60,7 @@ public final class DatapackInspector {
                     classify(relative, out, "worldgen/structure/", true);
                     classify(relative, out, "loot_table/", false);
                     classify(relative, out, "loot_tables/", false);
+                    classifyWorldgen(relative, out);
                 }
             });
         }
@@ -92,6 +94,24 @@ public final class DatapackInspector {
         }
     }
 
+    /**
+     * Records vanilla worldgen files other than structures: structure sets, biomes, noise, dimensions and worldgen
+     * tags (biome lists like {@code has_structure/*}). Any of these can move or remove vanilla structure starts.
+     */
+    private static void classifyWorldgen(String dataRelative, DatapackInfluence out) {
+        if (!dataRelative.startsWith("minecraft/") || !dataRelative.endsWith(".json")) {
+            return;
+        }
+        String rest = dataRelative.substring("minecraft/".length(), dataRelative.length() - ".json".length());
+        boolean worldgen = (rest.startsWith("worldgen/") && !rest.startsWith("worldgen/structure/"))
+                || rest.startsWith("dimension/")
+                || rest.startsWith("dimension_type/")
+                || rest.startsWith("tags/worldgen/");
+        if (worldgen) {
+            addUnique(out.worldgenOverrides, "minecraft:" + rest);
+        }
+    }
+
     private static void addUnique(List<String> list, String id) {
         Set<String> s = new LinkedHashSet<>(list);
         if (s.add(id)) {
@@ -105,5 +125,7 @@ public final class DatapackInspector {
         public List<String> overriddenStructures = new ArrayList<>();
         public List<String> addedLootTables = new ArrayList<>();
         public List<String> overriddenLootTables = new ArrayList<>();
+        // Vanilla worldgen files other than structures (structure sets, biomes, noise, dimensions, worldgen tags).
+        public List<String> worldgenOverrides = new ArrayList<>();
     }
 }
@@ -0,0 +1,108 @@
+package dev.lootprobe;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the plugin's append-only extract completion log ({@code <jobId> done|failed ...} per line)
+ * so finished jobs are noticed without polling job status over RCON.
+ */
+public final class ExtractCompletionWatcher implements AutoCloseable {
+    public static final String LOG_FILE_NAME = "extract-completions.log";
+    private static final long MAX_WAIT_SLICE_MS = 50;
+
+    private final AppendOnlyLineReader reader;
+    private final WatchService watchService;
+
+    private ExtractCompletionWatcher(Path logFile, WatchService watchService, long offset) {
+        this.reader = new AppendOnlyLineReader(logFile, offset);
+        this.watchService = watchService;
+    }
+
+    public static ExtractCompletionWatcher open(Path pluginOutDir) throws IOException {
+        Files.createDirectories(pluginOutDir);
+        Path logFile = pluginOutDir.resolve(LOG_FILE_NAME);
+        long offset = Files.exists(logFile) ? Files.size(logFile) : 0L;
+        WatchService watchService = null;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            pluginOutDir.register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY
+            );
+        } catch (IOException | UnsupportedOperationException e) {
+            // File-size checks below still work without native change notifications.
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException ignored) {
+                }
+            }
+            watchService = null;
+        }
+        return new ExtractCompletionWatcher(logFile, watchService, offset);
+    }
+
+    public Map<String, String> awaitCompletions(long timeoutMs) throws IOException, InterruptedException {
+        Map<String, String> completed = readNewCompletions();
+        long deadline = System.currentTimeMillis() + Math.max(0, timeoutMs);
+        while (completed.isEmpty()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            waitForChange(Math.min(remaining, MAX_WAIT_SLICE_MS));
+            completed = readNewCompletions();
+        }
+        return completed;
+    }
+
+    private void waitForChange(long waitMs) throws InterruptedException {
+        if (watchService == null) {
+            Thread.sleep(waitMs);
+            return;
+        }
+        try {
+            WatchKey key = watchService.poll(waitMs, TimeUnit.MILLISECONDS);
+            if (key != null) {
+                key.pollEvents();
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException e) {
+            Thread.sleep(waitMs);
+        }
+    }
+
+    private Map<String, String> readNewCompletions() throws IOException {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (String line : reader.readNewLines()) {
+            int space = line.indexOf(' ');
+            if (space <= 0) {
+                continue;
+            }
+            out.put(line.substring(0, space), line.substring(space + 1).trim());
+        }
+        return out;
+    }
+
+    @Override
+    public void close() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
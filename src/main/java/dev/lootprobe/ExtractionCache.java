@@ -0,0 +1,211 @@
+package dev.lootprobe;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracted chest data from earlier runs, one NDJSON file per server jar, plugin jar, seed and datapack set. The
+ * plugin is part of the key because it decides what an extraction returns (chunk radius handling, item NBT, loot
+ * seeds), so rebuilding it starts a fresh cache instead of serving chests a different plugin extracted.
+ * Entries are keyed by dimension, structure id, start position and chunk radius; only line offsets are held in memory.
+ */
+public final class ExtractionCache {
+    // Bump when the cached entry or ChestData changes shape so entries written by an older client are not reused.
+    private static final int FORMAT_VERSION = 1;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path file;
+    private final Map<String, long[]> index = new HashMap<>();
+    private int hits;
+    private int stored;
+
+    private ExtractionCache(Path file) {
+        this.file = file;
+    }
+
+    public static ExtractionCache open(
+            Path cacheRoot,
+            String mcVersion,
+            Path serverJar,
+            Path pluginJar,
+            long seed,
+            List<Path> datapacks
+    ) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+        String keyBody = String.join("\n", List.of(
+                "format=" + FORMAT_VERSION,
+                "mcVersion=" + mcVersion,
+                "serverJar=" + WorldTemplateCache.hashFile(serverJar.toAbsolutePath()),
+                "pluginJar=" + WorldTemplateCache.hashFile(pluginJar.toAbsolutePath()),
+                "seed=" + seed,
+                "datapacks=" + WorldTemplateCache.datapackFingerprint(datapacks)
+        ));
+        byte[] hash = digest.digest(keyBody.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            hex.append(String.format("%02x", hash[i]));
+        }
+        Path file = cacheRoot.toAbsolutePath().resolve("chests-" + hex + ".ndjson");
+        Files.createDirectories(file.getParent());
+        ExtractionCache cache = new ExtractionCache(file);
+        cache.load();
+        return cache;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getStored() {
+        return stored;
+    }
+
+    /**
+     * Returns the cached chests for a structure start, or null when it was never extracted with this chunk radius.
+     */
+    public synchronized List<WorldChestScanner.ChestData> lookup(String dimension, String id, int x, int z, int chunkRadius) throws IOException {
+        long[] location = index.get(key(dimension, id, x, z, chunkRadius));
+        if (location == null) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) location[1]];
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            raf.seek(location[0]);
+            raf.readFully(bytes);
+        }
+        Entry entry = MAPPER.readValue(bytes, Entry.class);
+        if (!key(entry.dimension, entry.id, entry.x, entry.z, entry.chunkRadius).equals(key(dimension, id, x, z, chunkRadius))) {
+            // Another process appended concurrently and the offset is stale.
+            return null;
+        }
+        hits++;
+        return entry.chests != null ? entry.chests : new ArrayList<>();
+    }
+
+    public synchronized void store(
+            String dimension,
+            String id,
+            int x,
+            int z,
+            int chunkRadius,
+            List<WorldChestScanner.ChestData> chests
+    ) throws IOException {
+        Entry entry = new Entry();
+        entry.dimension = dimension;
+        entry.id = id;
+        entry.x = x;
+        entry.z = z;
+        entry.chunkRadius = chunkRadius;
+        entry.chests = chests;
+        byte[] json = MAPPER.writeValueAsBytes(entry);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        long offset = Files.exists(file) ? Files.size(file) : 0L;
+        // One write per line so concurrent runs appending to the same cache do not interleave entries.
+        Files.write(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        index.put(key(dimension, id, x, z, chunkRadius), new long[]{offset, json.length});
+        stored++;
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long offset = 0;
+        long lineStart = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) >= 0) {
+                offset++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                if (line.size() > 0) {
+                    indexLine(line.toByteArray(), lineStart);
+                }
+                line.reset();
+                lineStart = offset;
+            }
+        }
+        if (lineStart < offset) {
+            // Drop a line cut off by a crash so the next append starts on a fresh line.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(lineStart);
+            }
+        }
+    }
+
+    private void indexLine(byte[] line, long offset) {
+        Entry key = new Entry();
+        try (JsonParser parser = MAPPER.getFactory().createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "dimension" -> key.dimension = parser.getValueAsString();
+                    case "id" -> key.id = parser.getValueAsString();
+                    case "x" -> key.x = parser.getValueAsInt();
+                    case "z" -> key.z = parser.getValueAsInt();
+                    case "chunkRadius" -> key.chunkRadius = parser.getValueAsInt();
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            return;
+        }
+        if (key.id == null) {
+            return;
+        }
+        // Later lines win, so a re-extraction replaces the older entry.
+        index.put(key(key.dimension, key.id, key.x, key.z, key.chunkRadius), new long[]{offset, line.length});
+    }
+
+    private static String key(String dimension, String id, int x, int z, int chunkRadius) {
+        return (dimension != null ? dimension : "-") + "|" + id + "|" + x + "|" + z + "|" + chunkRadius;
+    }
+
+    public static final class Entry {
+        public String dimension;
+        public String id;
+        public int x;
+        public int z;
+        public int chunkRadius;
+        public List<WorldChestScanner.ChestData> chests = new ArrayList<>();
+    }
+}
@@ -0,0 +1,409 @@
+package dev.lootprobe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from search terms (item ids, enchantments, loot tables) to the chests that contain them.
+ * Chests are numbered by distance from the origin, so every posting list is already nearest-first and a radius
+ * query around the origin is a prefix of it.
+ */
+public final class ItemIndex {
+    private static final int SUBSTRING_MIN_LENGTH = 3;
+    private static final int TERM_CACHE_LIMIT = 256;
+    private static final Pattern WITHIN_PATTERN = Pattern.compile(
+            "\\bwithin\\s+(\\d+)(?:\\s*blocks?)?(?:\\s+of\\s+(-?\\d+)\\s*[, ]\\s*(-?\\d+))?",
+            Pattern.CASE_INSENSITIVE
+    );
+
+    public interface Tokenizer {
+        void tokens(WorldChestScanner.ScannedStructure structure, WorldChestScanner.ChestData chest, Set<String> out);
+    }
+
+    private final int originX;
+    private final int originZ;
+    private final int[] refStructure;
+    private final int[] refChest;
+    private final int[] refX;
+    private final int[] refZ;
+    private final long[] refDistanceSq;
+    private final int[] firstRef;
+    private final int[] structureRefs;
+    private final String[] terms;
+    private final int[][] postings;
+    private final Map<String, int[]> queryCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > TERM_CACHE_LIMIT;
+        }
+    };
+
+    private ItemIndex(List<WorldChestScanner.ScannedStructure> structures, int originX, int originZ, Tokenizer tokenizer) {
+        this.originX = originX;
+        this.originZ = originZ;
+        int chestCount = 0;
+        firstRef = new int[structures.size() + 1];
+        for (int s = 0; s < structures.size(); s++) {
+            firstRef[s] = chestCount;
+            WorldChestScanner.ScannedStructure structure = structures.get(s);
+            chestCount += structure != null && structure.chests != null ? structure.chests.size() : 0;
+        }
+        firstRef[structures.size()] = chestCount;
+
+        int[] sStructure = new int[chestCount];
+        int[] sChest = new int[chestCount];
+        long[] sDistance = new long[chestCount];
+        int[] sX = new int[chestCount];
+        int[] sZ = new int[chestCount];
+        for (int s = 0; s < structures.size(); s++) {
+            WorldChestScanner.ScannedStructure structure = structures.get(s);
+            for (int c = 0; c < firstRef[s + 1] - firstRef[s]; c++) {
+                WorldChestScanner.ChestData chest = structure.chests.get(c);
+                int slot = firstRef[s] + c;
+                sStructure[slot] = s;
+                sChest[slot] = c;
+                sX[slot] = chest != null ? chest.x : structure.x;
+                sZ[slot] = chest != null ? chest.z : structure.z;
+                sDistance[slot] = distanceSq(sX[slot], sZ[slot], originX, originZ);
+            }
+        }
+        Integer[] order = new Integer[chestCount];
+        for (int i = 0; i < chestCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> sDistance[a] != sDistance[b] ? Long.compare(sDistance[a], sDistance[b]) : Integer.compare(a, b));
+
+        refStructure = new int[chestCount];
+        refChest = new int[chestCount];
+        refX = new int[chestCount];
+        refZ = new int[chestCount];
+        refDistanceSq = new long[chestCount];
+        structureRefs = new int[chestCount];
+        for (int ref = 0; ref < chestCount; ref++) {
+            int slot = order[ref];
+            refStructure[ref] = sStructure[slot];
+            refChest[ref] = sChest[slot];
+            refX[ref] = sX[slot];
+            refZ[ref] = sZ[slot];
+            refDistanceSq[ref] = sDistance[slot];
+            structureRefs[slot] = ref;
+        }
+
+        Map<String, IntList> byTerm = new HashMap<>();
+        Set<String> chestTerms = new LinkedHashSet<>();
+        for (int ref = 0; ref < chestCount; ref++) {
+            WorldChestScanner.ScannedStructure structure = structures.get(refStructure[ref]);
+            chestTerms.clear();
+            tokenizer.tokens(structure, structure.chests.get(refChest[ref]), chestTerms);
+            for (String term : chestTerms) {
+                byTerm.computeIfAbsent(term, k -> new IntList()).add(ref);
+            }
+        }
+        terms = byTerm.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        postings = new int[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            postings[i] = byTerm.get(terms[i]).toArray();
+        }
+    }
+
+    /**
+     * Indexes chests under their item ids, enchantments and loot table, with and without namespace.
+     */
+    public static ItemIndex build(List<WorldChestScanner.ScannedStructure> structures, int originX, int originZ) {
+        return build(structures, originX, originZ, ItemIndex::defaultTokens);
+    }
+
+    public static ItemIndex build(List<WorldChestScanner.ScannedStructure> structures, int originX, int originZ, Tokenizer tokenizer) {
+        return new ItemIndex(structures != null ? structures : List.of(), originX, originZ, tokenizer);
+    }
+
+    private static void defaultTokens(WorldChestScanner.ScannedStructure structure, WorldChestScanner.ChestData chest, Set<String> out) {
+        if (chest == null) {
+            return;
+        }
+        addId(out, chest.lootTable);
+        if (chest.items == null) {
+            return;
+        }
+        for (LootSampler.ItemStackData item : chest.items) {
+            if (item == null) {
+                continue;
+            }
+            addId(out, item.itemId);
+            if (item.enchantments != null) {
+                for (String enchantment : item.enchantments) {
+                    addId(out, enchantment);
+                }
+            }
+        }
+    }
+
+    private static void addId(Set<String> out, String id) {
+        if (id == null || id.isBlank()) {
+            return;
+        }
+        String value = id.trim().toLowerCase(Locale.ROOT);
+        out.add(value);
+        int colon = value.indexOf(':');
+        if (colon >= 0 && colon + 1 < value.length()) {
+            out.add(value.substring(colon + 1));
+        }
+    }
+
+    public int getOriginX() {
+        return originX;
+    }
+
+    public int getOriginZ() {
+        return originZ;
+    }
+
+    public int chestCount() {
+        return refStructure.length;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    public int structureOf(int ref) {
+        return refStructure[ref];
+    }
+
+    public int chestOf(int ref) {
+        return refChest[ref];
+    }
+
+    public int xOf(int ref) {
+        return refX[ref];
+    }
+
+    public int zOf(int ref) {
+        return refZ[ref];
+    }
+
+    /**
+     * Reference of a chest by its position in the indexed structure list.
+     */
+    public int ref(int structure, int chest) {
+        return structureRefs[firstRef[structure] + chest];
+    }
+
+    /**
+     * Chests matching every token, nearest to the origin first. A token matches a term equal to it, or containing it
+     * once the token is at least three characters long.
+     */
+    public int[] query(List<String> tokens) {
+        int[] result = null;
+        for (String token : tokens) {
+            int[] matches = matchToken(token);
+            result = result == null ? matches : intersect(result, matches);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result != null ? result : allRefs();
+    }
+
+    /**
+     * Chests matching a term that contains {@code text}, regardless of length.
+     */
+    public int[] queryContaining(String text) {
+        return union(text.toLowerCase(Locale.ROOT), 1);
+    }
+
+    /**
+     * Restricts refs to those within {@code radius} blocks of (x, z), nearest first.
+     */
+    public int[] within(int[] refs, int x, int z, int radius) {
+        long limit = (long) radius * radius;
+        if (x == originX && z == originZ) {
+            // Refs are numbered by distance from the origin, so the answer is a prefix.
+            int end = upperBound(refs, limit);
+            return Arrays.copyOf(refs, end);
+        }
+        IntList kept = new IntList();
+        for (int ref : refs) {
+            if (distanceSq(refX[ref], refZ[ref], x, z) <= limit) {
+                kept.add(ref);
+            }
+        }
+        int[] out = kept.toArray();
+        return sortByDistance(out, x, z);
+    }
+
+    private int[] sortByDistance(int[] refs, int x, int z) {
+        Integer[] boxed = new Integer[refs.length];
+        for (int i = 0; i < refs.length; i++) {
+            boxed[i] = refs[i];
+        }
+        Arrays.sort(boxed, (a, b) -> {
+            int byDistance = Long.compare(distanceSq(refX[a], refZ[a], x, z), distanceSq(refX[b], refZ[b], x, z));
+            return byDistance != 0 ? byDistance : Integer.compare(a, b);
+        });
+        int[] out = new int[refs.length];
+        for (int i = 0; i < refs.length; i++) {
+            out[i] = boxed[i];
+        }
+        return out;
+    }
+
+    private int upperBound(int[] refs, long limit) {
+        int lo = 0;
+        int hi = refs.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (refDistanceSq[refs[mid]] <= limit) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int[] matchToken(String token) {
+        return union(token, SUBSTRING_MIN_LENGTH);
+    }
+
+    private synchronized int[] union(String token, int substringMinLength) {
+        String cacheKey = substringMinLength + "|" + token;
+        int[] cached = queryCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        List<int[]> lists = new ArrayList<>();
+        int exact = Arrays.binarySearch(terms, token);
+        if (exact >= 0) {
+            lists.add(postings[exact]);
+        }
+        if (token.length() >= substringMinLength) {
+            for (int i = 0; i < terms.length; i++) {
+                if (i != exact && terms[i].contains(token)) {
+                    lists.add(postings[i]);
+                }
+            }
+        }
+        int[] merged = mergeAll(lists);
+        queryCache.put(cacheKey, merged);
+        return merged;
+    }
+
+    private int[] allRefs() {
+        int[] out = new int[refStructure.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = i;
+        }
+        return out;
+    }
+
+    private static int[] mergeAll(List<int[]> lists) {
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        int total = 0;
+        for (int[] list : lists) {
+            total += list.length;
+        }
+        int[] all = new int[total];
+        int pos = 0;
+        for (int[] list : lists) {
+            System.arraycopy(list, 0, all, pos, list.length);
+            pos += list.length;
+        }
+        Arrays.sort(all);
+        int unique = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[unique++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, unique);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static long distanceSq(int x, int z, int originX, int originZ) {
+        long dx = (long) x - originX;
+        long dz = (long) z - originZ;
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Splits "within N [of X,Z]" off a search string; the point defaults to the given origin.
+     */
+    public static Query parseQuery(String raw, int defaultX, int defaultZ) {
+        Query query = new Query();
+        query.x = defaultX;
+        query.z = defaultZ;
+        String text = raw != null ? raw : "";
+        Matcher m = WITHIN_PATTERN.matcher(text);
+        if (m.find()) {
+            try {
+                query.radius = Integer.parseInt(m.group(1));
+                if (m.group(2) != null) {
+                    query.x = Integer.parseInt(m.group(2));
+                    query.z = Integer.parseInt(m.group(3));
+                }
+                text = (text.substring(0, m.start()) + " " + text.substring(m.end())).trim();
+            } catch (NumberFormatException e) {
+                query.radius = null;
+            }
+        }
+        query.text = text.trim();
+        return query;
+    }
+
+    public static final class Query {
+        public String text;
+        public Integer radius;
+        public int x;
+        public int z;
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
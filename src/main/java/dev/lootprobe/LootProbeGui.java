@@ -56,6 +56,8 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -77,6 +79,7 @@ public final class LootProbeGui {
     private static final String RESULT_FILTER_ANY = "(Any)";
     private static final String DEFAULT_CUBIOMES_DLL = "cubiomes.dll";
     private static final String DEFAULT_CUBIOMES_BRIDGE = "cubiomes_bridge.dll";
+    private static final long MAP_TILE_CACHE_BYTES = 512L * 1024 * 1024;
 
     private static final List<String> OVERWORLD_STRUCTURES = List.of(
             "minecraft:ancient_city", "minecraft:buried_treasure", "minecraft:desert_pyramid",
@@ -155,6 +158,9 @@ public final class LootProbeGui {
     private final Path settingsFile = Path.of(".lootprobe-gui-settings.json").toAbsolutePath();
     private volatile SwingWorker<ProbeResult, Void> currentWorker;
     private ProbeResult currentResult;
+    private ItemIndex itemIndex = ItemIndex.build(List.of(), 0, 0, LootProbeGui::addChestSearchTokens);
+    private String searchMatchesText;
+    private BitSet searchMatches;
     private final List<Integer> filteredStructureIndexes = new ArrayList<>();
     private final List<Integer> filteredChestIndexes = new ArrayList<>();
 
@@ -878,7 +884,7 @@ public final class LootProbeGui {
         datapackPath.setToolTipText("Optional single datapack zip/folder for this run.");
         selectedStructures.setToolTipText("Internal selected targets cache.");
         datapackTargetsPanel.setToolTipText("Datapack structures with manually assigned dimensions.");
-        itemSearch.setToolTipText("Space-separated AND search across chest/item data (example: protection iv chest).");
+        itemSearch.setToolTipText("Space-separated AND search across chest/item data; add \"within <blocks> [of x,z]\" to limit distance (example: protection iv chest within 3000).");
         resultDimensionFilter.setToolTipText("Filter result list by dimension.");
         resultStructureFilter.setToolTipText("Filter result list by structure id.");
         resultStructureList.setToolTipText("Filtered scanned structures.");
@@ -1040,6 +1046,10 @@ public final class LootProbeGui {
 
     private void setCurrentResult(ProbeResult result) {
         this.currentResult = result;
+        int originX = result != null && result.regionScan != null ? result.regionScan.centerX : 0;
+        int originZ = result != null && result.regionScan != null ? result.regionScan.centerZ : 0;
+        this.itemIndex = ItemIndex.build(getScannedStructures(), originX, originZ, LootProbeGui::addChestSearchTokens);
+        this.searchMatchesText = null;
         refreshResultFilterChoices();
         refreshStructureList();
         updateMapSelectionFromUi();
@@ -1089,7 +1099,7 @@ public final class LootProbeGui {
         resultStructureModel.clear();
         filteredStructureIndexes.clear();
         List<WorldChestScanner.ScannedStructure> structures = getScannedStructures();
-        List<String> queryTokens = parseQueryTokens(itemSearch.getText());
+        BitSet matches = searchMatches();
         String requiredDimension = selectedResultFilter(resultDimensionFilter);
         String requiredStructure = selectedResultFilter(resultStructureFilter);
 
@@ -1106,7 +1116,7 @@ public final class LootProbeGui {
 
         for (int i = 0; i < structures.size(); i++) {
             WorldChestScanner.ScannedStructure s = structures.get(i);
-            if (!matchesStructure(s, queryTokens, requiredDimension, requiredStructure)) {
+            if (!matchesStructure(s, i, matches, requiredDimension, requiredStructure)) {
                 continue;
             }
             filteredStructureIndexes.add(i);
@@ -1148,7 +1158,7 @@ public final class LootProbeGui {
             return;
         }
         int structureIndex = filteredStructureIndexes.get(selectedFilteredStructure);
-        List<String> queryTokens = parseQueryTokens(itemSearch.getText());
+        BitSet matches = searchMatches();
         if (structureIndex < 0) {
             return;
         }
@@ -1163,7 +1173,7 @@ public final class LootProbeGui {
         }
         for (int i = 0; i < structure.chests.size(); i++) {
             WorldChestScanner.ChestData chest = structure.chests.get(i);
-            if (!matchesChest(structure, chest, queryTokens)) {
+            if (matches != null && !matches.get(itemIndex.ref(structureIndex, i))) {
                 continue;
             }
             filteredChestIndexes.add(i);
@@ -1420,9 +1430,10 @@ public final class LootProbeGui {
         return value;
     }
 
-    private static boolean matchesStructure(
+    private boolean matchesStructure(
             WorldChestScanner.ScannedStructure structure,
-            List<String> queryTokens,
+            int structureIndex,
+            BitSet matches,
             String requiredDimension,
             String requiredStructure
     ) {
@@ -1435,32 +1446,55 @@ public final class LootProbeGui {
         if (requiredStructure != null && !requiredStructure.equals(structure.id)) {
             return false;
         }
-        if (queryTokens.isEmpty()) {
+        if (matches == null) {
             return true;
         }
         if (structure.chests == null) {
             return false;
         }
-        for (WorldChestScanner.ChestData chest : structure.chests) {
-            if (matchesChest(structure, chest, queryTokens)) {
+        for (int c = 0; c < structure.chests.size(); c++) {
+            if (matches.get(itemIndex.ref(structureIndex, c))) {
                 return true;
             }
         }
         return false;
     }
 
-    private static boolean matchesChest(
+    /**
+     * Chests matching the search box, or null when there is no search. Answered from the item index and
+     * reused until the search text or result changes.
+     */
+    private BitSet searchMatches() {
+        String text = itemSearch.getText();
+        if (text.equals(searchMatchesText)) {
+            return searchMatches;
+        }
+        ItemIndex.Query query = ItemIndex.parseQuery(text, itemIndex.getOriginX(), itemIndex.getOriginZ());
+        List<String> queryTokens = parseQueryTokens(query.text);
+        BitSet matches = null;
+        if (!queryTokens.isEmpty() || query.radius != null) {
+            int[] refs = itemIndex.query(queryTokens);
+            if (query.radius != null) {
+                refs = itemIndex.within(refs, query.x, query.z, query.radius);
+            }
+            matches = new BitSet(itemIndex.chestCount());
+            for (int ref : refs) {
+                matches.set(ref);
+            }
+        }
+        searchMatchesText = text;
+        searchMatches = matches;
+        return matches;
+    }
+
+    private static void addChestSearchTokens(
             WorldChestScanner.ScannedStructure structure,
             WorldChestScanner.ChestData chest,
-            List<String> queryTokens
+            Set<String> chestTokens
     ) {
-        if (queryTokens.isEmpty()) {
-            return true;
-        }
         if (structure == null || chest == null) {
-            return false;
+            return;
         }
-        Set<String> chestTokens = new LinkedHashSet<>();
         addSearchTokens(chestTokens, structure.id);
         addSearchTokens(chestTokens, structure.type);
         addSearchTokens(chestTokens, structure.dimension);
@@ -1478,12 +1512,6 @@ public final class LootProbeGui {
                 addSearchTokens(chestTokens, parsePotionText(item.nbt != null ? item.nbt : ""));
             }
         }
-        for (String queryToken : queryTokens) {
-            if (!tokenPresent(chestTokens, queryToken)) {
-                return false;
-            }
-        }
-        return true;
     }
 
     private static List<String> parseQueryTokens(String raw) {
@@ -1528,21 +1556,6 @@ public final class LootProbeGui {
         }
     }
 
-    private static boolean tokenPresent(Set<String> haystack, String queryToken) {
-        if (haystack.contains(queryToken)) {
-            return true;
-        }
-        if (queryToken.length() < 3) {
-            return false;
-        }
-        for (String candidate : haystack) {
-            if (candidate.contains(queryToken)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private static int parseRoman(String token) {
         if (token == null || token.isBlank()) {
             return -1;
@@ -1580,13 +1593,13 @@ public final class LootProbeGui {
     private void loadResultJson() {
         JFileChooser chooser = newFileChooser();
         chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
-        chooser.setFileFilter(new FileNameExtensionFilter("JSON files", "json"));
+        chooser.setFileFilter(new FileNameExtensionFilter("Probe results (JSON, columnar)", "json", "lpcol"));
         if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
             return;
         }
         try {
             Path path = chooser.getSelectedFile().toPath().toAbsolutePath();
-            ProbeResult loaded = mapper.readValue(path.toFile(), ProbeResult.class);
+            ProbeResult loaded = readResult(path);
             if (loaded.regionScan != null) {
                 mapPanel.setResult(loaded.regionScan.seed, loaded);
             } else {
@@ -1599,6 +1612,16 @@ public final class LootProbeGui {
         }
     }
 
+    private ProbeResult readResult(Path path) throws Exception {
+        if (!ColumnarResult.isColumnar(path)) {
+            return mapper.readValue(path.toFile(), ProbeResult.class);
+        }
+        // The map and tables need every structure, so decode them all; this still skips JSON parsing.
+        try (ColumnarResult.Reader reader = ColumnarResult.open(path)) {
+            return reader.toProbeResult();
+        }
+    }
+
     private void exportSimplifiedResults() {
         if (currentResult == null || currentResult.regionScan == null || currentResult.regionScan.structures == null) {
             JOptionPane.showMessageDialog(frame, "No scan result available to export.", "Export Simplified", JOptionPane.WARNING_MESSAGE);
@@ -1987,6 +2010,7 @@ public final class LootProbeGui {
     }
 
     private static final class MapPreviewPanel extends JPanel {
+        private static final int HOVER_PICK_PIXELS = 10;
         private long seed;
         private ProbeResult result;
         private final CubiomesBridge cubiomesBridge;
@@ -2026,25 +2050,16 @@ public final class LootProbeGui {
         private double zoomFactor = 1.0;
         private Integer hoverWorldX;
         private Integer hoverWorldZ;
-        private BufferedImage cached;
-        private int cachedW;
-        private int cachedH;
-        private int cachedCenterX;
-        private int cachedCenterZ;
-        private double cachedRadius;
-        private String cachedImageBaseKey;
-        private String cachedImageKey;
-        private final Map<String, RenderFrame> mapFrameCache = new LinkedHashMap<>() {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, RenderFrame> eldest) {
-                return size() > 32;
-            }
-        };
-        private volatile boolean imageRenderInFlight;
-        private volatile String requestedImageKey;
+        private final MapTileRenderer tileRenderer = new MapTileRenderer(this::repaint);
+        private final MapTileDiskCache tileDiskCache = new MapTileDiskCache(Path.of(".lootprobe-cache", "map-tiles"), MAP_TILE_CACHE_BYTES);
+        private String tileSourceKey;
         private volatile boolean structureGenInFlight;
         private volatile String requestedStructureKey;
         private long lastHoverPaintNanos;
+        private SpatialIndex structurePoints = SpatialIndex.build(new int[0], new int[0]);
+        private SpatialIndex chestPoints = SpatialIndex.build(new int[0], new int[0]);
+        private WorldChestScanner.ChestData[] chestPointData = new WorldChestScanner.ChestData[0];
+        private WorldChestScanner.ScannedStructure[] chestPointStructure = new WorldChestScanner.ScannedStructure[0];
         private final Timer interactionDebounceTimer;
         private final Timer interactionFrameTimer;
 
@@ -2172,21 +2187,63 @@ public final class LootProbeGui {
         void setResult(long seed, ProbeResult result) {
             this.seed = seed;
             this.result = result;
+            indexResultPoints();
             this.selectedStructure = null;
             this.selectedChest = null;
             this.panOffsetX = 0;
             this.panOffsetZ = 0;
-            this.cached = null;
-            this.cachedImageKey = null;
             this.cachedCubiomesStructureKey = null;
             this.cachedCubiomesStructures = List.of();
-            this.mapFrameCache.clear();
             this.cubiomesStructureCache.clear();
-            this.requestedImageKey = null;
             this.requestedStructureKey = null;
             repaint();
         }
 
+        private void indexResultPoints() {
+            List<WorldChestScanner.ScannedStructure> structures = result != null && result.regionScan != null && result.regionScan.structures != null
+                    ? result.regionScan.structures
+                    : List.of();
+            List<WorldChestScanner.ScannedStructure> presentStructures = new ArrayList<>(structures.size());
+            int chestCount = 0;
+            for (WorldChestScanner.ScannedStructure s : structures) {
+                if (s == null) {
+                    continue;
+                }
+                presentStructures.add(s);
+                chestCount += s.chests != null ? s.chests.size() : 0;
+            }
+            int[] structureX = new int[presentStructures.size()];
+            int[] structureZ = new int[presentStructures.size()];
+            for (int i = 0; i < presentStructures.size(); i++) {
+                structureX[i] = presentStructures.get(i).x;
+                structureZ[i] = presentStructures.get(i).z;
+            }
+            int[] chestX = new int[chestCount];
+            int[] chestZ = new int[chestCount];
+            WorldChestScanner.ChestData[] chests = new WorldChestScanner.ChestData[chestCount];
+            WorldChestScanner.ScannedStructure[] owners = new WorldChestScanner.ScannedStructure[chestCount];
+            int n = 0;
+            for (WorldChestScanner.ScannedStructure s : presentStructures) {
+                if (s.chests == null) {
+                    continue;
+                }
+                for (WorldChestScanner.ChestData chest : s.chests) {
+                    if (chest == null) {
+                        continue;
+                    }
+                    chestX[n] = chest.x;
+                    chestZ[n] = chest.z;
+                    chests[n] = chest;
+                    owners[n] = s;
+                    n++;
+                }
+            }
+            structurePoints = SpatialIndex.build(structureX, structureZ);
+            chestPoints = SpatialIndex.build(Arrays.copyOf(chestX, n), Arrays.copyOf(chestZ, n));
+            chestPointData = Arrays.copyOf(chests, n);
+            chestPointStructure = Arrays.copyOf(owners, n);
+        }
+
         void setSelection(WorldChestScanner.ScannedStructure structure, WorldChestScanner.ChestData chest) {
             this.selectedStructure = structure;
             this.selectedChest = chest;
@@ -2218,13 +2275,9 @@ public final class LootProbeGui {
             this.mcVersion = mcVersion != null ? mcVersion : "1.21";
             this.dimension = dimension != null ? dimension : "minecraft:overworld";
             this.selectedStructureIds = selectedStructureIds != null ? new ArrayList<>(selectedStructureIds) : List.of();
-            this.cached = null;
-            this.cachedImageKey = null;
             this.cachedCubiomesStructureKey = null;
             this.cachedCubiomesStructures = List.of();
-            this.requestedImageKey = null;
             this.requestedStructureKey = null;
-            this.mapFrameCache.clear();
             this.cubiomesStructureCache.clear();
             repaint();
         }
@@ -2239,9 +2292,6 @@ public final class LootProbeGui {
             }
             Viewport viewport = currentViewport(w, h);
             boolean interacting = isInteracting();
-            if (!interacting || cached == null) {
-                ensureImage(w, h, viewport);
-            }
             Graphics2D g2 = (Graphics2D) g;
             if (interacting) {
                 g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
@@ -2250,7 +2300,8 @@ public final class LootProbeGui {
                 g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
                 g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
             }
-            drawCachedImage(g2, w, h, viewport);
+            updateTileSource();
+            tileRenderer.draw(g2, w, h, viewport.centerX, viewport.centerZ, viewport.radius);
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
             int centerX = w / 2;
@@ -2334,6 +2385,15 @@ public final class LootProbeGui {
             bottomHud.add(String.format("Zoom: %.2fx", zoomFactor));
             if (hoverWorldX != null && hoverWorldZ != null) {
                 bottomHud.add("Mouse: (" + hoverWorldX + "," + hoverWorldZ + ")");
+                double blocksPerPixel = (radius * 2.0) / Math.max(1, w);
+                int hovered = chestPoints.nearest(hoverWorldX, hoverWorldZ, HOVER_PICK_PIXELS * blocksPerPixel);
+                if (hovered >= 0) {
+                    WorldChestScanner.ChestData chest = chestPointData[hovered];
+                    WorldChestScanner.ScannedStructure owner = chestPointStructure[hovered];
+                    int items = chest.items != null ? chest.items.size() : 0;
+                    bottomHud.add("Chest: (" + chest.x + "," + chest.y + "," + chest.z + ") "
+                            + (owner.id != null ? owner.id : "-") + " items=" + items);
+                }
             }
             if (interacting) {
                 bottomHud.add("Rendering: interactive mode");
@@ -2464,165 +2524,110 @@ public final class LootProbeGui {
         }
 
         private int drawScannedStructurePoints(Graphics2D g2, Viewport viewport, int w, int h) {
-            if (result == null || result.regionScan == null || result.regionScan.structures == null || result.regionScan.structures.isEmpty()) {
+            if (structurePoints.size() == 0) {
                 return 0;
             }
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
             g2.setColor(new Color(255, 56, 56, 230));
             int half = Math.max(1, (int) Math.round(2 * iconScale));
             int size = half * 2;
-            int drawn = 0;
             int maxDraw = 1600;
-            for (WorldChestScanner.ScannedStructure s : result.regionScan.structures) {
-                int px = toPixel(s.x, viewport.centerX, viewport.radius, w);
-                int py = toPixel(s.z, viewport.centerZ, viewport.radius, h);
-                if (px < -3 || py < -3 || px > w + 3 || py > h + 3) {
-                    continue;
-                }
+            int[] drawn = {0};
+            queryViewport(structurePoints, viewport, w, h, 3, id -> {
+                int px = toPixel(structurePoints.x(id), viewport.centerX, viewport.radius, w);
+                int py = toPixel(structurePoints.z(id), viewport.centerZ, viewport.radius, h);
                 g2.fillRect(px - half, py - half, size, size);
-                drawn++;
-                if (drawn >= maxDraw) {
-                    break;
-                }
-            }
+                return ++drawn[0] < maxDraw;
+            });
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            return drawn;
+            return drawn[0];
         }
 
         private int drawScannedChestPoints(Graphics2D g2, Viewport viewport, int w, int h, int maxDraw) {
-            if (result == null || result.regionScan == null || result.regionScan.structures == null || result.regionScan.structures.isEmpty()) {
+            if (chestPoints.size() == 0) {
                 return 0;
             }
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
-            g2.setColor(new Color(255, 0, 190, 245));
+            Color fill = new Color(255, 0, 190, 245);
+            Color outline = new Color(20, 20, 20, 220);
             int half = Math.max(2, (int) Math.round(3 * iconScale));
             int size = half * 2 + 1;
-            int drawn = 0;
-            for (WorldChestScanner.ScannedStructure s : result.regionScan.structures) {
-                if (s == null || s.chests == null || s.chests.isEmpty()) {
-                    continue;
-                }
-                for (WorldChestScanner.ChestData chest : s.chests) {
-                    if (chest == null) {
-                        continue;
-                    }
-                    int px = toPixel(chest.x, viewport.centerX, viewport.radius, w);
-                    int py = toPixel(chest.z, viewport.centerZ, viewport.radius, h);
-                    if (px < -2 || py < -2 || px > w + 2 || py > h + 2) {
-                        continue;
-                    }
-                    g2.fillRect(px - half, py - half, size, size);
-                    g2.setColor(new Color(20, 20, 20, 220));
-                    g2.drawRect(px - half - 1, py - half - 1, size + 1, size + 1);
-                    g2.setColor(new Color(255, 0, 190, 245));
-                    drawn++;
-                    if (drawn >= maxDraw) {
-                        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                        return drawn;
-                    }
-                }
-            }
+            int[] drawn = {0};
+            queryViewport(chestPoints, viewport, w, h, 2, id -> {
+                int px = toPixel(chestPoints.x(id), viewport.centerX, viewport.radius, w);
+                int py = toPixel(chestPoints.z(id), viewport.centerZ, viewport.radius, h);
+                g2.setColor(fill);
+                g2.fillRect(px - half, py - half, size, size);
+                g2.setColor(outline);
+                g2.drawRect(px - half - 1, py - half - 1, size + 1, size + 1);
+                return ++drawn[0] < maxDraw;
+            });
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            return drawn;
+            return drawn[0];
+        }
+
+        /**
+         * Visits the points whose pixel lands within {@code marginPx} of the panel.
+         */
+        private void queryViewport(SpatialIndex index, Viewport viewport, int w, int h, int marginPx, SpatialIndex.Visitor visitor) {
+            int minX = toWorld(-marginPx - 1, viewport.centerX, viewport.radius, w);
+            int maxX = toWorld(w + marginPx + 1, viewport.centerX, viewport.radius, w);
+            int minZ = toWorld(-marginPx - 1, viewport.centerZ, viewport.radius, h);
+            int maxZ = toWorld(h + marginPx + 1, viewport.centerZ, viewport.radius, h);
+            index.query(minX, minZ, maxX, maxZ, id -> {
+                int px = toPixel(index.x(id), viewport.centerX, viewport.radius, w);
+                int py = toPixel(index.z(id), viewport.centerZ, viewport.radius, h);
+                if (px < -marginPx || py < -marginPx || px > w + marginPx || py > h + marginPx) {
+                    return true;
+                }
+                return visitor.visit(id);
+            });
         }
 
-        private void ensureImage(int w, int h, Viewport viewport) {
-            String baseKey = seed + "|" + w + "x" + h + "|" + useCubiomesMap + "|" + mcVersion + "|" + dimension
+        private void updateTileSource() {
+            String key = seed + "|" + useCubiomesMap + "|" + mcVersion + "|" + dimension
                     + "|" + DEFAULT_CUBIOMES_DLL + "|" + DEFAULT_CUBIOMES_BRIDGE;
-            int centerSnap = Math.max(128, (int) Math.round(viewport.radius / 8.0));
-            int radiusSnap = Math.max(64, (int) Math.round(viewport.radius / 10.0));
-            int snappedCenterX = floorTo(viewport.centerX, centerSnap);
-            int snappedCenterZ = floorTo(viewport.centerZ, centerSnap);
-            int snappedRadius = Math.max(40, ceilTo((int) Math.round(viewport.radius), radiusSnap));
-            String key = baseKey + "|" + snappedCenterX + "|" + snappedCenterZ + "|" + snappedRadius;
-            if (cached != null && key.equals(cachedImageKey)) {
+            if (key.equals(tileSourceKey)) {
                 return;
             }
-            RenderFrame frame = mapFrameCache.get(key);
-            if (frame != null) {
-                cached = frame.image();
-                cachedW = frame.width();
-                cachedH = frame.height();
-                cachedCenterX = frame.centerX();
-                cachedCenterZ = frame.centerZ();
-                cachedRadius = frame.radius();
-                cachedImageBaseKey = frame.baseKey();
-                cachedImageKey = key;
-                return;
-            }
-            if (cached != null && baseKey.equals(cachedImageBaseKey) && cachedW == w && cachedH == h) {
-                double dx = Math.abs(viewport.centerX - cachedCenterX);
-                double dz = Math.abs(viewport.centerZ - cachedCenterZ);
-                double ratio = viewport.radius / Math.max(1.0, cachedRadius);
-                if (dx < viewport.radius * 0.35 && dz < viewport.radius * 0.35 && ratio > 0.72 && ratio < 1.38) {
-                    return;
+            tileSourceKey = key;
+            long tileSeed = seed;
+            boolean tileCubiomes = useCubiomesMap;
+            String tileVersion = mcVersion;
+            String tileDimension = dimension;
+            // Only cubiomes output is persisted; a rebuilt bridge changes the fingerprint and starts a fresh tile set.
+            String diskKey = tileSeed + "|" + tileVersion + "|" + tileDimension + "|" + fileFingerprint(DEFAULT_CUBIOMES_DLL)
+                    + "|" + fileFingerprint(DEFAULT_CUBIOMES_BRIDGE);
+            tileRenderer.setSource(key, (centerX, centerZ, radius, size, out) -> {
+                if (tileCubiomes && tileDiskCache.read(diskKey, centerX, centerZ, radius, size, out)) {
+                    return true;
                 }
-            }
-            if (interactionDebounceTimer.isRunning()) {
-                requestedImageKey = key;
-                return;
-            }
-            requestedImageKey = key;
-            if (imageRenderInFlight) {
-                return;
-            }
-            imageRenderInFlight = true;
-            final String renderKey = key;
-            final String renderBaseKey = baseKey;
-            final int rw = w;
-            final int rh = h;
-            final int rcx = snappedCenterX;
-            final int rcz = snappedCenterZ;
-            final int rr = snappedRadius;
-            SwingWorker<BufferedImage, Void> worker = new SwingWorker<>() {
-                @Override
-                protected BufferedImage doInBackground() {
-                    BufferedImage img = new BufferedImage(rw, rh, BufferedImage.TYPE_INT_ARGB);
-                    boolean rendered = false;
-                    if (useCubiomesMap && cubiomesBridge.ensureInitialized(DEFAULT_CUBIOMES_BRIDGE, DEFAULT_CUBIOMES_DLL)) {
-                        int[] argb = cubiomesBridge.renderMap(seed, mcVersion, dimension, rcx, rcz, rr, rw, rh);
-                        if (argb != null && argb.length == rw * rh) {
-                            img.setRGB(0, 0, rw, rh, argb, 0, rw);
-                            rendered = true;
-                        }
-                    }
-                    if (!rendered) {
-                        for (int y = 0; y < rh; y++) {
-                            for (int x = 0; x < rw; x++) {
-                                int worldX = (x - rw / 2) * 24;
-                                int worldZ = (y - rh / 2) * 24;
-                                long n = hash(seed, worldX, worldZ);
-                                int t = (int) (Math.abs(n) & 255);
-                                img.setRGB(x, y, colorFor(t).getRGB());
-                            }
-                        }
-                    }
-                    return img;
+                if (tileCubiomes
+                        && cubiomesBridge.ensureInitialized(DEFAULT_CUBIOMES_BRIDGE, DEFAULT_CUBIOMES_DLL)
+                        && cubiomesBridge.renderMapInto(tileSeed, tileVersion, tileDimension, centerX, centerZ, radius, size, size, out)) {
+                    tileDiskCache.write(diskKey, centerX, centerZ, radius, size, out);
+                    return true;
                 }
-
-                @Override
-                protected void done() {
-                    try {
-                        BufferedImage img = get();
-                        if (renderKey.equals(requestedImageKey)) {
-                            cached = img;
-                            cachedW = rw;
-                            cachedH = rh;
-                            cachedCenterX = rcx;
-                            cachedCenterZ = rcz;
-                            cachedRadius = rr;
-                            cachedImageBaseKey = renderBaseKey;
-                            cachedImageKey = renderKey;
-                            mapFrameCache.put(renderKey, new RenderFrame(img, rw, rh, rcx, rcz, rr, renderBaseKey));
-                        }
-                    } catch (Exception ignored) {
-                    } finally {
-                        imageRenderInFlight = false;
-                        repaint();
+                double blocksPerPixel = (radius * 2.0) / size;
+                for (int y = 0; y < size; y++) {
+                    for (int x = 0; x < size; x++) {
+                        int worldX = floorTo((int) Math.floor(centerX - radius + (x + 0.5) * blocksPerPixel), 24);
+                        int worldZ = floorTo((int) Math.floor(centerZ - radius + (y + 0.5) * blocksPerPixel), 24);
+                        long n = hash(tileSeed, worldX, worldZ);
+                        out[y * size + x] = colorFor((int) (Math.abs(n) & 255)).getRGB();
                     }
                 }
-            };
-            worker.execute();
+                return true;
+            });
+        }
+
+        private static String fileFingerprint(String name) {
+            Path file = Path.of(name);
+            try {
+                return name + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+            } catch (Exception e) {
+                return name;
+            }
         }
 
         private void drawCubiomesStructures(Graphics2D g2, Viewport viewport, int w, int h) {
@@ -2763,75 +2768,6 @@ public final class LootProbeGui {
             return draggingPan || draggingScanRadius || interactionDebounceTimer.isRunning();
         }
 
-        private record RenderFrame(
-                BufferedImage image,
-                int width,
-                int height,
-                int centerX,
-                int centerZ,
-                double radius,
-                String baseKey
-        ) {
-        }
-
-        private void drawCachedImage(Graphics2D g2, int w, int h, Viewport viewport) {
-            if (cached == null) {
-                g2.setColor(Color.BLACK);
-                g2.fillRect(0, 0, w, h);
-                return;
-            }
-            if (Math.abs(cachedRadius) < 0.0001) {
-                g2.drawImage(cached, 0, 0, null);
-                return;
-            }
-            int cw = cached.getWidth();
-            int ch = cached.getHeight();
-            double worldLeft = viewport.centerX - viewport.radius;
-            double worldRight = viewport.centerX + viewport.radius;
-            double worldTop = viewport.centerZ - viewport.radius;
-            double worldBottom = viewport.centerZ + viewport.radius;
-
-            double cachedLeft = cachedCenterX - cachedRadius;
-            double cachedTop = cachedCenterZ - cachedRadius;
-            double cachedSpan = cachedRadius * 2.0;
-            if (cachedSpan <= 0.0001) {
-                g2.drawImage(cached, 0, 0, w, h, null);
-                return;
-            }
-
-            double srcX1f = ((worldLeft - cachedLeft) / cachedSpan) * cw;
-            double srcX2f = ((worldRight - cachedLeft) / cachedSpan) * cw;
-            double srcY1f = ((worldTop - cachedTop) / cachedSpan) * ch;
-            double srcY2f = ((worldBottom - cachedTop) / cachedSpan) * ch;
-
-            double spanX = srcX2f - srcX1f;
-            double spanY = srcY2f - srcY1f;
-            if (Math.abs(spanX) < 0.0001 || Math.abs(spanY) < 0.0001) {
-                g2.drawImage(cached, 0, 0, w, h, null);
-                return;
-            }
-
-            int srcX1 = Math.max(0, (int) Math.floor(srcX1f));
-            int srcX2 = Math.min(cw, (int) Math.ceil(srcX2f));
-            int srcY1 = Math.max(0, (int) Math.floor(srcY1f));
-            int srcY2 = Math.min(ch, (int) Math.ceil(srcY2f));
-
-            if (srcX2 <= srcX1 || srcY2 <= srcY1) {
-                g2.setColor(Color.BLACK);
-                g2.fillRect(0, 0, w, h);
-                return;
-            }
-
-            int dx1 = (int) Math.round(((srcX1 - srcX1f) / spanX) * w);
-            int dx2 = (int) Math.round(((srcX2 - srcX1f) / spanX) * w);
-            int dy1 = (int) Math.round(((srcY1 - srcY1f) / spanY) * h);
-            int dy2 = (int) Math.round(((srcY2 - srcY1f) / spanY) * h);
-
-            g2.setColor(Color.BLACK);
-            g2.fillRect(0, 0, w, h);
-            g2.drawImage(cached, dx1, dy1, dx2, dy2, srcX1, srcY1, srcX2, srcY2, null);
-        }
-
         private static long hash(long seed, int x, int z) {
             long v = seed ^ (x * 341873128712L) ^ (z * 132897987541L);
             v ^= (v >>> 33);
@@ -1,9 +1,16 @@
 package dev.lootprobe;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -13,15 +20,56 @@ public final class LootSampler {
     private static final int ORIGIN_Z = 0;
     private static final Pattern ID_PATTERN = Pattern.compile(":\\s*\"([^\"]+)\"");
     private static final Pattern COUNT_PATTERN = Pattern.compile(":\\s*([0-9]+)");
+    // lootprobe_sample rolls on the main thread in per-tick slices; the file appears once the job is done.
+    private static final int PLUGIN_SAMPLE_TIMEOUT_SEC = 180;
 
     private LootSampler() {
     }
 
-    public static List<LootSampleSet> sampleAll(RconClient rcon, List<String> lootTables, int samplesPerTable, String dimension) throws IOException {
+    public static List<LootSampleSet> sampleAll(RconClient rcon, List<String> lootTables, int samplesPerTable, String dimension)
+            throws IOException, InterruptedException {
+        return sampleAll(rcon, null, lootTables, samplesPerTable, dimension);
+    }
+
+    /**
+     * Rolls each table with the plugin's {@code lootprobe_sample} command when {@code runDir} is known,
+     * falling back to spawning and reading item entities over RCON.
+     */
+    public static List<LootSampleSet> sampleAll(RconClient rcon, Path runDir, List<String> lootTables, int samplesPerTable, String dimension)
+            throws IOException, InterruptedException {
         List<LootSampleSet> out = new ArrayList<>();
-        primeArea(rcon, dimension);
+        boolean pluginAvailable = runDir != null;
+        boolean primed = false;
         for (String table : lootTables) {
-            LootSampleSet set = new LootSampleSet();
+            LootSampleSet set = null;
+            if (pluginAvailable) {
+                Path outFile = runDir.resolve("plugins").resolve("LootProbePaperPlugin").resolve("out")
+                        .resolve("sample-" + Instant.now().toEpochMilli() + ".json");
+                Files.deleteIfExists(outFile);
+                String commandSuffix = dimension + " " + table + " " + samplesPerTable + " out/" + outFile.getFileName();
+                String response = rcon.command("lootprobe_sample " + commandSuffix);
+                if (looksLikeCommandError(response)) {
+                    response = rcon.command("lootprobepaperplugin:lootprobe_sample " + commandSuffix);
+                }
+                if (looksLikeCommandError(response)) {
+                    // Older plugin without lootprobe_sample.
+                    pluginAvailable = false;
+                } else {
+                    if (response.contains("job=")) {
+                        waitForFile(outFile, PLUGIN_SAMPLE_TIMEOUT_SEC);
+                    }
+                    set = readPluginSamples(outFile, table, dimension);
+                }
+            }
+            if (set != null) {
+                out.add(set);
+                continue;
+            }
+            if (!primed) {
+                primeArea(rcon, dimension);
+                primed = true;
+            }
+            set = new LootSampleSet();
             set.lootTableId = table;
             set.dimension = dimension;
             for (int i = 0; i < samplesPerTable; i++) {
@@ -29,14 +77,141 @@ public final class LootSampler {
             }
             out.add(set);
         }
-        cleanup(rcon, dimension);
+        if (primed) {
+            cleanup(rcon, dimension);
+        }
+        return out;
+    }
+
+    /**
+     * Rolls each table inside the plugin until drop probabilities converge to {@code targetHalfWidth}
+     * (95% confidence interval half-width) or {@code maxSamples} rolls, and returns per-item distributions.
+     */
+    public static List<LootDistribution> analyzeAll(
+            RconClient rcon,
+            Path runDir,
+            List<String> lootTables,
+            String dimension,
+            long maxSamples,
+            double targetHalfWidth,
+            int timeoutSec
+    ) throws IOException, InterruptedException {
+        List<LootDistribution> out = new ArrayList<>();
+        Path outDir = runDir.resolve("plugins").resolve("LootProbePaperPlugin").resolve("out");
+        for (String table : lootTables) {
+            Path outFile = outDir.resolve("sample-stats-" + Instant.now().toEpochMilli() + ".json");
+            Files.deleteIfExists(outFile);
+            String commandSuffix = dimension + " " + table + " " + maxSamples + " " + targetHalfWidth + " out/" + outFile.getFileName();
+            String response = rcon.command("lootprobe_sample_stats " + commandSuffix);
+            if (looksLikeCommandError(response)) {
+                response = rcon.command("lootprobepaperplugin:lootprobe_sample_stats " + commandSuffix);
+            }
+            LootDistribution distribution = new LootDistribution();
+            distribution.lootTableId = table;
+            distribution.dimension = dimension;
+            out.add(distribution);
+            if (!response.contains("job=")) {
+                distribution.error = "lootprobe_sample_stats unavailable: " + response;
+                continue;
+            }
+            waitForFile(outFile, timeoutSec);
+            if (!Files.exists(outFile)) {
+                distribution.error = "timed out after " + timeoutSec + "s";
+                continue;
+            }
+            PluginSampleStatsDump dump;
+            try {
+                dump = new ObjectMapper().readValue(outFile.toFile(), PluginSampleStatsDump.class);
+            } finally {
+                Files.deleteIfExists(outFile);
+            }
+            fillDistribution(distribution, dump);
+        }
         return out;
     }
 
+    private static void waitForFile(Path file, int timeoutSec) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutSec * 1000L;
+        while (!Files.exists(file) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(250);
+        }
+    }
+
+    private static void fillDistribution(LootDistribution distribution, PluginSampleStatsDump dump) {
+        distribution.samples = dump.samples;
+        distribution.baseSeed = dump.baseSeed;
+        distribution.targetHalfWidth = dump.targetHalfWidth;
+        distribution.converged = dump.converged;
+        distribution.durationMs = dump.tookMs;
+        distribution.error = dump.error;
+        long n = Math.max(1, dump.samples);
+        for (PluginItemStats stats : dump.items) {
+            ItemDistribution item = new ItemDistribution();
+            item.itemId = stats.itemId;
+            item.probability = (double) stats.presentRolls / n;
+            double[] interval = wilsonInterval(stats.presentRolls, n);
+            item.probabilityLow = interval[0];
+            item.probabilityHigh = interval[1];
+            item.expectedCount = (double) stats.totalCount / n;
+            item.meanCountWhenPresent = stats.presentRolls > 0 ? (double) stats.totalCount / stats.presentRolls : 0.0;
+            item.countHistogram.put("0", dump.samples - stats.presentRolls);
+            item.countHistogram.putAll(stats.countHistogram);
+            for (Map.Entry<String, Long> e : stats.enchantments.entrySet()) {
+                item.enchantmentFrequency.put(e.getKey(), stats.stacks > 0 ? (double) e.getValue() / stats.stacks : 0.0);
+            }
+            distribution.items.add(item);
+        }
+        distribution.items.sort((a, b) -> Double.compare(b.probability, a.probability));
+    }
+
+    private static double[] wilsonInterval(long successes, long n) {
+        double z = 1.96;
+        double p = (double) successes / n;
+        double denominator = 1.0 + z * z / n;
+        double center = (p + z * z / (2.0 * n)) / denominator;
+        double margin = z * Math.sqrt(p * (1.0 - p) / n + z * z / (4.0 * n * n)) / denominator;
+        return new double[]{Math.max(0.0, center - margin), Math.min(1.0, center + margin)};
+    }
+
+    private static LootSampleSet readPluginSamples(Path outFile, String table, String dimension) throws IOException {
+        if (!Files.exists(outFile)) {
+            // The plugin rejected this table; it is rolled with item entities instead.
+            return null;
+        }
+        PluginSampleDump dump;
+        try {
+            dump = new ObjectMapper().readValue(outFile.toFile(), PluginSampleDump.class);
+        } finally {
+            Files.deleteIfExists(outFile);
+        }
+        LootSampleSet set = new LootSampleSet();
+        set.lootTableId = table;
+        set.dimension = dimension;
+        for (PluginLootSample rolled : dump.samples) {
+            LootSample sample = new LootSample();
+            sample.seed = rolled.seed;
+            sample.items = rolled.items;
+            for (ItemStackData stack : rolled.items) {
+                sample.itemNbt.add(stack.nbt);
+            }
+            if (sample.itemNbt.isEmpty()) {
+                sample.note = "No items rolled.";
+            }
+            set.samples.add(sample);
+        }
+        if (dump.error != null && set.samples.isEmpty()) {
+            LootSample sample = new LootSample();
+            sample.note = "Table requires context (block/entity/tool) not available to the plugin: " + dump.error;
+            set.samples.add(sample);
+        }
+        return set;
+    }
+
     private static LootSample sampleOne(RconClient rcon, String table, String dimension) throws IOException {
         LootSample sample = new LootSample();
         RollResult roll = rollTable(rcon, table, dimension, null);
         sample.rawLootCommandResponse = roll.rawCommandResponse;
+        sample.items = roll.items;
         for (ItemStackData stack : roll.items) {
             sample.itemNbt.add(stack.rawItemNbt);
         }
@@ -64,16 +239,17 @@ public final class LootSampler {
                 + " run tag @e[type=item,distance=..8] add lootprobe_item");
 
         int slot = 0;
+        String nearestItem = "execute in " + dimension + " positioned " + ORIGIN_X + " " + ORIGIN_Y + " " + ORIGIN_Z
+                + " run data get entity @e[type=item,tag=lootprobe_item,sort=nearest,limit=1] ";
         while (true) {
-            String full = rcon.command("execute in " + dimension + " positioned " + ORIGIN_X + " " + ORIGIN_Y + " " + ORIGIN_Z
-                    + " run data get entity @e[type=item,tag=lootprobe_item,sort=nearest,limit=1] Item");
+            // The three reads target the same entity and are sent together on a pipelined client.
+            List<String> reads = rcon.commandAll(List.of(nearestItem + "Item", nearestItem + "Item.id", nearestItem + "Item.count"));
+            String full = reads.get(0);
             if (full.contains("No entity was found")) {
                 break;
             }
-            String idOut = rcon.command("execute in " + dimension + " positioned " + ORIGIN_X + " " + ORIGIN_Y + " " + ORIGIN_Z
-                    + " run data get entity @e[type=item,tag=lootprobe_item,sort=nearest,limit=1] Item.id");
-            String countOut = rcon.command("execute in " + dimension + " positioned " + ORIGIN_X + " " + ORIGIN_Y + " " + ORIGIN_Z
-                    + " run data get entity @e[type=item,tag=lootprobe_item,sort=nearest,limit=1] Item.count");
+            String idOut = reads.get(1);
+            String countOut = reads.get(2);
             ItemStackData stack = new ItemStackData();
             stack.slot = slot++;
             stack.itemId = parseId(idOut);
@@ -121,7 +297,9 @@ public final class LootSampler {
     }
 
     public static final class LootSample {
+        public Long seed;
         public List<String> itemNbt = new ArrayList<>();
+        public List<ItemStackData> items = new ArrayList<>();
         public String note;
         public String rawLootCommandResponse;
     }
@@ -133,6 +311,62 @@ public final class LootSampler {
         public List<ItemStackData> items = new ArrayList<>();
     }
 
+    public static final class PluginSampleDump {
+        public String lootTable;
+        public String dimension;
+        public String error;
+        public List<PluginLootSample> samples = new ArrayList<>();
+    }
+
+    public static final class PluginLootSample {
+        public long seed;
+        public List<ItemStackData> items = new ArrayList<>();
+    }
+
+    public static final class LootDistribution {
+        public String lootTableId;
+        public String dimension;
+        public long samples;
+        public long baseSeed;
+        public double targetHalfWidth;
+        public boolean converged;
+        public long durationMs;
+        public String error;
+        public List<ItemDistribution> items = new ArrayList<>();
+    }
+
+    public static final class ItemDistribution {
+        public String itemId;
+        public double probability;
+        public double probabilityLow;
+        public double probabilityHigh;
+        public double expectedCount;
+        public double meanCountWhenPresent;
+        public Map<String, Long> countHistogram = new LinkedHashMap<>();
+        public Map<String, Double> enchantmentFrequency = new LinkedHashMap<>();
+    }
+
+    public static final class PluginSampleStatsDump {
+        public String lootTable;
+        public String dimension;
+        public long baseSeed;
+        public long samples;
+        public double targetHalfWidth;
+        public boolean converged;
+        public long tookMs;
+        public String error;
+        public List<PluginItemStats> items = new ArrayList<>();
+    }
+
+    public static final class PluginItemStats {
+        public String itemId;
+        public long presentRolls;
+        public long totalCount;
+        public long stacks;
+        public Map<String, Long> countHistogram = new LinkedHashMap<>();
+        public Map<String, Long> enchantments = new LinkedHashMap<>();
+    }
+
     public static final class ItemStackData {
         public int slot;
         public int count;
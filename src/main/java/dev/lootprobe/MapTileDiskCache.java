@@ -0,0 +1,234 @@
+package dev.lootprobe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Rendered map tiles kept on disk between sessions, one deflated RGB file per (source, zoom, tile). The directory is
+ * bounded by total size; the least recently used tiles are deleted first. Safe to call from several render threads.
+ */
+public final class MapTileDiskCache {
+    // Bump when the tile file layout or the renderer's colours change so stale tiles are not shown.
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x4C505431; // "LPT1"
+    private static final String EXTENSION = ".lpt";
+    // Evict down to this fraction of the limit so a full cache does not evict on every write.
+    private static final double EVICT_TO = 0.9;
+
+    private final Path root;
+    private final long maxBytes;
+    private final Map<Path, Long> sizes = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, String> sourceDirs = new LinkedHashMap<>();
+    private boolean loaded;
+    private long totalBytes;
+
+    public MapTileDiskCache(Path root, long maxBytes) {
+        this.root = root.toAbsolutePath();
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Fills {@code out} with the stored tile, or returns false when it is missing or unreadable.
+     */
+    public boolean read(String sourceKey, int centerX, int centerZ, int radius, int size, int[] out) {
+        Path file = tileFile(sourceKey, centerX, centerZ, radius);
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        byte[] rgb = new byte[size * size * 3];
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readInt() != size) {
+                throw new IOException("Unexpected tile header in " + file);
+            }
+            try (InputStream body = new InflaterInputStream(in)) {
+                if (body.readNBytes(rgb, 0, rgb.length) != rgb.length) {
+                    throw new IOException("Truncated tile " + file);
+                }
+            }
+        } catch (IOException e) {
+            forget(file);
+            return false;
+        }
+        for (int i = 0, p = 0; i < size * size; i++, p += 3) {
+            out[i] = ((rgb[p] & 0xFF) << 16) | ((rgb[p + 1] & 0xFF) << 8) | (rgb[p + 2] & 0xFF);
+        }
+        touch(file);
+        return true;
+    }
+
+    /**
+     * Stores a rendered tile. Failures are ignored; the tile is simply rendered again next time.
+     */
+    public void write(String sourceKey, int centerX, int centerZ, int radius, int size, int[] pixels) {
+        Path file = tileFile(sourceKey, centerX, centerZ, radius);
+        byte[] rgb = new byte[size * size * 3];
+        for (int i = 0, p = 0; i < size * size; i++, p += 3) {
+            int c = pixels[i];
+            rgb[p] = (byte) (c >> 16);
+            rgb[p + 1] = (byte) (c >> 8);
+            rgb[p + 2] = (byte) c;
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(rgb.length / 4);
+        try (DataOutputStream out = new DataOutputStream(encoded)) {
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (OutputStream body = new DeflaterOutputStream(out, deflater)) {
+                body.write(rgb);
+            } finally {
+                deflater.end();
+            }
+        } catch (IOException e) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + "." + Thread.currentThread().threadId() + ".tmp");
+            Files.write(tmp, encoded.toByteArray());
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            return;
+        }
+        stored(file, encoded.size());
+    }
+
+    public synchronized long sizeBytes() {
+        ensureLoaded();
+        return totalBytes;
+    }
+
+    private Path tileFile(String sourceKey, int centerX, int centerZ, int radius) {
+        return root.resolve(sourceDir(sourceKey))
+                .resolve("r" + radius)
+                .resolve(centerX + "_" + centerZ + EXTENSION);
+    }
+
+    private synchronized String sourceDir(String sourceKey) {
+        return sourceDirs.computeIfAbsent(sourceKey, MapTileDiskCache::hashKey);
+    }
+
+    private static String hashKey(String sourceKey) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+        byte[] hash = digest.digest(("format=" + FORMAT_VERSION + "\n" + sourceKey).getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            hex.append(String.format("%02x", hash[i]));
+        }
+        return hex.toString();
+    }
+
+    private void touch(Path file) {
+        synchronized (this) {
+            ensureLoaded();
+            sizes.get(file);
+        }
+        // The modification time carries recency across sessions.
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private synchronized void stored(Path file, long bytes) {
+        ensureLoaded();
+        Long previous = sizes.put(file, bytes);
+        totalBytes += bytes - (previous != null ? previous : 0L);
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        long target = (long) (maxBytes * EVICT_TO);
+        Iterator<Map.Entry<Path, Long>> it = sizes.entrySet().iterator();
+        while (totalBytes > target && it.hasNext()) {
+            Map.Entry<Path, Long> eldest = it.next();
+            if (eldest.getKey().equals(file)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(eldest.getKey());
+            } catch (IOException ignored) {
+            }
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private synchronized void forget(Path file) {
+        ensureLoaded();
+        Long previous = sizes.remove(file);
+        if (previous != null) {
+            totalBytes -= previous;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private record StoredTile(Path file, long size, long modified) {
+    }
+
+    /**
+     * Indexes what earlier sessions left behind, oldest first, on first use.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<StoredTile> found = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.forEach(path -> {
+                String name = path.getFileName().toString();
+                try {
+                    if (name.endsWith(".tmp")) {
+                        Files.deleteIfExists(path);
+                    } else if (name.endsWith(EXTENSION)) {
+                        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                        found.add(new StoredTile(path, attrs.size(), attrs.lastModifiedTime().toMillis()));
+                    }
+                } catch (IOException ignored) {
+                }
+            });
+        } catch (IOException ignored) {
+        }
+        found.sort(Comparator.comparingLong(StoredTile::modified));
+        for (StoredTile tile : found) {
+            sizes.put(tile.file(), tile.size());
+            totalBytes += tile.size();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package dev.lootprobe;
+
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slippy-map style tile pyramid for the map preview. Level {@code L} tiles are {@value #TILE_PX} pixels square and cover
+ * {@code TILE_PX << L} blocks, so panning and zooming only render tiles that were not seen before. Missing tiles are
+ * drawn from the nearest cached coarser level while a small background pool renders them, newest request first.
+ */
+public final class MapTileRenderer {
+    public static final int TILE_PX = 256;
+    private static final int MAX_LEVEL = 14;
+    private static final int FALLBACK_LEVELS = 6;
+    private static final int PREFETCH_COARSER_LEVELS = 2;
+    private static final int MAX_CACHED_TILES = 160;
+    private static final int MAX_SPARE_TILES = 32;
+
+    public interface TileSource {
+        /**
+         * Writes {@code size x size} RGB pixels covering {@code centerX +- radius} by {@code centerZ +- radius} into
+         * {@code out}, the tile's raster. Returns false when nothing was rendered.
+         */
+        boolean render(int centerX, int centerZ, int radius, int size, int[] out);
+    }
+
+    private record TileKey(int generation, int level, int tx, int tz) {
+    }
+
+    private final Runnable onTileReady;
+    private final ThreadPoolExecutor pool;
+    private final Map<TileKey, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TileKey, BufferedImage> eldest) {
+            if (size() <= MAX_CACHED_TILES) {
+                return false;
+            }
+            recycle(eldest.getValue());
+            return true;
+        }
+    };
+    // Evicted tile images, reused so steady panning allocates no new rasters.
+    private final ConcurrentLinkedDeque<BufferedImage> spareTiles = new ConcurrentLinkedDeque<>();
+    private final Set<TileKey> pending = new HashSet<>();
+    private volatile Set<TileKey> wanted = Set.of();
+    private String sourceKey;
+    private TileSource source;
+    private int generation;
+
+    public MapTileRenderer(Runnable onTileReady) {
+        this.onTileReady = onTileReady;
+        // One core stays free for the event dispatch thread.
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        // LIFO queue: after a pan the newest exposed tiles matter most.
+        LinkedBlockingDeque<Runnable> queue = new LinkedBlockingDeque<>() {
+            @Override
+            public boolean offer(Runnable runnable) {
+                return offerFirst(runnable);
+            }
+        };
+        this.pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, queue, r -> {
+            Thread t = new Thread(r, "lootprobe-map-tile");
+            t.setDaemon(true);
+            return t;
+        });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Sets what tiles show. A different {@code key} (seed, version, dimension, renderer) drops every cached tile.
+     * Call on the event dispatch thread.
+     */
+    public void setSource(String key, TileSource source) {
+        if (key.equals(sourceKey)) {
+            this.source = source;
+            return;
+        }
+        sourceKey = key;
+        this.source = source;
+        generation++;
+        tiles.values().forEach(this::recycle);
+        tiles.clear();
+        pending.clear();
+        wanted = Set.of();
+    }
+
+    /**
+     * Draws the viewport {@code centerX +- radius}, {@code centerZ +- radius} stretched over {@code w x h} pixels and
+     * queues any missing tiles. Call on the event dispatch thread.
+     */
+    public int draw(Graphics2D g2, int w, int h, int centerX, int centerZ, double radius) {
+        g2.setColor(Color.BLACK);
+        g2.fillRect(0, 0, w, h);
+        if (source == null || w <= 0 || h <= 0 || radius <= 0) {
+            return 0;
+        }
+        double blocksPerPixel = (radius * 2.0) / Math.max(w, h);
+        int level = (int) Math.round(Math.log(Math.max(1.0, blocksPerPixel)) / Math.log(2));
+        level = Math.max(0, Math.min(MAX_LEVEL, level));
+        long span = (long) TILE_PX << level;
+        double left = centerX - radius;
+        double top = centerZ - radius;
+        int fromX = (int) Math.floorDiv((long) Math.floor(left), span);
+        int toX = (int) Math.floorDiv((long) Math.floor(centerX + radius), span);
+        int fromZ = (int) Math.floorDiv((long) Math.floor(top), span);
+        int toZ = (int) Math.floorDiv((long) Math.floor(centerZ + radius), span);
+        double scaleX = w / (radius * 2.0);
+        double scaleZ = h / (radius * 2.0);
+
+        Set<TileKey> visible = new HashSet<>();
+        Set<TileKey> missing = new LinkedHashSet<>();
+        int drawn = 0;
+        for (int tz = fromZ; tz <= toZ; tz++) {
+            for (int tx = fromX; tx <= toX; tx++) {
+                TileKey key = new TileKey(generation, level, tx, tz);
+                visible.add(key);
+                int dx1 = (int) Math.floor((tx * span - left) * scaleX);
+                int dx2 = (int) Math.floor(((tx + 1) * span - left) * scaleX);
+                int dz1 = (int) Math.floor((tz * span - top) * scaleZ);
+                int dz2 = (int) Math.floor(((tz + 1) * span - top) * scaleZ);
+                BufferedImage image = tiles.get(key);
+                if (image != null) {
+                    g2.drawImage(image, dx1, dz1, dx2, dz2, 0, 0, TILE_PX, TILE_PX, null);
+                    drawn++;
+                    continue;
+                }
+                missing.add(key);
+                drawFromCoarser(g2, level, tx, tz, dx1, dz1, dx2, dz2);
+            }
+        }
+        // Coarser levels are cheap and back the fallback while the visible level fills in.
+        for (int up = 1; up <= PREFETCH_COARSER_LEVELS && level + up <= MAX_LEVEL; up++) {
+            for (int tz = fromZ >> up; tz <= toZ >> up; tz++) {
+                for (int tx = fromX >> up; tx <= toX >> up; tx++) {
+                    TileKey key = new TileKey(generation, level + up, tx, tz);
+                    visible.add(key);
+                    if (!tiles.containsKey(key)) {
+                        missing.add(key);
+                    }
+                }
+            }
+        }
+        wanted = visible;
+        for (TileKey key : missing) {
+            request(key);
+        }
+        return drawn;
+    }
+
+    private void drawFromCoarser(Graphics2D g2, int level, int tx, int tz, int dx1, int dz1, int dx2, int dz2) {
+        for (int up = 1; up <= FALLBACK_LEVELS && level + up <= MAX_LEVEL; up++) {
+            BufferedImage parent = tiles.get(new TileKey(generation, level + up, tx >> up, tz >> up));
+            if (parent == null) {
+                continue;
+            }
+            int sub = TILE_PX >> up;
+            int sx = (tx - ((tx >> up) << up)) * sub;
+            int sz = (tz - ((tz >> up) << up)) * sub;
+            g2.drawImage(parent, dx1, dz1, dx2, dz2, sx, sz, sx + sub, sz + sub, null);
+            return;
+        }
+    }
+
+    private void request(TileKey key) {
+        if (!pending.add(key)) {
+            return;
+        }
+        TileSource renderSource = source;
+        pool.execute(() -> {
+            BufferedImage image = null;
+            if (wanted.contains(key)) {
+                long span = (long) TILE_PX << key.level();
+                int radius = (int) (span / 2);
+                int centerX = (int) (key.tx() * span + radius);
+                int centerZ = (int) (key.tz() * span + radius);
+                image = takeTileImage();
+                if (!renderSource.render(centerX, centerZ, radius, TILE_PX, pixels(image))) {
+                    recycle(image);
+                    image = null;
+                }
+            }
+            BufferedImage rendered = image;
+            SwingUtilities.invokeLater(() -> {
+                pending.remove(key);
+                if (rendered != null && key.generation() == generation) {
+                    tiles.put(key, rendered);
+                    onTileReady.run();
+                }
+            });
+        });
+    }
+
+    private BufferedImage takeTileImage() {
+        BufferedImage image = spareTiles.pollFirst();
+        return image != null ? image : new BufferedImage(TILE_PX, TILE_PX, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private void recycle(BufferedImage image) {
+        if (image != null && spareTiles.size() < MAX_SPARE_TILES) {
+            spareTiles.addFirst(image);
+        }
+    }
+
+    /**
+     * The raster's backing array; sources write pixels straight into it instead of going through setRGB.
+     */
+    private static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    public int cachedTileCount() {
+        return tiles.size();
+    }
+
+    public int pendingTileCount() {
+        return pending.size();
+    }
+
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -24,6 +24,7 @@ public final class MinecraftServerRunner implements AutoCloseable {
     private final Duration startupTimeout;
     private final Path pluginJar;
     private final String primaryDimension;
+    private final int serverPort;
     private final Consumer<String> logConsumer;
 
     private Process process;
@@ -69,6 +70,36 @@ public final class MinecraftServerRunner implements AutoCloseable {
             Path pluginJar,
             String primaryDimension,
             Consumer<String> logConsumer
+    ) {
+        this(
+                javaBin,
+                serverJar,
+                runDir,
+                seed,
+                datapacks,
+                rconPort,
+                rconPassword,
+                startupTimeout,
+                pluginJar,
+                primaryDimension,
+                0,
+                logConsumer
+        );
+    }
+
+    public MinecraftServerRunner(
+            String javaBin,
+            Path serverJar,
+            Path runDir,
+            long seed,
+            List<Path> datapacks,
+            int rconPort,
+            String rconPassword,
+            Duration startupTimeout,
+            Path pluginJar,
+            String primaryDimension,
+            int serverPort,
+            Consumer<String> logConsumer
     ) {
         this.javaBin = javaBin;
         this.serverJar = serverJar;
@@ -80,6 +111,7 @@ public final class MinecraftServerRunner implements AutoCloseable {
         this.startupTimeout = startupTimeout;
         this.pluginJar = pluginJar;
         this.primaryDimension = primaryDimension;
+        this.serverPort = serverPort;
         this.logConsumer = logConsumer;
     }
 
@@ -156,6 +188,7 @@ public final class MinecraftServerRunner implements AutoCloseable {
                 "pvp=false",
                 "rcon.password=" + rconPassword,
                 "rcon.port=" + rconPort,
+                "server-port=" + (serverPort > 0 ? serverPort : 25565),
                 "simulation-distance=2",
                 "spawn-animals=false",
                 "spawn-monsters=false",
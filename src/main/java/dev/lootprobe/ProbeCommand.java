@@ -38,6 +38,21 @@ public final class ProbeCommand implements Callable<Integer> {
     @Option(names = "--samples", defaultValue = "3", description = "Sample runs for each loot table")
     private int samples;
 
+    @Option(
+            names = "--loot-stats",
+            defaultValue = "false",
+            fallbackValue = "true",
+            arity = "0..1",
+            description = "Roll each --loot-table in the plugin until drop probabilities converge and report per-item distributions"
+    )
+    private boolean lootStats;
+
+    @Option(names = "--loot-stats-max-samples", defaultValue = "1000000", description = "Upper bound on rolls per table in --loot-stats mode")
+    private long lootStatsMaxSamples;
+
+    @Option(names = "--loot-stats-ci", defaultValue = "0.001", description = "Stop once every item's 95% confidence interval half-width on drop probability is at most this")
+    private double lootStatsHalfWidth;
+
     @Option(names = "--java-bin", defaultValue = "java", description = "Java executable used to launch server")
     private String javaBin;
 
@@ -95,6 +110,18 @@ public final class ProbeCommand implements Callable<Integer> {
     @Option(names = "--extract-parallel-structures", defaultValue = "1", description = "Number of structure extraction jobs to run in parallel")
     private int extractParallelStructureJobs;
 
+    @Option(
+            names = "--extract-adaptive",
+            defaultValue = "false",
+            fallbackValue = "true",
+            arity = "0..1",
+            description = "Adjust parallel structures and chunk count during extraction from the server's tick time and chunk-load latency, starting from the configured values"
+    )
+    private boolean extractAdaptive;
+
+    @Option(names = "--extract-tick-budget-ms", defaultValue = "10", description = "Server main-thread time per tick the plugin may spend reading chest contents of loaded chunks; the rest waits for later ticks")
+    private int extractTickBudgetMs;
+
     @Option(names = "--extract-timeout-sec", defaultValue = "90", description = "Per-structure extraction timeout in seconds (slow ones are skipped)")
     private int extractTimeoutSec;
 
@@ -110,6 +137,66 @@ public final class ProbeCommand implements Callable<Integer> {
     @Option(names = "--ultra-lean", defaultValue = "true", description = "Aggressively disable non-essential gameplay systems while probing")
     private boolean ultraLean;
 
+    @Option(
+            names = "--stream-output",
+            defaultValue = "false",
+            fallbackValue = "true",
+            arity = "0..1",
+            description = "In scan mode, journal each structure to <output>.structures.ndjson as it finishes instead of holding all results in memory"
+    )
+    private boolean streamOutput;
+
+    @Option(
+            names = "--world-template-cache",
+            defaultValue = "false",
+            fallbackValue = "true",
+            arity = "0..1",
+            description = "Reuse a snapshot of the generated world for the same server jar, seed and datapacks (stored under .lootprobe-cache/worlds)"
+    )
+    private boolean worldTemplateCache;
+
+    @Option(
+            names = "--extract-cache",
+            defaultValue = "true",
+            fallbackValue = "true",
+            arity = "0..1",
+            description = "Reuse chest data extracted by earlier scans of the same seed, version and datapacks (stored under .lootprobe-cache/extract)"
+    )
+    private boolean extractCache;
+
+    @Option(names = "--rcon-pipeline-depth", defaultValue = "1", description = "RCON commands kept in flight on one connection (default 1, no pipelining; higher values are experimental)")
+    private int rconPipelineDepth;
+
+    @Option(
+            names = "--rcon-lanes",
+            defaultValue = "true",
+            fallbackValue = "true",
+            arity = "0..1",
+            description = "Use separate RCON connections for discovery, extract submission and status polling"
+    )
+    private boolean rconLanes;
+
+    @Option(names = "--output-format", defaultValue = "json", description = "Result format: json, columnar (memory-mapped binary, opened by browse and the GUI) or both (columnar written next to the JSON as .lpcol)")
+    private String outputFormat;
+
+    @Option(names = "--scan-shards", defaultValue = "1", description = "Number of temporary servers to split scan extraction across (each needs ~2 GB RAM)")
+    private int scanShards;
+
+    @Option(
+            names = "--cubiomes-discovery",
+            defaultValue = "true",
+            fallbackValue = "true",
+            arity = "0..1",
+            description = "In scan mode, enumerate vanilla structure starts with Cubiomes instead of sampled /locate (falls back when the bridge is unavailable)"
+    )
+    private boolean cubiomesDiscovery;
+
+    @Option(names = "--cubiomes-bridge", defaultValue = "cubiomes_bridge.dll", description = "Cubiomes bridge library path used for structure discovery")
+    private Path cubiomesBridgePath;
+
+    @Option(names = "--cubiomes-lib", defaultValue = "cubiomes.dll", description = "Cubiomes library path loaded by the bridge")
+    private Path cubiomesLibraryPath;
+
     @Override
     public Integer call() throws Exception {
         ProbeConfig config = new ProbeConfig();
@@ -128,9 +215,13 @@ public final class ProbeCommand implements Callable<Integer> {
         config.lootTables = new ArrayList<>(lootTables);
         config.lootDimension = lootDimension;
         config.samples = samples;
+        config.lootStats = lootStats;
+        config.lootStatsMaxSamples = lootStatsMaxSamples;
+        config.lootStatsHalfWidth = lootStatsHalfWidth;
         config.javaBin = javaBin;
         config.workDir = workDir;
         config.output = output;
+        config.outputFormat = outputFormat;
         config.startupTimeoutSec = startupTimeoutSec;
         config.scanCenterX = scanCenterX;
         config.scanCenterZ = scanCenterZ;
@@ -143,11 +234,22 @@ public final class ProbeCommand implements Callable<Integer> {
         config.extractParallelChunks = extractParallelChunks;
         config.extractParallelChunkCount = extractParallelChunkCount;
         config.extractParallelStructureJobs = extractParallelStructureJobs;
+        config.extractAdaptive = extractAdaptive;
+        config.extractTickBudgetMs = extractTickBudgetMs;
         config.extractTimeoutSec = extractTimeoutSec;
         config.extractStartCommandTimeoutMs = extractStartTimeoutMs;
         config.extractStatusReadTimeoutMs = extractStatusTimeoutMs;
         config.maxStructures = maxStructures;
         config.ultraLean = ultraLean;
+        config.streamOutput = streamOutput;
+        config.scanShards = scanShards;
+        config.worldTemplateCache = worldTemplateCache;
+        config.extractCache = extractCache;
+        config.rconPipelineDepth = rconPipelineDepth;
+        config.rconLanes = rconLanes;
+        config.cubiomesDiscovery = cubiomesDiscovery;
+        config.cubiomesBridgePath = cubiomesBridgePath;
+        config.cubiomesLibraryPath = cubiomesLibraryPath;
 
         ProbeRunner runner = new ProbeRunner();
         runner.run(config, new ProbeListener() {
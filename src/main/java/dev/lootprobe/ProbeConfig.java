@@ -16,9 +16,13 @@ public final class ProbeConfig {
     public List<String> lootTables = new ArrayList<>();
     public String lootDimension = "minecraft:overworld";
     public int samples = 3;
+    public boolean lootStats = false;
+    public long lootStatsMaxSamples = 1_000_000L;
+    public double lootStatsHalfWidth = 0.001;
     public String javaBin = "java";
     public Path workDir;
     public Path output = Path.of("probe-result.json");
+    public String outputFormat = "json";
     public int startupTimeoutSec = 180;
     public Integer scanCenterX;
     public Integer scanCenterZ;
@@ -31,12 +35,23 @@ public final class ProbeConfig {
     public boolean extractParallelChunks = true;
     public int extractParallelChunkCount = 4;
     public int extractParallelStructureJobs = 1;
+    public boolean extractAdaptive = false;
+    public int extractTickBudgetMs = 10;
     public int extractTimeoutSec = 90;
     public int extractStartCommandTimeoutMs = 8_000;
     public int extractStatusReadTimeoutMs = 12_000;
     public Integer maxStructures;
     public boolean ultraLean = true;
     public boolean reuseServerIfPossible = false;
+    public boolean streamOutput = false;
+    public int scanShards = 1;
+    public boolean worldTemplateCache = false;
+    public boolean extractCache = true;
+    public int rconPipelineDepth = RconClient.DEFAULT_PIPELINE_DEPTH;
+    public boolean rconLanes = true;
+    public boolean cubiomesDiscovery = true;
+    public Path cubiomesBridgePath = Path.of("cubiomes_bridge.dll");
+    public Path cubiomesLibraryPath = Path.of("cubiomes.dll");
     public List<StructureTarget> structureTargets = new ArrayList<>();
 
     public boolean isScanMode() {
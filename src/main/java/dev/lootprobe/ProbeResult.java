@@ -16,6 +16,7 @@ public final class ProbeResult {
     public List<String> datapacks = new ArrayList<>();
     public List<StructureLocator.StructureLocation> structures = new ArrayList<>();
     public List<LootSampler.LootSampleSet> lootSamples = new ArrayList<>();
+    public List<LootSampler.LootDistribution> lootDistributions = new ArrayList<>();
     public WorldChestScanner.ScanReport regionScan;
     public DatapackInspector.DatapackInfluence datapackInfluence;
 }
@@ -1,23 +1,37 @@
 package dev.lootprobe;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.security.MessageDigest;
 import java.nio.charset.StandardCharsets;
 
 public final class ProbeRunner {
     private static final Object REUSE_LOCK = new Object();
+    private static final int MAX_SCAN_SHARDS = 16;
     private static CachedServer cachedServer;
 
     public ProbeResult run(ProbeConfig config, ProbeListener listener) throws Exception {
@@ -49,6 +63,7 @@ public final class ProbeRunner {
         boolean allowReuse = config.reuseServerIfPossible && scanMode;
 
         ServerSession session = null;
+        StructureJournal structureJournal = null;
         try {
             if (allowReuse) {
                 session = acquireReusableSession(config, sink, jar, pluginJarToLoad);
@@ -66,6 +81,9 @@ public final class ProbeRunner {
 
             try (RconClient rcon = new RconClient("127.0.0.1", session.rconPort, session.rconPassword)) {
                 rcon.connectAndLogin();
+                if (config.rconPipelineDepth > 1) {
+                    rcon.enablePipelining(config.rconPipelineDepth);
+                }
                 if (config.ultraLean) {
                     sink.onInfo("loot-probe: applying ultra-lean runtime profile...");
                     LeanRuntimeConfigurer.apply(
@@ -90,44 +108,95 @@ public final class ProbeRunner {
                 }
                 if (!config.lootTables.isEmpty()) {
                     sink.onInfo("loot-probe: sampling " + config.lootTables.size() + " loot tables...");
-                    result.lootSamples = LootSampler.sampleAll(rcon, config.lootTables, Math.max(config.samples, 1), config.lootDimension);
+                    result.lootSamples = LootSampler.sampleAll(rcon, session.runner.getRunDir(), config.lootTables, Math.max(config.samples, 1), config.lootDimension);
+                    if (config.lootStats) {
+                        sink.onInfo("loot-probe: rolling loot distributions (up to " + config.lootStatsMaxSamples + " per table)...");
+                        // Budget roughly 2k rolls per second in the worst case before giving up on a table.
+                        int timeoutSec = (int) Math.min(Integer.MAX_VALUE, Math.max(120L, config.lootStatsMaxSamples / 2_000L));
+                        result.lootDistributions = LootSampler.analyzeAll(
+                                rcon,
+                                session.runner.getRunDir(),
+                                config.lootTables,
+                                config.lootDimension,
+                                config.lootStatsMaxSamples,
+                                config.lootStatsHalfWidth,
+                                timeoutSec
+                        );
+                    }
                 }
                 if (scanMode) {
                     sink.onInfo("loot-probe: scanning region and extracting containers...");
-                    Path discoveryCacheFile = buildDiscoveryCacheFile(config, effectiveStructures);
-                    List<WorldChestScanner.ScannedStructure> resumeStructures = loadResumeStructures(config, sink);
-                    result.regionScan = WorldChestScanner.scan(
-                            rcon,
-                            session.runner.getRunDir(),
-                            config.scanCenterX,
-                            config.scanCenterZ,
-                            config.scanRadius,
-                            effectiveStructures,
-                            discoveryCacheFile,
-                            true,
-                            Math.max(128, config.locateStep),
-                            Math.max(2, config.extractChunkRadius),
-                            config.extractParallelChunks,
-                            Math.max(1, config.extractParallelChunkCount),
-                            Math.max(1, config.extractParallelStructureJobs),
-                            Math.max(10, config.extractTimeoutSec),
-                            Math.max(2_000, config.extractStartCommandTimeoutMs),
-                            Math.max(2_000, config.extractStatusReadTimeoutMs),
-                            config.maxStructures,
-                            resumeStructures,
-                            new ProgressPrinter.ProgressListener() {
-                                @Override
-                                public void onProgress(int current, int total, String label) {
-                                    sink.onProgress("scan", current, total, label);
-                                }
-
-                                @Override
-                                public void onInfo(String message) {
-                                    sink.onInfo(message);
-                                }
-                            }
-                    );
+                    WorldChestScanner.CubiomesDiscovery cubiomesDiscovery = resolveCubiomesDiscovery(config, sink, result.datapackInfluence);
+                    Path discoveryCacheFile = buildDiscoveryCacheFile(config, effectiveStructures, cubiomesDiscovery != null);
+                    ExtractionCache extractionCache = openExtractionCache(config, sink, jar, pluginJarToLoad);
+                    List<WorldChestScanner.ScannedStructure> resumeStructures;
+                    if (config.streamOutput) {
+                        Path journalFile = StructureJournal.pathFor(config.output);
+                        boolean journalMatches = StructureJournal.matches(journalFile, config.seed, config.mcVersion);
+                        List<WorldChestScanner.ScannedStructure> priorOutput = journalMatches
+                                ? List.of()
+                                : loadResumeStructures(config, sink);
+                        structureJournal = StructureJournal.open(journalFile, config.seed, config.mcVersion);
+                        for (WorldChestScanner.ScannedStructure prior : priorOutput) {
+                            structureJournal.accept(prior);
+                        }
+                        resumeStructures = journalMatches ? structureJournal.readResumable() : priorOutput;
+                        if (journalMatches) {
+                            sink.onInfo("loot-probe: resume found " + resumeStructures.size() + " prior structures in " + journalFile);
+                        }
+                        sink.onInfo("loot-probe: streaming scanned structures to " + journalFile);
+                    } else {
+                        resumeStructures = loadResumeStructures(config, sink);
+                    }
+                    int shardCount = Math.max(1, Math.min(MAX_SCAN_SHARDS, config.scanShards));
+                    if (shardCount > 1) {
+                        result.regionScan = runShardedScan(
+                                config,
+                                sink,
+                                jar,
+                                pluginJarToLoad,
+                                session,
+                                rcon,
+                                shardCount,
+                                effectiveStructures,
+                                discoveryCacheFile,
+                                resumeStructures,
+                                structureJournal,
+                                cubiomesDiscovery,
+                                extractionCache
+                        );
+                    } else {
+                        try (RconPool rconPool = openRconPool(config, rcon, session)) {
+                            result.regionScan = runScan(
+                                    config,
+                                    rconPool,
+                                    session.runner.getRunDir(),
+                                    effectiveStructures,
+                                    discoveryCacheFile,
+                                    resumeStructures,
+                                    structureJournal,
+                                    cubiomesDiscovery,
+                                    extractionCache,
+                                    new ProgressPrinter.ProgressListener() {
+                                        @Override
+                                        public void onProgress(int current, int total, String label) {
+                                            sink.onProgress("scan", current, total, label);
+                                        }
+
+                                        @Override
+                                        public void onInfo(String message) {
+                                            sink.onInfo(message);
+                                        }
+                                    },
+                                    null
+                            );
+                        }
+                    }
                     result.regionScan.seed = config.seed;
+                    if (extractionCache != null) {
+                        sink.onInfo("loot-probe: extraction cache reused " + extractionCache.getHits() + ", stored "
+                                + extractionCache.getStored() + " structures (" + extractionCache.getFile() + ")");
+                    }
                 }
             }
 
@@ -140,8 +209,24 @@ public final class ProbeRunner {
             sink.onInfo(String.format("loot-probe: duration %.2f min (%d ms)", durationMinutes, result.durationMs));
 
             sink.onInfo("loot-probe: writing output...");
-            writeResult(result, config.output);
-            sink.onInfo("Wrote result to " + config.output.toAbsolutePath());
+            Path journalFile = null;
+            if (structureJournal != null) {
+                structureJournal.close();
+                journalFile = structureJournal.getFile();
+            }
+            String format = outputFormat(config);
+            if (!"columnar".equals(format)) {
+                writeResult(result, config.output, journalFile);
+                sink.onInfo("Wrote result to " + config.output.toAbsolutePath());
+            }
+            if (!"json".equals(format)) {
+                Path columnar = "both".equals(format) ? ColumnarResult.pathFor(config.output) : config.output;
+                ColumnarResult.write(result, columnar, journalFile);
+                sink.onInfo("Wrote columnar result to " + columnar.toAbsolutePath());
+            }
+            if (journalFile != null) {
+                Files.deleteIfExists(journalFile);
+            }
             sink.onProgress("complete", 1, 1, "done");
             return result;
         } catch (Exception e) {
@@ -154,6 +239,9 @@ public final class ProbeRunner {
             }
             throw e;
         } finally {
+            if (structureJournal != null) {
+                structureJournal.close();
+            }
             if (session != null && session.closeOnFinish) {
                 closeSession(session, sink);
             }
@@ -171,12 +259,48 @@ public final class ProbeRunner {
         }
     }
 
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        }
+    }
+
+    private static WorldTemplateCache prepareWorldTemplate(ProbeConfig config, ProbeListener sink, Path jar, Path serverRunDir) {
+        if (!config.worldTemplateCache) {
+            return null;
+        }
+        try {
+            WorldTemplateCache template = WorldTemplateCache.forRun(Path.of(".lootprobe-cache", "worlds"), jar, config.seed, config.datapacks);
+            if (template.restoreInto(serverRunDir)) {
+                sink.onInfo("loot-probe: restored world template " + template.getDir());
+            }
+            return template;
+        } catch (IOException e) {
+            sink.onInfo("loot-probe: world template unavailable (" + e.getMessage() + ").");
+            return null;
+        }
+    }
+
+    private static void storeWorldTemplate(WorldTemplateCache template, MinecraftServerRunner runner, ProbeListener sink) {
+        if (template == null || runner.isAlive()) {
+            return;
+        }
+        try {
+            template.storeFrom(runner.getRunDir());
+            sink.onInfo("loot-probe: saved world template " + template.getDir());
+        } catch (IOException e) {
+            sink.onInfo("loot-probe: failed to save world template (" + e.getMessage() + ").");
+        }
+    }
+
     private static void closeSession(ServerSession session, ProbeListener sink) {
         try {
             session.runner.close();
         } catch (Exception e) {
             sink.onInfo("loot-probe: server shutdown issue: " + e.getMessage());
         }
+        storeWorldTemplate(session.worldTemplate, session.runner, sink);
         if (session.deleteRunRootOnClose) {
             try {
                 deleteRecursively(session.runRoot);
@@ -204,7 +328,8 @@ public final class ProbeRunner {
                             cachedServer.rconPassword,
                             false,
                             cachedServer.deleteRunRootOnClose,
-                            true
+                            true,
+                            cachedServer.worldTemplate
                     );
                 }
                 closeCachedServerLocked(sink, "server session changed");
@@ -217,6 +342,7 @@ public final class ProbeRunner {
             String rconPassword = "lootprobe-" + System.nanoTime();
             int rconPort = 25590 + (int) (Math.abs(System.nanoTime()) % 500);
 
+            WorldTemplateCache worldTemplate = prepareWorldTemplate(config, sink, jar, runRoot.resolve("server-run"));
             sink.onInfo("loot-probe: starting temporary server...");
             MinecraftServerRunner runner = new MinecraftServerRunner(
                     config.javaBin,
@@ -247,8 +373,8 @@ public final class ProbeRunner {
                 throw e;
             }
 
-            cachedServer = new CachedServer(key, runner, runRoot, rconPort, rconPassword, deleteRunRoot);
-            return new ServerSession(runner, runRoot, rconPort, rconPassword, false, deleteRunRoot, false);
+            cachedServer = new CachedServer(key, runner, runRoot, rconPort, rconPassword, deleteRunRoot, worldTemplate);
+            return new ServerSession(runner, runRoot, rconPort, rconPassword, false, deleteRunRoot, false, worldTemplate);
         }
     }
 
@@ -258,14 +384,37 @@ public final class ProbeRunner {
             Path jar,
             Path pluginJarToLoad
     ) throws Exception {
-        Path runRoot = config.workDir != null
-                ? Files.createDirectories(config.workDir)
-                : Files.createTempDirectory("loot-probe-");
+        return startEphemeralSession(config, sink, jar, pluginJarToLoad, 0);
+    }
+
+    private static ServerSession startEphemeralSession(
+            ProbeConfig config,
+            ProbeListener sink,
+            Path jar,
+            Path pluginJarToLoad,
+            int shardIndex
+    ) throws Exception {
+        Path runRoot;
+        if (shardIndex == 0) {
+            runRoot = config.workDir != null
+                    ? Files.createDirectories(config.workDir)
+                    : Files.createTempDirectory("loot-probe-");
+        } else {
+            runRoot = config.workDir != null
+                    ? Files.createDirectories(config.workDir.resolve("shard-" + shardIndex))
+                    : Files.createTempDirectory("loot-probe-shard" + shardIndex + "-");
+        }
         boolean deleteRunRoot = config.workDir == null;
         String rconPassword = "lootprobe-" + System.nanoTime();
-        int rconPort = 25590 + (int) (Math.abs(System.nanoTime()) % 500);
+        // Extra shard servers run next to the primary one, so they need their own free game and RCON ports.
+        int rconPort = shardIndex == 0 ? 25590 + (int) (Math.abs(System.nanoTime()) % 500) : findFreePort();
+        int serverPort = shardIndex == 0 ? 0 : findFreePort();
 
-        sink.onInfo("loot-probe: starting temporary server...");
+        WorldTemplateCache worldTemplate = prepareWorldTemplate(config, sink, jar, runRoot.resolve("server-run"));
+        sink.onInfo(shardIndex == 0
+                ? "loot-probe: starting temporary server..."
+                : "loot-probe: starting shard server " + (shardIndex + 1) + "...");
+        String logPrefix = shardIndex == 0 ? "" : "[shard " + (shardIndex + 1) + "] ";
         MinecraftServerRunner runner = new MinecraftServerRunner(
                 config.javaBin,
                 jar,
@@ -277,7 +426,8 @@ public final class ProbeRunner {
                 config.startupTimeout(),
                 pluginJarToLoad,
                 config.scanDimension,
-                sink::onServerLog
+                serverPort,
+                line -> sink.onServerLog(logPrefix + line)
         );
         try {
             runner.start();
@@ -294,7 +444,9 @@ public final class ProbeRunner {
             }
             throw e;
         }
-        return new ServerSession(runner, runRoot, rconPort, rconPassword, true, deleteRunRoot, false);
+        // Only the primary server refreshes the template; shard servers hold a partial set of the scan's chunks.
+        return new ServerSession(runner, runRoot, rconPort, rconPassword, true, deleteRunRoot, false,
+                shardIndex == 0 ? worldTemplate : null);
     }
 
     private static void closeCachedServerLocked(ProbeListener sink, String reason) {
@@ -307,6 +459,7 @@ public final class ProbeRunner {
         } catch (Exception e) {
             sink.onInfo("loot-probe: cached server shutdown issue: " + e.getMessage());
         }
+        storeWorldTemplate(cachedServer.worldTemplate, cachedServer.runner, sink);
         if (cachedServer.deleteRunRootOnClose) {
             try {
                 deleteRecursively(cachedServer.runRoot);
@@ -325,6 +478,16 @@ public final class ProbeRunner {
         if (config.output == null) {
             throw new IllegalArgumentException("output path is required.");
         }
+        outputFormat(config);
+    }
+
+    private static String outputFormat(ProbeConfig config) {
+        String format = config.outputFormat != null ? config.outputFormat.trim().toLowerCase(Locale.ROOT) : "json";
+        return switch (format) {
+            case "", "json" -> "json";
+            case "columnar", "both" -> format;
+            default -> throw new IllegalArgumentException("outputFormat must be json, columnar or both: " + config.outputFormat);
+        };
     }
 
     private static String resolveMcVersion(ProbeConfig config, ProbeListener sink) throws IOException {
@@ -406,7 +569,11 @@ public final class ProbeRunner {
         return out;
     }
 
-    private static Path buildDiscoveryCacheFile(ProbeConfig config, List<ProbeConfig.StructureTarget> effectiveStructures) {
+    private static Path buildDiscoveryCacheFile(
+            ProbeConfig config,
+            List<ProbeConfig.StructureTarget> effectiveStructures,
+            boolean cubiomesDiscovery
+    ) {
         List<String> targetKeys = effectiveStructures.stream()
                 .map(t -> t.normalizedDimension("minecraft:overworld") + "|" + t.id)
                 .sorted()
@@ -433,12 +600,237 @@ public final class ProbeRunner {
                 "radius=" + config.scanRadius,
                 "locateStep=" + config.locateStep,
                 "targets=" + String.join(",", targetKeys),
-                "datapacks=" + String.join(",", datapackKeys)
+                "datapacks=" + String.join(",", datapackKeys),
+                // "cubiomes-2": datapack-overridden vanilla ids moved to server discovery, so older cubiomes caches are stale.
+                "discovery=" + (cubiomesDiscovery ? "cubiomes-2" : "locate")
         ));
         String hash = sha256Hex(keyBody);
         return Path.of(".lootprobe-cache", "discovery", "starts-" + hash + ".json").toAbsolutePath();
     }
 
+    private static WorldChestScanner.ScanReport runScan(
+            ProbeConfig config,
+            RconPool rconPool,
+            Path runDir,
+            List<ProbeConfig.StructureTarget> effectiveStructures,
+            Path discoveryCacheFile,
+            List<WorldChestScanner.ScannedStructure> resumeStructures,
+            WorldChestScanner.StructureSink structureSink,
+            WorldChestScanner.CubiomesDiscovery cubiomesDiscovery,
+            ExtractionCache extractionCache,
+            ProgressPrinter.ProgressListener progressListener,
+            WorldChestScanner.ShardSpec shard
+    ) throws Exception {
+        WorldChestScanner.ScanOptions options = new WorldChestScanner.ScanOptions();
+        options.rcon = rconPool.client(RconPool.Lane.DISCOVERY);
+        options.runDir = runDir;
+        options.centerX = config.scanCenterX;
+        options.centerZ = config.scanCenterZ;
+        options.radius = config.scanRadius;
+        options.structureTargets = effectiveStructures;
+        options.discoveryCacheFile = discoveryCacheFile;
+        options.showProgress = true;
+        options.locateStep = config.locateStep;
+        options.extractChunkRadius = config.extractChunkRadius;
+        options.extractParallelChunks = config.extractParallelChunks;
+        options.extractParallelChunkCount = config.extractParallelChunkCount;
+        options.extractParallelStructureJobs = config.extractParallelStructureJobs;
+        options.extractTimeoutSec = config.extractTimeoutSec;
+        options.extractStartCommandTimeoutMs = config.extractStartCommandTimeoutMs;
+        options.extractStatusReadTimeoutMs = config.extractStatusReadTimeoutMs;
+        options.maxStructures = config.maxStructures;
+        options.resumeStructures = resumeStructures;
+        options.progressListener = progressListener;
+        options.structureSink = structureSink;
+        options.cubiomesDiscovery = cubiomesDiscovery;
+        options.shard = shard;
+        options.extractionCache = extractionCache;
+        options.rconPool = rconPool;
+        options.adaptiveConcurrency = config.extractAdaptive;
+        options.extractTickBudgetMs = Math.max(1, config.extractTickBudgetMs);
+        return WorldChestScanner.scan(options);
+    }
+
+    /**
+     * Discovers structure starts once on the primary server, then splits extraction across
+     * {@code shardCount} servers by spatial tile and merges their reports.
+     */
+    private static WorldChestScanner.ScanReport runShardedScan(
+            ProbeConfig config,
+            ProbeListener sink,
+            Path jar,
+            Path pluginJarToLoad,
+            ServerSession primary,
+            RconClient primaryRcon,
+            int shardCount,
+            List<ProbeConfig.StructureTarget> effectiveStructures,
+            Path discoveryCacheFile,
+            List<WorldChestScanner.ScannedStructure> resumeStructures,
+            WorldChestScanner.StructureSink structureSink,
+            WorldChestScanner.CubiomesDiscovery cubiomesDiscovery,
+            ExtractionCache extractionCache
+    ) throws Exception {
+        ShardProgress progress = new ShardProgress(sink, shardCount);
+        int discovered = WorldChestScanner.prepareDiscoveryCache(
+                primaryRcon,
+                primary.runner.getRunDir(),
+                config.scanCenterX,
+                config.scanCenterZ,
+                config.scanRadius,
+                effectiveStructures,
+                discoveryCacheFile,
+                Math.max(128, config.locateStep),
+                cubiomesDiscovery,
+                progress.forShard(0)
+        );
+        if (discovered == 0) {
+            sink.onInfo("loot-probe: no structure starts discovered; skipping extra shard servers.");
+            try (RconPool rconPool = openRconPool(config, primaryRcon, primary)) {
+                return runScan(config, rconPool, primary.runner.getRunDir(), effectiveStructures, discoveryCacheFile,
+                        resumeStructures, structureSink, cubiomesDiscovery, extractionCache, progress.forShard(0), null);
+            }
+        }
+
+        sink.onInfo("loot-probe: sharding " + discovered + " structure starts across " + shardCount + " servers...");
+        List<ServerSession> shardSessions = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "lootprobe-shard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<ServerSession>> starting = new ArrayList<>();
+            for (int i = 1; i < shardCount; i++) {
+                int shardIndex = i;
+                starting.add(pool.submit(() -> startEphemeralSession(config, sink, jar, pluginJarToLoad, shardIndex)));
+            }
+            Exception startFailure = null;
+            for (Future<ServerSession> future : starting) {
+                try {
+                    shardSessions.add(future.get());
+                } catch (ExecutionException e) {
+                    startFailure = unwrap(e);
+                }
+            }
+            if (startFailure != null) {
+                throw startFailure;
+            }
+
+            List<Future<WorldChestScanner.ScanReport>> scans = new ArrayList<>();
+            for (int i = 0; i < shardCount; i++) {
+                WorldChestScanner.ShardSpec shard = new WorldChestScanner.ShardSpec(i, shardCount);
+                ProgressPrinter.ProgressListener listener = progress.forShard(i);
+                if (i == 0) {
+                    scans.add(pool.submit(() -> {
+                        try (RconPool rconPool = openRconPool(config, primaryRcon, primary)) {
+                            return runScan(config, rconPool, primary.runner.getRunDir(), effectiveStructures,
+                                    discoveryCacheFile, resumeStructures, structureSink, cubiomesDiscovery, extractionCache, listener, shard);
+                        }
+                    }));
+                    continue;
+                }
+                ServerSession shardSession = shardSessions.get(i - 1);
+                scans.add(pool.submit(() -> {
+                    try (RconClient shardRcon = new RconClient("127.0.0.1", shardSession.rconPort, shardSession.rconPassword);
+                         RconPool rconPool = openRconPool(config, shardRcon, shardSession)) {
+                        shardRcon.connectAndLogin();
+                        if (config.rconPipelineDepth > 1) {
+                            shardRcon.enablePipelining(config.rconPipelineDepth);
+                        }
+                        if (config.ultraLean) {
+                            LeanRuntimeConfigurer.apply(
+                                    shardRcon,
+                                    LeanRuntimeConfigurer.dimensionsFor(
+                                            config.structureDimension,
+                                            config.lootDimension,
+                                            config.scanDimension,
+                                            true
+                                    )
+                            );
+                        }
+                        return runScan(config, rconPool, shardSession.runner.getRunDir(), effectiveStructures,
+                                discoveryCacheFile, resumeStructures, structureSink, cubiomesDiscovery, extractionCache, listener, shard);
+                    }
+                }));
+            }
+            List<WorldChestScanner.ScanReport> reports = new ArrayList<>();
+            for (Future<WorldChestScanner.ScanReport> future : scans) {
+                try {
+                    reports.add(future.get());
+                } catch (ExecutionException e) {
+                    throw unwrap(e);
+                }
+            }
+            return WorldChestScanner.mergeReports(reports, config.scanCenterX, config.scanCenterZ, config.scanRadius);
+        } finally {
+            pool.shutdownNow();
+            for (ServerSession shardSession : shardSessions) {
+                closeSession(shardSession, sink);
+            }
+        }
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception ex) {
+            return ex;
+        }
+        return e;
+    }
+
+    private static RconPool openRconPool(ProbeConfig config, RconClient rcon, ServerSession session) {
+        if (!config.rconLanes) {
+            return RconPool.single(rcon);
+        }
+        return new RconPool(rcon, "127.0.0.1", session.rconPort, session.rconPassword, config.rconPipelineDepth);
+    }
+
+    private static ExtractionCache openExtractionCache(ProbeConfig config, ProbeListener sink, Path jar, Path pluginJar) {
+        if (!config.extractCache) {
+            return null;
+        }
+        try {
+            ExtractionCache cache = ExtractionCache.open(
+                    Path.of(".lootprobe-cache", "extract"), config.mcVersion, jar, pluginJar, config.seed, config.datapacks);
+            if (cache.size() > 0) {
+                sink.onInfo("loot-probe: extraction cache has " + cache.size() + " structures for this seed.");
+            }
+            return cache;
+        } catch (IOException e) {
+            sink.onInfo("loot-probe: extraction cache unavailable (" + e.getMessage() + ").");
+            return null;
+        }
+    }
+
+    private static WorldChestScanner.CubiomesDiscovery resolveCubiomesDiscovery(
+            ProbeConfig config,
+            ProbeListener sink,
+            DatapackInspector.DatapackInfluence influence
+    ) {
+        if (!config.cubiomesDiscovery || config.cubiomesBridgePath == null) {
+            return null;
+        }
+        if (influence != null && !influence.worldgenOverrides.isEmpty()) {
+            // Cubiomes only knows vanilla worldgen; its starts would be wrong for every id, not just overridden ones.
+            sink.onInfo("loot-probe: datapacks change vanilla worldgen (" + influence.worldgenOverrides.size() + " files, e.g. "
+                    + influence.worldgenOverrides.get(0) + "); using server-side structure discovery.");
+            return null;
+        }
+        Path bridgePath = config.cubiomesBridgePath.toAbsolutePath();
+        if (!Files.exists(bridgePath)) {
+            sink.onInfo("loot-probe: cubiomes bridge not found at " + bridgePath + "; using server-side structure discovery.");
+            return null;
+        }
+        CubiomesBridge bridge = new CubiomesBridge();
+        String libraryPath = config.cubiomesLibraryPath != null ? config.cubiomesLibraryPath.toAbsolutePath().toString() : null;
+        if (!bridge.ensureInitialized(bridgePath.toString(), libraryPath)) {
+            sink.onInfo("loot-probe: cubiomes bridge failed to load (" + bridge.getLastError() + "); using server-side structure discovery.");
+            return null;
+        }
+        Set<String> overridden = influence != null ? Set.copyOf(influence.overriddenStructures) : Set.of();
+        return new WorldChestScanner.CubiomesDiscovery(bridge, config.seed, config.mcVersion, overridden);
+    }
+
     private static List<WorldChestScanner.ScannedStructure> loadResumeStructures(ProbeConfig config, ProbeListener sink) {
         Path output = config.output != null ? config.output.toAbsolutePath() : null;
         if (output == null || !Files.exists(output)) {
@@ -489,6 +881,50 @@ public final class ProbeRunner {
         mapper.writeValue(output.toFile(), result);
     }
 
+    /**
+     * Writes the result with {@code regionScan.structures} copied from a structure journal, one structure at a time.
+     */
+    public static void writeResult(ProbeResult result, Path output, Path structureJournal) throws IOException {
+        if (structureJournal == null || result.regionScan == null) {
+            writeResult(result, output);
+            return;
+        }
+        Path target = output.toAbsolutePath();
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        // Structures live only in the journal, so everything else in the tree is small.
+        ObjectNode root = mapper.valueToTree(result);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (JsonGenerator gen = mapper.createGenerator(tmp.toFile(), JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            for (Map.Entry<String, JsonNode> field : root.properties()) {
+                gen.writeFieldName(field.getKey());
+                if (!"regionScan".equals(field.getKey()) || !field.getValue().isObject()) {
+                    mapper.writeTree(gen, field.getValue());
+                    continue;
+                }
+                gen.writeStartObject();
+                for (Map.Entry<String, JsonNode> scanField : field.getValue().properties()) {
+                    gen.writeFieldName(scanField.getKey());
+                    if ("structures".equals(scanField.getKey())) {
+                        StructureJournal.writeStructuresArray(gen, structureJournal, result.regionScan.centerX, result.regionScan.centerZ);
+                    } else {
+                        mapper.writeTree(gen, scanField.getValue());
+                    }
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     private static void deleteRecursively(Path root) throws IOException {
         if (!Files.exists(root)) {
             return;
@@ -509,6 +945,51 @@ public final class ProbeRunner {
         }
     }
 
+    /**
+     * Folds progress from concurrently running shards into one scan progress stream.
+     */
+    private static final class ShardProgress {
+        private final ProbeListener sink;
+        private final int[] current;
+        private final int[] total;
+
+        private ShardProgress(ProbeListener sink, int shardCount) {
+            this.sink = sink;
+            this.current = new int[shardCount];
+            this.total = new int[shardCount];
+        }
+
+        private synchronized void update(int shard, int shardCurrent, int shardTotal, String label) {
+            current[shard] = shardCurrent;
+            total[shard] = shardTotal;
+            int sumCurrent = 0;
+            int sumTotal = 0;
+            for (int i = 0; i < current.length; i++) {
+                sumCurrent += current[i];
+                sumTotal += total[i];
+            }
+            sink.onProgress("scan", sumCurrent, sumTotal, "[shard " + (shard + 1) + "] " + label);
+        }
+
+        private synchronized void info(int shard, String message) {
+            sink.onInfo("[shard " + (shard + 1) + "] " + message);
+        }
+
+        private ProgressPrinter.ProgressListener forShard(int shard) {
+            return new ProgressPrinter.ProgressListener() {
+                @Override
+                public void onProgress(int current, int total, String label) {
+                    update(shard, current, total, label);
+                }
+
+                @Override
+                public void onInfo(String message) {
+                    info(shard, message);
+                }
+            };
+        }
+    }
+
     private static final class ServerSession {
         final MinecraftServerRunner runner;
         final Path runRoot;
@@ -517,6 +998,7 @@ public final class ProbeRunner {
         final boolean closeOnFinish;
         final boolean deleteRunRootOnClose;
         final boolean reused;
+        final WorldTemplateCache worldTemplate;
 
         private ServerSession(
                 MinecraftServerRunner runner,
@@ -525,7 +1007,8 @@ public final class ProbeRunner {
                 String rconPassword,
                 boolean closeOnFinish,
                 boolean deleteRunRootOnClose,
-                boolean reused
+                boolean reused,
+                WorldTemplateCache worldTemplate
         ) {
             this.runner = runner;
             this.runRoot = runRoot;
@@ -534,6 +1017,7 @@ public final class ProbeRunner {
             this.closeOnFinish = closeOnFinish;
             this.deleteRunRootOnClose = deleteRunRootOnClose;
             this.reused = reused;
+            this.worldTemplate = worldTemplate;
         }
     }
 
@@ -544,6 +1028,7 @@ public final class ProbeRunner {
         final int rconPort;
         final String rconPassword;
         final boolean deleteRunRootOnClose;
+        final WorldTemplateCache worldTemplate;
 
         private CachedServer(
                 ReuseKey key,
@@ -551,7 +1036,8 @@ public final class ProbeRunner {
                 Path runRoot,
                 int rconPort,
                 String rconPassword,
-                boolean deleteRunRootOnClose
+                boolean deleteRunRootOnClose,
+                WorldTemplateCache worldTemplate
         ) {
             this.key = key;
             this.runner = runner;
@@ -559,6 +1045,7 @@ public final class ProbeRunner {
             this.rconPort = rconPort;
             this.rconPassword = rconPassword;
             this.deleteRunRootOnClose = deleteRunRootOnClose;
+            this.worldTemplate = worldTemplate;
         }
     }
 
@@ -4,6 +4,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.SocketTimeoutException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
@@ -11,13 +12,26 @@ import java.net.SocketException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public final class RconClient implements AutoCloseable {
     private static final int TYPE_AUTH = 3;
     private static final int TYPE_COMMAND = 2;
+    private static final int TYPE_RESPONSE = 0;
     private static final int CONNECT_TIMEOUT_MS = 10_000;
     private static final int READ_TIMEOUT_MS = 300_000;
+    // Vanilla's RCON thread handles one packet per socket read and drops the rest of that read, so back-to-back
+    // packets can be lost; pipelining is opt-in until a server is known to parse them.
+    public static final int DEFAULT_PIPELINE_DEPTH = 1;
 
     private final String host;
     private final int port;
@@ -27,6 +41,9 @@ public final class RconClient implements AutoCloseable {
     private Socket socket;
     private DataInputStream in;
     private DataOutputStream out;
+    private final Object writeLock = new Object();
+    private volatile Pipeline pipeline;
+    private volatile int pipelineDepth;
 
     public RconClient(String host, int port, String password) {
         this.host = host;
@@ -64,6 +81,95 @@ public final class RconClient implements AutoCloseable {
         if (!ok) {
             throw new IOException("RCON authentication did not return expected request id.");
         }
+        if (pipelineDepth > 0) {
+            pipeline = new Pipeline(socket, in);
+        }
+    }
+
+    /**
+     * Switches to pipelined mode: a reader thread matches replies to requests by id, so commands from
+     * {@link #commandAsync} and {@link #commandAll} can be in flight together and the client becomes thread-safe.
+     * Only for servers whose RCON reader copes with several packets in one read; a dropped pipelined connection
+     * falls back to one-at-a-time commands.
+     */
+    public synchronized void enablePipelining(int depth) throws IOException {
+        pipelineDepth = Math.max(1, depth);
+        if (pipeline == null && socket != null) {
+            pipeline = new Pipeline(socket, in);
+        }
+    }
+
+    public boolean isPipelined() {
+        return pipeline != null;
+    }
+
+    public boolean isHealthy() {
+        Pipeline current = pipeline;
+        if (socket == null || socket.isClosed()) {
+            return false;
+        }
+        return pipelineDepth == 0 || (current != null && current.failure == null);
+    }
+
+    /**
+     * Reconnects when the socket was closed or the pipeline reader failed.
+     */
+    public void ensureConnected() throws IOException {
+        if (isHealthy()) {
+            return;
+        }
+        Pipeline current = pipeline;
+        if (current != null || pipelineDepth > 0) {
+            disablePipelining(current);
+        } else {
+            reconnect(null);
+        }
+    }
+
+    /**
+     * Sends a command without waiting for its reply. Without pipelining the command runs synchronously.
+     */
+    public CompletableFuture<String> commandAsync(String command) {
+        Pipeline current = pipeline;
+        if (current == null) {
+            try {
+                return CompletableFuture.completedFuture(command(command));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return current.submit(command);
+    }
+
+    /**
+     * Runs commands in order and returns their replies, keeping up to the pipeline depth in flight.
+     * After a connection failure the remaining commands are retried one by one on a new connection.
+     */
+    public List<String> commandAll(List<String> commands) throws IOException {
+        List<String> out = new ArrayList<>(commands.size());
+        Pipeline current = pipeline;
+        if (current != null) {
+            ArrayDeque<CompletableFuture<String>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            try {
+                while (out.size() < commands.size()) {
+                    while (next < commands.size() && inFlight.size() < pipelineDepth) {
+                        inFlight.add(current.submit(commands.get(next++)));
+                    }
+                    out.add(await(current, inFlight.poll(), READ_TIMEOUT_MS));
+                }
+                return out;
+            } catch (IOException e) {
+                if (!isRecoverableConnectionIssue(e)) {
+                    throw e;
+                }
+                disablePipelining(current);
+            }
+        }
+        for (int i = out.size(); i < commands.size(); i++) {
+            out.add(command(commands.get(i)));
+        }
+        return out;
     }
 
     public String command(String command) throws IOException {
@@ -75,18 +181,33 @@ public final class RconClient implements AutoCloseable {
     }
 
     private String executeWithRetry(String command, int retries) throws IOException {
+        Pipeline current = pipeline;
         try {
             return executeOnce(command, READ_TIMEOUT_MS);
         } catch (IOException e) {
             if (retries <= 0 || !isRecoverableConnectionIssue(e)) {
                 throw e;
             }
-            reconnect();
+            if (current != null) {
+                disablePipelining(current);
+            } else {
+                reconnect(null);
+            }
             return executeWithRetry(command, retries - 1);
         }
     }
 
     private String executeOnce(String command, int readTimeoutMs) throws IOException {
+        Pipeline current = pipeline;
+        if (current != null) {
+            return await(current, current.submit(command), readTimeoutMs);
+        }
+        synchronized (this) {
+            return executeUnpipelined(command, readTimeoutMs);
+        }
+    }
+
+    private String executeUnpipelined(String command, int readTimeoutMs) throws IOException {
         int previousTimeout = socket != null ? socket.getSoTimeout() : READ_TIMEOUT_MS;
         if (socket != null) {
             socket.setSoTimeout(readTimeoutMs);
@@ -113,7 +234,40 @@ public final class RconClient implements AutoCloseable {
         }
     }
 
-    private void reconnect() throws IOException {
+    private static String await(Pipeline pipeline, CompletableFuture<String> future, int timeoutMs) throws IOException {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pipeline.abandon(future);
+            throw new SocketTimeoutException("RCON reply timed out.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for RCON reply.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("RCON command failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Replaces a failed pipelined connection with a plain one. The server may have dropped it because several
+     * packets arrived in one read, so the new connection does not pipeline again.
+     */
+    private synchronized void disablePipelining(Pipeline failed) throws IOException {
+        if (pipeline != failed && pipeline != null) {
+            return;
+        }
+        pipelineDepth = 0;
+        reconnect(failed);
+    }
+
+    private synchronized void reconnect(Pipeline failed) throws IOException {
+        if (failed != null && pipeline != failed && pipeline != null) {
+            // Another thread already replaced the broken connection.
+            return;
+        }
         close();
         try {
             Thread.sleep(250);
@@ -139,6 +293,12 @@ public final class RconClient implements AutoCloseable {
     }
 
     private void writePacket(int id, int type, String payload) throws IOException {
+        synchronized (writeLock) {
+            writePacketLocked(id, type, payload);
+        }
+    }
+
+    private void writePacketLocked(int id, int type, String payload) throws IOException {
         byte[] body = payload.getBytes(StandardCharsets.UTF_8);
         int length = 4 + 4 + body.length + 2;
         ByteBuffer buffer = ByteBuffer.allocate(4 + length).order(ByteOrder.LITTLE_ENDIAN);
@@ -153,6 +313,10 @@ public final class RconClient implements AutoCloseable {
     }
 
     private Packet readPacket() throws IOException {
+        return readPacket(in);
+    }
+
+    private static Packet readPacket(DataInputStream in) throws IOException {
         int length;
         try {
             length = Integer.reverseBytes(in.readInt());
@@ -177,6 +341,11 @@ public final class RconClient implements AutoCloseable {
 
     @Override
     public void close() {
+        Pipeline current = pipeline;
+        pipeline = null;
+        if (current != null) {
+            current.failAll(new IOException("RCON connection closed."));
+        }
         try {
             if (socket != null) {
                 socket.close();
@@ -187,4 +356,92 @@ public final class RconClient implements AutoCloseable {
 
     private record Packet(int requestId, int type, String payload) {
     }
+
+    /**
+     * Reply dispatch for one connection. Each command is followed by an empty response-type packet; the server
+     * answers it only after the command's last reply packet, which marks the end of multi-packet output.
+     */
+    private final class Pipeline {
+        private final Map<Integer, PendingCommand> byCommandId = new ConcurrentHashMap<>();
+        private final Map<Integer, PendingCommand> bySentinelId = new ConcurrentHashMap<>();
+        private volatile IOException failure;
+
+        Pipeline(Socket socket, DataInputStream input) throws IOException {
+            // The reader blocks between replies; per-command deadlines are enforced by the waiting callers.
+            socket.setSoTimeout(0);
+            Thread reader = new Thread(() -> readLoop(input), "lootprobe-rcon-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        CompletableFuture<String> submit(String command) {
+            PendingCommand pending = new PendingCommand();
+            synchronized (writeLock) {
+                if (failure != null) {
+                    return CompletableFuture.failedFuture(failure);
+                }
+                pending.commandId = requestId.getAndIncrement();
+                pending.sentinelId = requestId.getAndIncrement();
+                byCommandId.put(pending.commandId, pending);
+                bySentinelId.put(pending.sentinelId, pending);
+                try {
+                    writePacketLocked(pending.commandId, TYPE_COMMAND, command);
+                    writePacketLocked(pending.sentinelId, TYPE_RESPONSE, "");
+                } catch (IOException e) {
+                    failAll(e);
+                }
+            }
+            return pending.future;
+        }
+
+        void abandon(CompletableFuture<String> future) {
+            bySentinelId.values().removeIf(pending -> {
+                if (pending.future != future) {
+                    return false;
+                }
+                byCommandId.remove(pending.commandId);
+                return true;
+            });
+        }
+
+        void failAll(IOException e) {
+            synchronized (writeLock) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            for (PendingCommand pending : bySentinelId.values()) {
+                pending.future.completeExceptionally(e);
+            }
+            bySentinelId.clear();
+            byCommandId.clear();
+        }
+
+        private void readLoop(DataInputStream input) {
+            try {
+                while (true) {
+                    Packet packet = readPacket(input);
+                    PendingCommand pending = byCommandId.get(packet.requestId);
+                    if (pending != null) {
+                        pending.response.append(packet.payload);
+                        continue;
+                    }
+                    pending = bySentinelId.remove(packet.requestId);
+                    if (pending != null) {
+                        byCommandId.remove(pending.commandId);
+                        pending.future.complete(pending.response.toString().trim());
+                    }
+                }
+            } catch (IOException e) {
+                failAll(e);
+            }
+        }
+    }
+
+    private static final class PendingCommand {
+        int commandId;
+        int sentinelId;
+        final StringBuilder response = new StringBuilder();
+        final CompletableFuture<String> future = new CompletableFuture<>();
+    }
 }
@@ -0,0 +1,72 @@
+package dev.lootprobe;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One RCON connection per kind of traffic, so a slow status reply never holds up discovery or job submission.
+ * The discovery lane reuses the caller's connection; the other lanes connect on first use.
+ */
+public final class RconPool implements AutoCloseable {
+    public enum Lane {
+        DISCOVERY,
+        SUBMIT,
+        STATUS
+    }
+
+    private final RconClient primary;
+    private final String host;
+    private final int port;
+    private final String password;
+    private final int pipelineDepth;
+    private final boolean shared;
+    private final Map<Lane, RconClient> clients = new EnumMap<>(Lane.class);
+
+    public RconPool(RconClient primary, String host, int port, String password, int pipelineDepth) {
+        this(primary, host, port, password, pipelineDepth, false);
+    }
+
+    private RconPool(RconClient primary, String host, int port, String password, int pipelineDepth, boolean shared) {
+        this.primary = primary;
+        this.host = host;
+        this.port = port;
+        this.password = password;
+        this.pipelineDepth = pipelineDepth;
+        this.shared = shared;
+    }
+
+    /**
+     * A pool that sends every lane through one existing connection.
+     */
+    public static RconPool single(RconClient client) {
+        return new RconPool(client, null, 0, null, 0, true);
+    }
+
+    public synchronized RconClient client(Lane lane) throws IOException {
+        if (shared || lane == Lane.DISCOVERY) {
+            primary.ensureConnected();
+            return primary;
+        }
+        RconClient client = clients.get(lane);
+        if (client == null) {
+            client = new RconClient(host, port, password);
+            client.connectAndLogin();
+            if (pipelineDepth > 1) {
+                client.enablePipelining(pipelineDepth);
+            }
+            clients.put(lane, client);
+            return client;
+        }
+        client.ensureConnected();
+        return client;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (RconClient client : clients.values()) {
+            client.close();
+        }
+        clients.clear();
+    }
+}
@@ -0,0 +1,184 @@
+package dev.lootprobe;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over 2D block positions, stored as flat arrays: ids sorted by cell plus a start offset per cell.
+ * Box queries touch only the cells overlapping the box, and nearest-point searches grow outwards ring by ring.
+ */
+public final class SpatialIndex {
+    private static final int TARGET_POINTS_PER_CELL = 4;
+    private static final int MAX_CELLS_PER_AXIS = 2048;
+    private static final int MIN_CELL_SIZE = 16;
+
+    public interface Visitor {
+        /**
+         * Returns false to stop the query.
+         */
+        boolean visit(int id);
+    }
+
+    private final int[] xs;
+    private final int[] zs;
+    private final int minX;
+    private final int minZ;
+    private final int cellSize;
+    private final int cellsX;
+    private final int cellsZ;
+    private final int[] cellStart;
+    private final int[] ids;
+
+    private SpatialIndex(int[] xs, int[] zs) {
+        this.xs = xs;
+        this.zs = zs;
+        int count = xs.length;
+        int loX = Integer.MAX_VALUE;
+        int loZ = Integer.MAX_VALUE;
+        int hiX = Integer.MIN_VALUE;
+        int hiZ = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            loX = Math.min(loX, xs[i]);
+            loZ = Math.min(loZ, zs[i]);
+            hiX = Math.max(hiX, xs[i]);
+            hiZ = Math.max(hiZ, zs[i]);
+        }
+        if (count == 0) {
+            loX = loZ = hiX = hiZ = 0;
+        }
+        long spanX = (long) hiX - loX + 1;
+        long spanZ = (long) hiZ - loZ + 1;
+        double area = (double) spanX * spanZ;
+        long size = Math.max(MIN_CELL_SIZE, (long) Math.ceil(Math.sqrt(area * TARGET_POINTS_PER_CELL / Math.max(1, count))));
+        size = Math.max(size, (Math.max(spanX, spanZ) + MAX_CELLS_PER_AXIS - 1) / MAX_CELLS_PER_AXIS);
+        this.minX = loX;
+        this.minZ = loZ;
+        this.cellSize = (int) Math.min(Integer.MAX_VALUE, size);
+        this.cellsX = (int) Math.max(1, (spanX + cellSize - 1) / cellSize);
+        this.cellsZ = (int) Math.max(1, (spanZ + cellSize - 1) / cellSize);
+
+        int cells = cellsX * cellsZ;
+        int[] cellOf = new int[count];
+        cellStart = new int[cells + 1];
+        for (int i = 0; i < count; i++) {
+            cellOf[i] = cellX(xs[i]) + cellZ(zs[i]) * cellsX;
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] fill = Arrays.copyOf(cellStart, cells);
+        ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[fill[cellOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * Indexes points {@code 0..xs.length-1}; the arrays are kept, not copied.
+     */
+    public static SpatialIndex build(int[] xs, int[] zs) {
+        if (xs.length != zs.length) {
+            throw new IllegalArgumentException("xs and zs differ in length: " + xs.length + " vs " + zs.length);
+        }
+        return new SpatialIndex(xs, zs);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int x(int id) {
+        return xs[id];
+    }
+
+    public int z(int id) {
+        return zs[id];
+    }
+
+    /**
+     * Visits every point inside the inclusive box. Returns how many points were visited.
+     */
+    public int query(int boxMinX, int boxMinZ, int boxMaxX, int boxMaxZ, Visitor visitor) {
+        if (ids.length == 0 || boxMaxX < minX || boxMaxZ < minZ) {
+            return 0;
+        }
+        int fromX = cellX(boxMinX);
+        int toX = cellX(boxMaxX);
+        int fromZ = cellZ(boxMinZ);
+        int toZ = cellZ(boxMaxZ);
+        int visited = 0;
+        for (int cz = fromZ; cz <= toZ; cz++) {
+            for (int cx = fromX; cx <= toX; cx++) {
+                int cell = cx + cz * cellsX;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int id = ids[i];
+                    int x = xs[id];
+                    int z = zs[id];
+                    if (x < boxMinX || x > boxMaxX || z < boxMinZ || z > boxMaxZ) {
+                        continue;
+                    }
+                    visited++;
+                    if (!visitor.visit(id)) {
+                        return visited;
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Closest point to (x, z) no further than {@code maxDistance} blocks, or -1.
+     */
+    public int nearest(int x, int z, double maxDistance) {
+        if (ids.length == 0) {
+            return -1;
+        }
+        int centerX = cellX(x);
+        int centerZ = cellZ(z);
+        double maxSq = maxDistance * maxDistance;
+        long bestSq = Long.MAX_VALUE;
+        int best = -1;
+        int maxRing = Math.max(cellsX, cellsZ);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Everything outside this ring is at least ring * cellSize away.
+            double reach = (double) Math.max(0, ring - 1) * cellSize;
+            if (reach * reach > maxSq || (best >= 0 && reach * reach >= bestSq)) {
+                break;
+            }
+            for (int cz = centerZ - ring; cz <= centerZ + ring; cz++) {
+                if (cz < 0 || cz >= cellsZ) {
+                    continue;
+                }
+                boolean edgeRow = cz == centerZ - ring || cz == centerZ + ring;
+                for (int cx = centerX - ring; cx <= centerX + ring; cx += edgeRow ? 1 : Math.max(1, ring * 2)) {
+                    if (cx < 0 || cx >= cellsX) {
+                        continue;
+                    }
+                    int cell = cx + cz * cellsX;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int id = ids[i];
+                        long dx = (long) xs[id] - x;
+                        long dz = (long) zs[id] - z;
+                        long distSq = dx * dx + dz * dz;
+                        if (distSq < bestSq && distSq <= maxSq) {
+                            bestSq = distSq;
+                            best = id;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int cellX(int x) {
+        long cell = ((long) x - minX) / cellSize;
+        return (int) Math.max(0, Math.min(cellsX - 1, cell));
+    }
+
+    private int cellZ(int z) {
+        long cell = ((long) z - minZ) / cellSize;
+        return (int) Math.max(0, Math.min(cellsZ - 1, cell));
+    }
+}
@@ -0,0 +1,286 @@
+package dev.lootprobe;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only NDJSON journal of scanned structures, written next to the result file while a scan runs.
+ * The first line records seed and MC version so a resume never mixes structures from different worlds.
+ */
+public final class StructureJournal implements WorldChestScanner.StructureSink, AutoCloseable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path file;
+    private final BufferedWriter writer;
+    private int written;
+
+    private StructureJournal(Path file, BufferedWriter writer) {
+        this.file = file;
+        this.writer = writer;
+    }
+
+    public static Path pathFor(Path output) {
+        Path absolute = output.toAbsolutePath();
+        return absolute.resolveSibling(absolute.getFileName() + ".structures.ndjson");
+    }
+
+    public static boolean matches(Path file, long seed, String mcVersion) {
+        if (file == null || !Files.exists(file)) {
+            return false;
+        }
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String first = reader.readLine();
+            if (first == null || first.isBlank()) {
+                return false;
+            }
+            Header header = MAPPER.readValue(first, Header.class);
+            return header.seed == seed && (header.mcVersion == null || header.mcVersion.equals(mcVersion));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens the journal for appending when it matches the seed and version, otherwise starts a new one.
+     */
+    public static StructureJournal open(Path file, long seed, String mcVersion) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        if (matches(file, seed, mcVersion) && truncatePartialLine(file) > 0) {
+            return new StructureJournal(file, Files.newBufferedWriter(
+                    file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND
+            ));
+        }
+        BufferedWriter writer = Files.newBufferedWriter(
+                file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+        );
+        Header header = new Header();
+        header.seed = seed;
+        header.mcVersion = mcVersion;
+        writer.write(MAPPER.writeValueAsString(header));
+        writer.write('\n');
+        writer.flush();
+        return new StructureJournal(file, writer);
+    }
+
+    /**
+     * Drops a trailing line cut off by a crash so the next append starts on a fresh line instead of extending it
+     * into invalid JSON. Returns the length kept, which is 0 when not even the header line is complete.
+     */
+    private static long truncatePartialLine(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            long length = raf.length();
+            byte[] buffer = new byte[8192];
+            long end = length;
+            while (end > 0) {
+                int n = (int) Math.min(buffer.length, end);
+                raf.seek(end - n);
+                raf.readFully(buffer, 0, n);
+                for (int i = n - 1; i >= 0; i--) {
+                    if (buffer[i] == '\n') {
+                        long keep = end - n + i + 1;
+                        if (keep < length) {
+                            raf.setLength(keep);
+                        }
+                        return keep;
+                    }
+                }
+                end -= n;
+            }
+            raf.setLength(0);
+            return 0;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getWritten() {
+        return written;
+    }
+
+    @Override
+    public synchronized void accept(WorldChestScanner.ScannedStructure structure) throws IOException {
+        writer.write(MAPPER.writeValueAsString(structure));
+        writer.write('\n');
+        // Flush per structure so a crash keeps everything extracted so far.
+        writer.flush();
+        written++;
+    }
+
+    /**
+     * Structures already in the journal, without their chest payloads; resume only needs keys and chunk stats.
+     */
+    public List<WorldChestScanner.ScannedStructure> readResumable() throws IOException {
+        List<WorldChestScanner.ScannedStructure> out = new ArrayList<>();
+        forEachLine(file, (offset, line) -> {
+            if (offset == 0) {
+                // Header line.
+                return;
+            }
+            WorldChestScanner.ScannedStructure structure = MAPPER.readValue(line, WorldChestScanner.ScannedStructure.class);
+            if (structure.id == null) {
+                return;
+            }
+            structure.chests = new ArrayList<>();
+            out.add(structure);
+        });
+        return out;
+    }
+
+    /**
+     * Writes the journaled structures as a JSON array, deduplicated by structure key and in scan report order.
+     * Only an index of line offsets is kept in memory; each structure is copied straight from disk.
+     */
+    public static void writeStructuresArray(JsonGenerator gen, Path file, int centerX, int centerZ) throws IOException {
+        gen.writeStartArray();
+        forEachLineInOrder(file, centerX, centerZ, bytes -> {
+            try (JsonParser parser = MAPPER.getFactory().createParser(bytes)) {
+                parser.nextToken();
+                gen.copyCurrentStructure(parser);
+            }
+        });
+        gen.writeEndArray();
+    }
+
+    /**
+     * Visits the journaled structures one at a time, with the same deduplication and order as {@link #writeStructuresArray}.
+     */
+    public static void forEachStructure(Path file, int centerX, int centerZ, WorldChestScanner.StructureSink sink) throws IOException {
+        forEachLineInOrder(file, centerX, centerZ, bytes -> sink.accept(MAPPER.readValue(bytes, WorldChestScanner.ScannedStructure.class)));
+    }
+
+    private static void forEachLineInOrder(Path file, int centerX, int centerZ, LineConsumer consumer) throws IOException {
+        Map<String, IndexEntry> byKey = new LinkedHashMap<>();
+        forEachLine(file, (offset, line) -> {
+            IndexEntry entry = readIndexEntry(line, offset);
+            if (entry == null) {
+                return;
+            }
+            String key = entry.key.dimension + "|" + entry.key.id + "|" + entry.key.x + "|" + entry.key.z;
+            IndexEntry previous = byKey.get(key);
+            // A later retry wins, but a failure never replaces a structure that was extracted.
+            if (previous == null || previous.failed || !entry.failed) {
+                byKey.put(key, entry);
+            }
+        });
+        List<IndexEntry> entries = new ArrayList<>(byKey.values());
+        Comparator<WorldChestScanner.ScannedStructure> order = WorldChestScanner.structureOrder(centerX, centerZ);
+        entries.sort((a, b) -> order.compare(a.key, b.key));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            for (IndexEntry entry : entries) {
+                byte[] bytes = new byte[entry.length];
+                raf.seek(entry.offset);
+                raf.readFully(bytes);
+                consumer.accept(bytes);
+            }
+        }
+    }
+
+    private static IndexEntry readIndexEntry(byte[] line, long offset) throws IOException {
+        WorldChestScanner.ScannedStructure key = new WorldChestScanner.ScannedStructure();
+        key.chunkStats = null;
+        key.chests = null;
+        boolean failed = false;
+        try (JsonParser parser = MAPPER.getFactory().createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "id" -> key.id = parser.getValueAsString();
+                    case "dimension" -> key.dimension = parser.getValueAsString();
+                    case "x" -> key.x = parser.getValueAsInt();
+                    case "z" -> key.z = parser.getValueAsInt();
+                    case "error" -> failed = value != JsonToken.VALUE_NULL && !parser.getValueAsString("").isBlank();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (key.id == null) {
+            // Header line.
+            return null;
+        }
+        IndexEntry entry = new IndexEntry();
+        entry.key = key;
+        entry.offset = offset;
+        entry.length = line.length;
+        entry.failed = failed;
+        return entry;
+    }
+
+    private static void forEachLine(Path file, LineVisitor visitor) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            long lineStart = 0;
+            int b;
+            while ((b = in.read()) >= 0) {
+                offset++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                if (line.size() > 0) {
+                    visitor.visit(lineStart, line.toByteArray());
+                }
+                line.reset();
+                lineStart = offset;
+            }
+            // A trailing line without newline was cut off by a crash; skip it.
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private interface LineVisitor {
+        void visit(long offset, byte[] line) throws IOException;
+    }
+
+    private interface LineConsumer {
+        void accept(byte[] line) throws IOException;
+    }
+
+    private static final class IndexEntry {
+        WorldChestScanner.ScannedStructure key;
+        long offset;
+        int length;
+        boolean failed;
+    }
+
+    public static final class Header {
+        public int lootprobeJournal = 1;
+        public long seed;
+        public String mcVersion;
+    }
+}
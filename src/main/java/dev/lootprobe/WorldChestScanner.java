@@ -9,17 +9,32 @@ import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public final class WorldChestScanner {
-    private static final int PLUGIN_DISCOVERY_MAX_STRUCTURES = 3;
-    private static final int PLUGIN_DISCOVERY_MAX_WORK_UNITS = 1200;
+    private static final int DISCOVERY_STATUS_POLL_MS = 500;
+    private static final int DISCOVERY_STATUS_TIMEOUT_MS = 5_000;
+    // A discovery job whose progress counter has not moved for this long is cancelled and its partial starts kept.
+    private static final int DISCOVERY_STALL_MS = 60_000;
+    // The status is polled every DISCOVERY_STATUS_POLL_MS; progress lines are only printed this often.
+    private static final int DISCOVERY_PROGRESS_LOG_MS = 10_000;
+    private static final int LEGACY_STATUS_POLL_MS = 200;
+    private static final int PUSH_COMPLETION_WAIT_MS = 500;
+    private static final int PUSH_FALLBACK_STATUS_POLL_MS = 5_000;
+    private static final int ADAPTIVE_SAMPLE_MS = 1_000;
+    private static final int CUBIOMES_MAX_STARTS_PER_STRUCTURE = 200_000;
+    // Locate commands sent per pipelined batch; progress is reported after each batch.
+    private static final int LOCATE_WINDOW = 64;
     private static final Pattern XYZ_FULL = Pattern.compile("\\[\\s*(-?\\d+)\\s*,\\s*(-?\\d+)\\s*,\\s*(-?\\d+)\\s*\\]");
     private static final Pattern XYZ_TILDE_Y = Pattern.compile("\\[\\s*(-?\\d+)\\s*,\\s*~\\s*,\\s*(-?\\d+)\\s*\\]");
     private static final Pattern XYZ_GENERIC = Pattern.compile("(-?\\d+)\\s*,\\s*(?:~\\s*,\\s*)?(-?\\d+)");
@@ -27,69 +42,36 @@ public final class WorldChestScanner {
     private WorldChestScanner() {
     }
 
-    public static ScanReport scan(
-            RconClient rcon,
-            Path runDir,
-            int centerX,
-            int centerZ,
-            int radius,
-            List<ProbeConfig.StructureTarget> structureTargets,
-            Path discoveryCacheFile,
-            boolean showProgress,
-            int locateStep,
-            int extractChunkRadius,
-            boolean extractParallelChunks,
-            int extractParallelChunkCount,
-            int extractParallelStructureJobs,
-            int extractTimeoutSec,
-            int extractStartCommandTimeoutMs,
-            int extractStatusReadTimeoutMs,
-            Integer maxStructures
-    ) throws Exception {
-        return scan(
-                rcon,
-                runDir,
-                centerX,
-                centerZ,
-                radius,
-                structureTargets,
-                discoveryCacheFile,
-                showProgress,
-                locateStep,
-                extractChunkRadius,
-                extractParallelChunks,
-                extractParallelChunkCount,
-                extractParallelStructureJobs,
-                extractTimeoutSec,
-                extractStartCommandTimeoutMs,
-                extractStatusReadTimeoutMs,
-                maxStructures,
-                List.of(),
-                null
-        );
-    }
-
-    public static ScanReport scan(
-            RconClient rcon,
-            Path runDir,
-            int centerX,
-            int centerZ,
-            int radius,
-            List<ProbeConfig.StructureTarget> structureTargets,
-            Path discoveryCacheFile,
-            boolean showProgress,
-            int locateStep,
-            int extractChunkRadius,
-            boolean extractParallelChunks,
-            int extractParallelChunkCount,
-            int extractParallelStructureJobs,
-            int extractTimeoutSec,
-            int extractStartCommandTimeoutMs,
-            int extractStatusReadTimeoutMs,
-            Integer maxStructures,
-            List<ScannedStructure> resumeStructures,
-            ProgressPrinter.ProgressListener progressListener
-    ) throws Exception {
+    /**
+     * Discovers the requested structures around the center and extracts their chests.
+     */
+    public static ScanReport scan(ScanOptions options) throws Exception {
+        RconClient rcon = options.rcon;
+        Path runDir = options.runDir;
+        int centerX = options.centerX;
+        int centerZ = options.centerZ;
+        int radius = options.radius;
+        List<ProbeConfig.StructureTarget> structureTargets = options.structureTargets;
+        Path discoveryCacheFile = options.discoveryCacheFile;
+        boolean showProgress = options.showProgress;
+        int locateStep = Math.max(128, options.locateStep);
+        int extractChunkRadius = Math.max(2, options.extractChunkRadius);
+        boolean extractParallelChunks = options.extractParallelChunks;
+        int extractParallelChunkCount = Math.max(1, options.extractParallelChunkCount);
+        int extractParallelStructureJobs = Math.max(1, options.extractParallelStructureJobs);
+        int extractTimeoutSec = Math.max(10, options.extractTimeoutSec);
+        int extractStartCommandTimeoutMs = Math.max(2_000, options.extractStartCommandTimeoutMs);
+        int extractStatusReadTimeoutMs = Math.max(2_000, options.extractStatusReadTimeoutMs);
+        Integer maxStructures = options.maxStructures;
+        List<ScannedStructure> resumeStructures = options.resumeStructures != null ? options.resumeStructures : List.of();
+        ProgressPrinter.ProgressListener progressListener = options.progressListener;
+        StructureSink structureSink = options.structureSink;
+        CubiomesDiscovery cubiomesDiscovery = options.cubiomesDiscovery;
+        ShardSpec shard = options.shard;
+        ExtractionCache extractionCache = options.extractionCache;
+        RconPool rconPool = options.rconPool;
+        boolean adaptiveConcurrency = options.adaptiveConcurrency;
+        int extractTickBudgetMs = Math.max(0, options.extractTickBudgetMs);
         if (structureTargets == null || structureTargets.isEmpty()) {
             throw new IllegalArgumentException("Scan mode requires at least one --structure.");
         }
@@ -106,48 +88,20 @@ public final class WorldChestScanner {
         if (locateProgress != null) {
             locateProgress.info("scan: discovering structures...");
         }
-        List<StructureStart> starts = loadDiscoveryCache(discoveryCacheFile);
-        if (!starts.isEmpty()) {
-            if (locateProgress != null) {
-                locateProgress.info("scan: loaded " + starts.size() + " structure starts from cache.");
-            }
-        } else {
-            starts = new ArrayList<>();
-            for (Map.Entry<String, List<String>> entry : targetsByDimension.entrySet()) {
-                String dimension = entry.getKey();
-                List<String> structureFilter = entry.getValue();
-                List<StructureStart> startsForDim = List.of();
-                int pluginWorkUnits = samplePoints.size() * structureFilter.size();
-                boolean hasVillage = structureFilter.stream()
-                        .filter(id -> id != null)
-                        .map(id -> id.trim().toLowerCase())
-                        .anyMatch("minecraft:village"::equals);
-                boolean tryPluginDiscovery = !hasVillage
-                        && shouldUsePluginDiscovery(structureFilter.size(), pluginWorkUnits);
-                if (tryPluginDiscovery) {
-                    startsForDim = discoverStructureStartsViaPlugin(
-                            rcon, runDir, dimension, centerX, centerZ, radius, structureFilter, locateStep
-                    );
-                } else if (locateProgress != null) {
-                    if (hasVillage) {
-                        locateProgress.info("scan: plugin discovery disabled for minecraft:village (Paper locateNearestStructure can stall); using sampled /locate mode...");
-                    } else {
-                        locateProgress.info("scan: plugin discovery skipped for large workload (" + pluginWorkUnits
-                                + " locate operations) in " + dimension + "; using sampled /locate mode...");
-                    }
-                }
-                if (startsForDim.isEmpty()) {
-                    if (locateProgress != null) {
-                        locateProgress.info("scan: plugin discovery unavailable/empty in " + dimension + ", falling back to /locate samples...");
-                    }
-                    startsForDim = discoverStructureStarts(
-                            rcon, dimension, centerX, centerZ, radius, structureFilter, samplePoints, locateProgress
-                    );
-                }
-                starts.addAll(startsForDim);
-            }
-            saveDiscoveryCache(discoveryCacheFile, starts);
-        }
+        RconPool lanes = rconPool != null ? rconPool : RconPool.single(rcon);
+        List<StructureStart> starts = loadOrDiscoverStarts(
+                lanes.client(RconPool.Lane.DISCOVERY),
+                runDir,
+                centerX,
+                centerZ,
+                radius,
+                targetsByDimension,
+                discoveryCacheFile,
+                locateStep,
+                samplePoints,
+                cubiomesDiscovery,
+                locateProgress
+        );
 
         starts.sort(
                 Comparator
@@ -164,6 +118,18 @@ public final class WorldChestScanner {
             locateProgress.done("locate pass complete");
             locateProgress.info("scan: discovered " + starts.size() + " structure starts");
         }
+        if (shard != null && shard.count() > 1) {
+            List<StructureStart> owned = new ArrayList<>();
+            for (StructureStart start : starts) {
+                if (shard.owns(start.dimension, start.x, start.z)) {
+                    owned.add(start);
+                }
+            }
+            starts = owned;
+            if (locateProgress != null) {
+                locateProgress.info("scan: shard " + (shard.index() + 1) + "/" + shard.count() + " owns " + starts.size() + " structure starts");
+            }
+        }
         ScanReport report = new ScanReport();
         report.seed = 0L;
         report.dimension = targetsByDimension.size() == 1
@@ -186,169 +152,233 @@ public final class WorldChestScanner {
         if (extractProgress != null) {
             extractProgress.info("scan: extracting chest/container data from generated chunks...");
         }
-        Map<String, Integer> resultIndexByKey = new LinkedHashMap<>();
+        ScanResults results = new ScanResults(report, structureSink, extractionCache, extractChunkRadius);
         List<StructureStart> pending = new ArrayList<>();
         int resumedCount = 0;
+        int cachedCount = 0;
         for (StructureStart start : starts) {
             String key = structureKey(start.dimension, start.id, start.x, start.z);
             ScannedStructure resumed = resumeByKey.get(key);
             if (resumed != null) {
-                upsertSuccess(report, resultIndexByKey, resumed);
-                if (resumed.chunkStats != null) {
-                    report.totalChunksRequested += resumed.chunkStats.requested;
-                    report.totalChunksAlreadyLoaded += resumed.chunkStats.alreadyLoaded;
-                    report.totalChunksNewlyLoaded += resumed.chunkStats.newlyLoaded;
-                    report.totalChunksAlreadyGenerated += resumed.chunkStats.alreadyGenerated;
-                    report.totalChunksNewlyGenerated += resumed.chunkStats.newlyGenerated;
+                if (structureSink == null) {
+                    // With a sink attached, resumed structures are already on disk.
+                    upsertSuccess(results, resumed);
                 }
+                addChunkTotals(report, resumed.chunkStats);
                 resumedCount++;
                 if (extractProgress != null) {
                     extractProgress.step("resumed " + start.id + " at " + start.x + "," + start.z);
                 }
-            } else {
-                pending.add(start);
+                continue;
             }
+            List<ChestData> cachedChests = extractionCache != null
+                    ? extractionCache.lookup(start.dimension, start.id, start.x, start.z, chooseExtractChunkRadius(start.id, extractChunkRadius))
+                    : null;
+            if (cachedChests != null) {
+                // Cached structures load no chunks, so they add nothing to the chunk totals.
+                ScannedStructure cached = newStructure(start);
+                cached.chests.addAll(cachedChests);
+                upsertSuccess(results, cached);
+                cachedCount++;
+                if (extractProgress != null) {
+                    extractProgress.step("cached " + start.id + " at " + start.x + "," + start.z);
+                }
+                continue;
+            }
+            pending.add(start);
         }
         if (extractProgress != null && resumedCount > 0) {
             extractProgress.info("scan: resumed " + resumedCount + " completed structures from prior output.");
         }
+        if (extractProgress != null && cachedCount > 0) {
+            extractProgress.info("scan: reused " + cachedCount + " structures from the extraction cache.");
+        }
         final int maxAttempts = 3;
         final int maxParallelStructures = Math.min(8, Math.max(1, extractParallelStructureJobs));
         final int effectiveParallelChunkCount = Math.min(12, Math.max(1, extractParallelChunkCount));
         final int effectiveExtractStartTimeoutMs = Math.max(2_000, extractStartCommandTimeoutMs);
         final int effectiveExtractStatusTimeoutMs = Math.max(2_000, extractStatusReadTimeoutMs);
-        for (int attempt = 1; attempt <= maxAttempts && !pending.isEmpty(); attempt++) {
-            List<StructureStart> queue = new ArrayList<>(pending);
-            List<StructureStart> retryLater = new ArrayList<>();
-            if (extractProgress != null && attempt > 1) {
-                extractProgress.info("scan: retry pass " + attempt + " for " + pending.size() + " timed-out structures...");
-            }
-            List<ActiveExtractJob> activeJobs = new ArrayList<>();
-            while (!queue.isEmpty() || !activeJobs.isEmpty()) {
-                while (!queue.isEmpty() && activeJobs.size() < maxParallelStructures) {
-                    StructureStart start = queue.remove(0);
-                    int effectiveChunkRadius = chooseExtractChunkRadius(start.id, extractChunkRadius);
-                    String token = "scan-" + Instant.now().toEpochMilli() + "-" + (index++);
-                    String relativeOut = "out/" + token + ".json";
-                    Path outFile = pluginDataDir.resolve(token + ".json");
-                    Files.deleteIfExists(outFile);
-
-                    int commandTimeoutMs = Math.max(15_000, Math.min(300_000, extractTimeoutSec * 1000));
-                    String commandSuffix = start.dimension + " " + start.id + " " + start.x + " " + start.z + " "
-                            + effectiveChunkRadius + " " + relativeOut + " " + extractParallelChunks + " " + effectiveParallelChunkCount;
-                    String response;
-                    try {
-                        response = rcon.commandOnce("lootprobe_extract_start " + commandSuffix, effectiveExtractStartTimeoutMs);
-                    } catch (SocketTimeoutException timeout) {
-                        upsertTimeout(report, resultIndexByKey, start, "timeout pass " + attempt + "/" + maxAttempts);
-                        retryLater.add(start);
-                        if (extractProgress != null) {
-                            extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + effectiveChunkRadius);
-                        }
+        final int batchStallTimeoutMs = Math.max(15_000, Math.min(300_000, extractTimeoutSec * 1000));
+        // Adaptive mode starts from the configured limits; chunk depth only matters with parallel chunks on.
+        AdaptiveConcurrency adaptive = adaptiveConcurrency
+                ? new AdaptiveConcurrency(maxParallelStructures, extractParallelChunks ? effectiveParallelChunkCount : AdaptiveConcurrency.MAX_CHUNKS)
+                : null;
+        boolean batchSupported = true;
+        try (ExtractCompletionWatcher completionWatcher = ExtractCompletionWatcher.open(pluginDataDir)) {
+            for (int attempt = 1; attempt <= maxAttempts && !pending.isEmpty(); attempt++) {
+                List<StructureStart> queue = new ArrayList<>(pending);
+                List<StructureStart> retryLater = new ArrayList<>();
+                if (extractProgress != null && attempt > 1) {
+                    extractProgress.info("scan: retry pass " + attempt + " for " + pending.size() + " timed-out structures...");
+                }
+                if (batchSupported) {
+                    String batchToken = "batch-" + Instant.now().toEpochMilli() + "-" + (index++);
+                    batchSupported = runExtractBatchPass(
+                            lanes,
+                            mapper,
+                            completionWatcher,
+                            pluginDataDir,
+                            batchToken,
+                            queue,
+                            extractChunkRadius,
+                            extractParallelChunks,
+                            adaptive != null ? adaptive.chunks() : effectiveParallelChunkCount,
+                            adaptive != null ? adaptive.structures() : maxParallelStructures,
+                            adaptive,
+                            extractTickBudgetMs,
+                            batchStallTimeoutMs,
+                            effectiveExtractStartTimeoutMs,
+                            effectiveExtractStatusTimeoutMs,
+                            "pass " + attempt + "/" + maxAttempts,
+                            results,
+                            retryLater,
+                            extractProgress
+                    );
+                    if (batchSupported) {
+                        pending = retryLater;
                         continue;
                     }
-                    if (looksUnknownCommand(response)) {
-                        response = rcon.commandOnce("lootprobepaperplugin:lootprobe_extract_start " + commandSuffix, effectiveExtractStartTimeoutMs);
-                    }
-                    boolean asyncMode = !looksUnknownCommand(response) && parseExtractJobId(response) != null;
-                    if (!asyncMode) {
-                        // Fallback to legacy synchronous plugin command.
-                        response = rcon.commandOnce("lootprobe_extract " + commandSuffix, commandTimeoutMs);
-                        if (looksUnknownCommand(response)) {
-                            response = rcon.commandOnce("lootprobepaperplugin:lootprobe_extract " + commandSuffix, commandTimeoutMs);
-                        }
-                        if (looksUnknownCommand(response)) {
-                            throw new IOException("Plugin command not available. Response: " + response);
-                        }
-                        boolean wrote = waitForFile(outFile, extractTimeoutSec);
-                        if (!wrote) {
-                            upsertTimeout(report, resultIndexByKey, start, "timeout pass " + attempt + "/" + maxAttempts);
+                }
+                List<ActiveExtractJob> activeJobs = new ArrayList<>();
+                while (!queue.isEmpty() || !activeJobs.isEmpty()) {
+                    while (!queue.isEmpty() && activeJobs.size() < maxParallelStructures) {
+                        StructureStart start = queue.remove(0);
+                        int effectiveChunkRadius = chooseExtractChunkRadius(start.id, extractChunkRadius);
+                        String token = "scan-" + Instant.now().toEpochMilli() + "-" + (index++);
+                        String relativeOut = "out/" + token + ".json";
+                        Path outFile = pluginDataDir.resolve(token + ".json");
+                        Files.deleteIfExists(outFile);
+
+                        int commandTimeoutMs = Math.max(15_000, Math.min(300_000, extractTimeoutSec * 1000));
+                        String commandSuffix = start.dimension + " " + start.id + " " + start.x + " " + start.z + " "
+                                + effectiveChunkRadius + " " + relativeOut + " " + extractParallelChunks + " " + effectiveParallelChunkCount;
+                        String response;
+                        try {
+                            response = lanes.client(RconPool.Lane.SUBMIT).commandOnce("lootprobe_extract_start " + commandSuffix, effectiveExtractStartTimeoutMs);
+                        } catch (SocketTimeoutException timeout) {
+                            upsertTimeout(results, start, "timeout pass " + attempt + "/" + maxAttempts);
                             retryLater.add(start);
                             if (extractProgress != null) {
                                 extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + effectiveChunkRadius);
                             }
                             continue;
                         }
-                        consumeExtractOutput(mapper, outFile, start, report, resultIndexByKey);
-                        if (extractProgress != null) {
-                            extractProgress.step("extracted " + start.id + " at " + start.x + "," + start.z + " r=" + effectiveChunkRadius);
+                        if (looksUnknownCommand(response)) {
+                            response = lanes.client(RconPool.Lane.SUBMIT).commandOnce("lootprobepaperplugin:lootprobe_extract_start " + commandSuffix, effectiveExtractStartTimeoutMs);
+                        }
+                        boolean asyncMode = !looksUnknownCommand(response) && parseExtractJobId(response) != null;
+                        if (!asyncMode) {
+                            // Fallback to legacy synchronous plugin command.
+                            response = lanes.client(RconPool.Lane.SUBMIT).commandOnce("lootprobe_extract " + commandSuffix, commandTimeoutMs);
+                            if (looksUnknownCommand(response)) {
+                                response = lanes.client(RconPool.Lane.SUBMIT).commandOnce("lootprobepaperplugin:lootprobe_extract " + commandSuffix, commandTimeoutMs);
+                            }
+                            if (looksUnknownCommand(response)) {
+                                throw new IOException("Plugin command not available. Response: " + response);
+                            }
+                            boolean wrote = waitForFile(outFile, extractTimeoutSec);
+                            if (!wrote) {
+                                upsertTimeout(results, start, "timeout pass " + attempt + "/" + maxAttempts);
+                                retryLater.add(start);
+                                if (extractProgress != null) {
+                                    extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + effectiveChunkRadius);
+                                }
+                                continue;
+                            }
+                            consumeExtractOutput(mapper, outFile, start, results);
+                            if (extractProgress != null) {
+                                extractProgress.step("extracted " + start.id + " at " + start.x + "," + start.z + " r=" + effectiveChunkRadius);
+                            }
+                            continue;
                         }
-                        continue;
-                    }
-
-                    ActiveExtractJob job = new ActiveExtractJob();
-                    job.start = start;
-                    job.jobId = parseExtractJobId(response);
-                    job.outFile = outFile;
-                    job.effectiveChunkRadius = effectiveChunkRadius;
-                    job.deadlineMs = System.currentTimeMillis() + commandTimeoutMs;
-                    activeJobs.add(job);
-                }
 
-                if (activeJobs.isEmpty()) {
-                    continue;
-                }
+                        ActiveExtractJob job = new ActiveExtractJob();
+                        job.start = start;
+                        job.jobId = parseExtractJobId(response);
+                        job.outFile = outFile;
+                        job.effectiveChunkRadius = effectiveChunkRadius;
+                        job.deadlineMs = System.currentTimeMillis() + commandTimeoutMs;
+                        job.pushCompletion = response.contains("completion_log=");
+                        job.nextStatusPollMs = System.currentTimeMillis()
+                                + (job.pushCompletion ? PUSH_FALLBACK_STATUS_POLL_MS : LEGACY_STATUS_POLL_MS);
+                        activeJobs.add(job);
+                    }
 
-                Thread.sleep(200);
-                long now = System.currentTimeMillis();
-                for (int i = activeJobs.size() - 1; i >= 0; i--) {
-                    ActiveExtractJob active = activeJobs.get(i);
-                    StructureStart start = active.start;
-                    if (now >= active.deadlineMs) {
-                        upsertTimeout(report, resultIndexByKey, start, "timeout pass " + attempt + "/" + maxAttempts);
-                        retryLater.add(start);
-                        if (extractProgress != null) {
-                            extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + active.effectiveChunkRadius);
-                        }
-                        activeJobs.remove(i);
+                    if (activeJobs.isEmpty()) {
                         continue;
                     }
 
-                    String status;
-                    try {
-                        status = rcon.commandOnce("lootprobe_extract_status " + active.jobId, effectiveExtractStatusTimeoutMs);
-                        if (looksUnknownCommand(status)) {
-                            status = rcon.commandOnce(
-                                    "lootprobepaperplugin:lootprobe_extract_status " + active.jobId,
-                                    effectiveExtractStatusTimeoutMs
-                            );
+                    boolean allPush = activeJobs.stream().allMatch(job -> job.pushCompletion);
+                    Map<String, String> pushed = completionWatcher.awaitCompletions(
+                            allPush ? PUSH_COMPLETION_WAIT_MS : LEGACY_STATUS_POLL_MS
+                    );
+                    long now = System.currentTimeMillis();
+                    for (int i = activeJobs.size() - 1; i >= 0; i--) {
+                        ActiveExtractJob active = activeJobs.get(i);
+                        StructureStart start = active.start;
+                        String status = pushed.get(active.jobId);
+                        if (status == null && now >= active.deadlineMs) {
+                            upsertTimeout(results, start, "timeout pass " + attempt + "/" + maxAttempts);
+                            retryLater.add(start);
+                            if (extractProgress != null) {
+                                extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + active.effectiveChunkRadius);
+                            }
+                            activeJobs.remove(i);
+                            continue;
                         }
-                    } catch (SocketTimeoutException timeout) {
-                        // Under heavy worldgen/load, status replies can be delayed.
-                        // Keep polling until the per-job deadline instead of aborting the full scan.
-                        continue;
-                    }
-                    String normalized = status != null ? status.trim().toLowerCase() : "";
-                    if (normalized.startsWith("failed")) {
-                        upsertTimeout(report, resultIndexByKey, start, "failed pass " + attempt + "/" + maxAttempts);
-                        retryLater.add(start);
-                        if (extractProgress != null) {
-                            extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + active.effectiveChunkRadius);
+
+                        if (status == null) {
+                            status = takeStatusReply(active, now, effectiveExtractStatusTimeoutMs);
+                            if (status != null && looksUnknownCommand(status)) {
+                                active.statusCommand = "lootprobepaperplugin:lootprobe_extract_status ";
+                                active.nextStatusPollMs = now;
+                                status = null;
+                            }
                         }
-                        activeJobs.remove(i);
-                        continue;
-                    }
-                    if (!normalized.startsWith("done")) {
-                        continue;
-                    }
-                    boolean wrote = waitForFile(active.outFile, extractTimeoutSec);
-                    if (!wrote) {
-                        upsertTimeout(report, resultIndexByKey, start, "timeout pass " + attempt + "/" + maxAttempts);
-                        retryLater.add(start);
+                        if (status == null) {
+                            // Push notifications cover the common case; status polling stays as a fallback
+                            // for older plugins and for completions the watcher may have missed.
+                            if (active.statusReply != null || now < active.nextStatusPollMs) {
+                                continue;
+                            }
+                            active.nextStatusPollMs = now + (active.pushCompletion ? PUSH_FALLBACK_STATUS_POLL_MS : LEGACY_STATUS_POLL_MS);
+                            active.statusSentMs = now;
+                            // Status reads go out on their own lane without waiting, so new jobs keep being submitted.
+                            active.statusReply = lanes.client(RconPool.Lane.STATUS).commandAsync(active.statusCommand + active.jobId);
+                            continue;
+                        }
+                        String normalized = status != null ? status.trim().toLowerCase() : "";
+                        if (normalized.startsWith("failed")) {
+                            upsertTimeout(results, start, "failed pass " + attempt + "/" + maxAttempts);
+                            retryLater.add(start);
+                            if (extractProgress != null) {
+                                extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + active.effectiveChunkRadius);
+                            }
+                            activeJobs.remove(i);
+                            continue;
+                        }
+                        if (!normalized.startsWith("done")) {
+                            continue;
+                        }
+                        boolean wrote = waitForFile(active.outFile, extractTimeoutSec);
+                        if (!wrote) {
+                            upsertTimeout(results, start, "timeout pass " + attempt + "/" + maxAttempts);
+                            retryLater.add(start);
+                            if (extractProgress != null) {
+                                extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + active.effectiveChunkRadius);
+                            }
+                            activeJobs.remove(i);
+                            continue;
+                        }
+                        consumeExtractOutput(mapper, active.outFile, start, results);
                         if (extractProgress != null) {
-                            extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + active.effectiveChunkRadius);
+                            extractProgress.step("extracted " + start.id + " at " + start.x + "," + start.z + " r=" + active.effectiveChunkRadius);
                         }
                         activeJobs.remove(i);
-                        continue;
                     }
-                    consumeExtractOutput(mapper, active.outFile, start, report, resultIndexByKey);
-                    if (extractProgress != null) {
-                        extractProgress.step("extracted " + start.id + " at " + start.x + "," + start.z + " r=" + active.effectiveChunkRadius);
-                    }
-                    activeJobs.remove(i);
                 }
+                pending = retryLater;
             }
-            pending = retryLater;
         }
         if (extractProgress != null && !pending.isEmpty()) {
             extractProgress.info("scan: failed structures after retries (" + pending.size() + "):");
@@ -359,33 +389,303 @@ public final class WorldChestScanner {
         if (extractProgress != null) {
             extractProgress.done("extraction complete");
         }
+        results.flushFailures();
 
-        report.structures.sort(
-                Comparator
-                        .comparingInt((ScannedStructure s) -> dimensionOrder(s.dimension))
-                        .thenComparing(s -> s.id != null ? s.id : "")
-                        .thenComparingLong(s -> dist2(centerX, centerZ, s.x, s.z))
-                        .thenComparingInt(s -> s.x)
-                        .thenComparingInt(s -> s.z)
-        );
+        report.structures.sort(structureOrder(centerX, centerZ));
         return report;
     }
 
+    /**
+     * Combines per-shard reports of one sharded scan into a single report.
+     */
+    public static ScanReport mergeReports(List<ScanReport> reports, int centerX, int centerZ, int radius) {
+        ScanReport merged = new ScanReport();
+        merged.centerX = centerX;
+        merged.centerZ = centerZ;
+        merged.radius = radius;
+        for (ScanReport report : reports) {
+            if (report == null) {
+                continue;
+            }
+            if (merged.dimension == null) {
+                merged.dimension = report.dimension;
+            } else if (report.dimension != null && !merged.dimension.equals(report.dimension)) {
+                merged.dimension = "mixed";
+            }
+            merged.locateSampleCount = Math.max(merged.locateSampleCount, report.locateSampleCount);
+            merged.totalChunksRequested += report.totalChunksRequested;
+            merged.totalChunksAlreadyLoaded += report.totalChunksAlreadyLoaded;
+            merged.totalChunksNewlyLoaded += report.totalChunksNewlyLoaded;
+            merged.totalChunksAlreadyGenerated += report.totalChunksAlreadyGenerated;
+            merged.totalChunksNewlyGenerated += report.totalChunksNewlyGenerated;
+            merged.totalChunksShared += report.totalChunksShared;
+            merged.structures.addAll(report.structures);
+        }
+        merged.structures.sort(structureOrder(centerX, centerZ));
+        return merged;
+    }
+
+    static Comparator<ScannedStructure> structureOrder(int centerX, int centerZ) {
+        return Comparator
+                .comparingInt((ScannedStructure s) -> dimensionOrder(s.dimension))
+                .thenComparing(s -> s.id != null ? s.id : "")
+                .thenComparingLong(s -> dist2(centerX, centerZ, s.x, s.z))
+                .thenComparingInt(s -> s.x)
+                .thenComparingInt(s -> s.z);
+    }
+
+    /**
+     * Submits every queued structure in one manifest and follows the plugin's NDJSON results file.
+     * Returns false when the plugin has no batch command, so the caller can fall back to per-structure jobs.
+     */
+    private static boolean runExtractBatchPass(
+            RconPool lanes,
+            ObjectMapper mapper,
+            ExtractCompletionWatcher completionWatcher,
+            Path pluginDataDir,
+            String token,
+            List<StructureStart> queue,
+            int extractChunkRadius,
+            boolean extractParallelChunks,
+            int parallelChunkCount,
+            int parallelStructures,
+            AdaptiveConcurrency adaptive,
+            int processBudgetMs,
+            int stallTimeoutMs,
+            int startTimeoutMs,
+            int statusTimeoutMs,
+            String passLabel,
+            ScanResults results,
+            List<StructureStart> retryLater,
+            ProgressPrinter extractProgress
+    ) throws IOException, InterruptedException {
+        Map<String, StructureStart> outstanding = new LinkedHashMap<>();
+        Map<String, Integer> radiusByKey = new HashMap<>();
+        ExtractBatchManifest manifest = new ExtractBatchManifest();
+        manifest.processBudgetMs = processBudgetMs;
+        for (int i = 0; i < queue.size(); i++) {
+            StructureStart start = queue.get(i);
+            ExtractBatchEntry entry = new ExtractBatchEntry();
+            entry.key = token + "-" + i;
+            entry.dimension = start.dimension;
+            entry.structureId = start.id;
+            entry.centerX = start.x;
+            entry.centerZ = start.z;
+            entry.chunkRadius = chooseExtractChunkRadius(start.id, extractChunkRadius);
+            entry.parallelChunks = extractParallelChunks;
+            entry.parallelChunkCount = parallelChunkCount;
+            manifest.entries.add(entry);
+            outstanding.put(entry.key, start);
+            radiusByKey.put(entry.key, entry.chunkRadius);
+        }
+        Path manifestFile = pluginDataDir.resolve(token + "-manifest.json");
+        Path resultsFile = pluginDataDir.resolve(token + "-results.ndjson");
+        Files.deleteIfExists(resultsFile);
+        mapper.writeValue(manifestFile.toFile(), manifest);
+
+        String commandSuffix = "out/" + manifestFile.getFileName() + " out/" + resultsFile.getFileName() + " " + parallelStructures;
+        String response;
+        try {
+            RconClient submit = lanes.client(RconPool.Lane.SUBMIT);
+            response = submit.commandOnce("lootprobe_extract_batch " + commandSuffix, startTimeoutMs);
+            if (looksUnknownCommand(response)) {
+                response = submit.commandOnce("lootprobepaperplugin:lootprobe_extract_batch " + commandSuffix, startTimeoutMs);
+            }
+        } catch (SocketTimeoutException timeout) {
+            for (Map.Entry<String, StructureStart> e : outstanding.entrySet()) {
+                deferBatchEntry(results, e.getValue(), radiusByKey.get(e.getKey()), "timeout " + passLabel, retryLater, extractProgress);
+            }
+            return true;
+        }
+        String batchId = parseExtractBatchId(response);
+        if (looksUnknownCommand(response) || batchId == null) {
+            Files.deleteIfExists(manifestFile);
+            return false;
+        }
+
+        AppendOnlyLineReader resultLines = new AppendOnlyLineReader(resultsFile, 0L);
+        long lastProgressMs = System.currentTimeMillis();
+        long nextStatusPollMs = lastProgressMs + PUSH_FALLBACK_STATUS_POLL_MS;
+        long nextAdaptiveSampleMs = lastProgressMs + ADAPTIVE_SAMPLE_MS;
+        boolean batchFinished = false;
+        boolean retune = false;
+        if (adaptive != null) {
+            adaptive.resetCounters();
+        }
+        while (!outstanding.isEmpty()) {
+            Map<String, String> pushed = completionWatcher.awaitCompletions(PUSH_COMPLETION_WAIT_MS);
+            boolean progressed = false;
+            for (String line : resultLines.readNewLines()) {
+                PluginStructureDump dump = mapper.readValue(line, PluginStructureDump.class);
+                String key = dump != null ? dump.jobId : null;
+                StructureStart start = key != null ? outstanding.remove(key) : null;
+                if (start == null) {
+                    continue;
+                }
+                consumeExtractDump(dump, start, results);
+                if (extractProgress != null) {
+                    extractProgress.step("extracted " + start.id + " at " + start.x + "," + start.z + " r=" + radiusByKey.get(key));
+                }
+                progressed = true;
+            }
+            for (Map.Entry<String, String> e : pushed.entrySet()) {
+                if (!e.getValue().toLowerCase().startsWith("failed")) {
+                    continue;
+                }
+                StructureStart start = outstanding.remove(e.getKey());
+                if (start == null) {
+                    continue;
+                }
+                deferBatchEntry(results, start, radiusByKey.get(e.getKey()), "failed " + passLabel, retryLater, extractProgress);
+                progressed = true;
+            }
+            long now = System.currentTimeMillis();
+            if (adaptive != null && now >= nextAdaptiveSampleMs) {
+                nextAdaptiveSampleMs = now + ADAPTIVE_SAMPLE_MS;
+                AdaptiveConcurrency.Sample sample = AdaptiveConcurrency.Sample.parse(queryBatchStatus(lanes, batchId, statusTimeoutMs));
+                boolean changed = sample != null && adaptive.update(sample);
+                if (changed || retune) {
+                    retune = !tuneBatch(lanes, batchId, adaptive, statusTimeoutMs);
+                }
+                if (changed && extractProgress != null) {
+                    extractProgress.info("scan: adaptive parallelism structures=" + adaptive.structures()
+                            + " chunks=" + adaptive.chunks() + " (" + adaptive.lastReason() + ")");
+                }
+                now = System.currentTimeMillis();
+            }
+            if (progressed) {
+                lastProgressMs = now;
+                continue;
+            }
+            if (batchFinished) {
+                // Batch reported done and a final drain found nothing more for the remaining keys.
+                break;
+            }
+            if (now >= nextStatusPollMs) {
+                nextStatusPollMs = now + PUSH_FALLBACK_STATUS_POLL_MS;
+                String status = queryBatchStatus(lanes, batchId, statusTimeoutMs);
+                String normalized = status != null ? status.trim().toLowerCase() : "";
+                if (normalized.startsWith("done") || normalized.startsWith("not_found")) {
+                    batchFinished = true;
+                    continue;
+                }
+            }
+            if (now - lastProgressMs >= stallTimeoutMs) {
+                try {
+                    lanes.client(RconPool.Lane.SUBMIT).commandOnce("lootprobe_extract_batch_cancel " + batchId, statusTimeoutMs);
+                } catch (SocketTimeoutException ignored) {
+                }
+                break;
+            }
+        }
+        for (Map.Entry<String, StructureStart> e : outstanding.entrySet()) {
+            deferBatchEntry(results, e.getValue(), radiusByKey.get(e.getKey()), "timeout " + passLabel, retryLater, extractProgress);
+        }
+        Files.deleteIfExists(manifestFile);
+        return true;
+    }
+
+    private static String queryBatchStatus(RconPool lanes, String batchId, int statusTimeoutMs) throws IOException {
+        try {
+            RconClient statusRcon = lanes.client(RconPool.Lane.STATUS);
+            String status = statusRcon.commandOnce("lootprobe_extract_batch_status " + batchId, statusTimeoutMs);
+            if (looksUnknownCommand(status)) {
+                status = statusRcon.commandOnce("lootprobepaperplugin:lootprobe_extract_batch_status " + batchId, statusTimeoutMs);
+            }
+            return status;
+        } catch (SocketTimeoutException timeout) {
+            // Status replies can lag under heavy worldgen; the stall timeout still applies.
+            return "";
+        }
+    }
+
+    /**
+     * Sends the controller's current limits to the plugin. Returns false when the reply timed out, so the caller retries.
+     */
+    private static boolean tuneBatch(RconPool lanes, String batchId, AdaptiveConcurrency adaptive, int timeoutMs) throws IOException {
+        String suffix = batchId + " " + adaptive.structures() + " " + adaptive.chunks();
+        try {
+            RconClient submit = lanes.client(RconPool.Lane.SUBMIT);
+            String response = submit.commandOnce("lootprobe_extract_batch_tune " + suffix, timeoutMs);
+            if (looksUnknownCommand(response)) {
+                submit.commandOnce("lootprobepaperplugin:lootprobe_extract_batch_tune " + suffix, timeoutMs);
+            }
+            return true;
+        } catch (SocketTimeoutException timeout) {
+            return false;
+        }
+    }
+
+    private static String takeStatusReply(ActiveExtractJob job, long now, int timeoutMs) {
+        CompletableFuture<String> reply = job.statusReply;
+        if (reply == null) {
+            return null;
+        }
+        if (!reply.isDone()) {
+            if (now - job.statusSentMs >= timeoutMs) {
+                // Under heavy worldgen/load, status replies can be delayed.
+                // Keep polling until the per-job deadline instead of aborting the full scan.
+                job.statusReply = null;
+            }
+            return null;
+        }
+        job.statusReply = null;
+        try {
+            return reply.join();
+        } catch (CompletionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    private static void deferBatchEntry(
+            ScanResults results,
+            StructureStart start,
+            Integer chunkRadius,
+            String error,
+            List<StructureStart> retryLater,
+            ProgressPrinter extractProgress
+    ) {
+        upsertTimeout(results, start, error);
+        retryLater.add(start);
+        if (extractProgress != null) {
+            extractProgress.step("deferred " + start.id + " at " + start.x + "," + start.z + " r=" + chunkRadius);
+        }
+    }
+
+    private static String parseExtractBatchId(String response) {
+        if (response == null) {
+            return null;
+        }
+        String s = response.trim();
+        int idx = s.indexOf("batch=");
+        if (idx < 0) {
+            return null;
+        }
+        int start = idx + 6;
+        int end = s.indexOf(' ', start);
+        if (end < 0) {
+            end = s.length();
+        }
+        String id = s.substring(start, end).trim();
+        return id.isBlank() ? null : id;
+    }
+
     private static void consumeExtractOutput(
             ObjectMapper mapper,
             Path outFile,
             StructureStart start,
-            ScanReport report,
-            Map<String, Integer> resultIndexByKey
+            ScanResults results
     ) throws IOException {
         PluginStructureDump dump = mapper.readValue(outFile.toFile(), PluginStructureDump.class);
-        ScannedStructure structure = new ScannedStructure();
-        structure.id = start.id;
-        structure.dimension = start.dimension;
-        structure.type = shortType(start.id);
-        structure.x = start.x;
-        structure.y = start.y;
-        structure.z = start.z;
+        consumeExtractDump(dump, start, results);
+    }
+
+    private static void consumeExtractDump(
+            PluginStructureDump dump,
+            StructureStart start,
+            ScanResults results
+    ) throws IOException {
+        ScannedStructure structure = newStructure(start);
         if (dump != null && dump.chests != null) {
             for (ChestData chest : dump.chests) {
                 structure.chests.add(chest);
@@ -393,14 +693,43 @@ public final class WorldChestScanner {
         }
         if (dump != null && dump.chunkStats != null) {
             structure.chunkStats = dump.chunkStats;
-            report.totalChunksRequested += dump.chunkStats.requested;
-            report.totalChunksAlreadyLoaded += dump.chunkStats.alreadyLoaded;
-            report.totalChunksNewlyLoaded += dump.chunkStats.newlyLoaded;
-            report.totalChunksAlreadyGenerated += dump.chunkStats.alreadyGenerated;
-            report.totalChunksNewlyGenerated += dump.chunkStats.newlyGenerated;
+            addChunkTotals(results.report, dump.chunkStats);
         }
         structure.chests.sort(Comparator.comparingInt((ChestData c) -> c.x).thenComparingInt(c -> c.z).thenComparingInt(c -> c.y));
-        upsertSuccess(report, resultIndexByKey, structure);
+        if (dump != null && results.extractionCache != null) {
+            results.extractionCache.store(
+                    start.dimension,
+                    start.id,
+                    start.x,
+                    start.z,
+                    chooseExtractChunkRadius(start.id, results.extractChunkRadius),
+                    structure.chests
+            );
+        }
+        upsertSuccess(results, structure);
+    }
+
+    private static ScannedStructure newStructure(StructureStart start) {
+        ScannedStructure structure = new ScannedStructure();
+        structure.id = start.id;
+        structure.dimension = start.dimension;
+        structure.type = shortType(start.id);
+        structure.x = start.x;
+        structure.y = start.y;
+        structure.z = start.z;
+        return structure;
+    }
+
+    private static void addChunkTotals(ScanReport report, ChunkStats stats) {
+        if (stats == null) {
+            return;
+        }
+        report.totalChunksRequested += stats.requested;
+        report.totalChunksAlreadyLoaded += stats.alreadyLoaded;
+        report.totalChunksNewlyLoaded += stats.newlyLoaded;
+        report.totalChunksAlreadyGenerated += stats.alreadyGenerated;
+        report.totalChunksNewlyGenerated += stats.newlyGenerated;
+        report.totalChunksShared += stats.shared;
     }
 
     private static Map<String, ScannedStructure> indexResumableStructures(List<ScannedStructure> resumeStructures) {
@@ -422,13 +751,11 @@ public final class WorldChestScanner {
     }
 
     private static void upsertTimeout(
-            ScanReport report,
-            Map<String, Integer> indexByKey,
+            ScanResults results,
             StructureStart start,
             String error
     ) {
         String key = structureKey(start.dimension, start.id, start.x, start.z);
-        Integer idx = indexByKey.get(key);
         ScannedStructure timedOut = new ScannedStructure();
         timedOut.id = start.id;
         timedOut.dimension = start.dimension;
@@ -437,8 +764,15 @@ public final class WorldChestScanner {
         timedOut.y = start.y;
         timedOut.z = start.z;
         timedOut.error = error;
+        if (results.sink != null) {
+            // Failures may still succeed on a retry pass; they are written once the passes are over.
+            results.failedByKey.put(key, timedOut);
+            return;
+        }
+        Integer idx = results.indexByKey.get(key);
+        ScanReport report = results.report;
         if (idx == null) {
-            indexByKey.put(key, report.structures.size());
+            results.indexByKey.put(key, report.structures.size());
             report.structures.add(timedOut);
         } else {
             report.structures.set(idx, timedOut);
@@ -446,14 +780,19 @@ public final class WorldChestScanner {
     }
 
     private static void upsertSuccess(
-            ScanReport report,
-            Map<String, Integer> indexByKey,
+            ScanResults results,
             ScannedStructure structure
-    ) {
+    ) throws IOException {
         String key = structureKey(structure.dimension, structure.id, structure.x, structure.z);
-        Integer idx = indexByKey.get(key);
+        if (results.sink != null) {
+            results.failedByKey.remove(key);
+            results.sink.accept(structure);
+            return;
+        }
+        Integer idx = results.indexByKey.get(key);
+        ScanReport report = results.report;
         if (idx == null) {
-            indexByKey.put(key, report.structures.size());
+            results.indexByKey.put(key, report.structures.size());
             report.structures.add(structure);
         } else {
             report.structures.set(idx, structure);
@@ -519,16 +858,6 @@ public final class WorldChestScanner {
         }
     }
 
-    private static boolean shouldUsePluginDiscovery(int structureCount, int workUnits) {
-        if (structureCount <= 0) {
-            return false;
-        }
-        if (structureCount > PLUGIN_DISCOVERY_MAX_STRUCTURES) {
-            return false;
-        }
-        return workUnits <= PLUGIN_DISCOVERY_MAX_WORK_UNITS;
-    }
-
     private static int chooseExtractChunkRadius(String structureId, int requestedRadius) {
         int requested = Math.max(2, requestedRadius);
         String id = structureId != null ? structureId.toLowerCase() : "";
@@ -606,6 +935,196 @@ public final class WorldChestScanner {
         return id.isEmpty() ? null : id;
     }
 
+    /**
+     * Runs discovery once and stores it in the discovery cache, so several scans sharing that cache skip it.
+     */
+    public static int prepareDiscoveryCache(
+            RconClient rcon,
+            Path runDir,
+            int centerX,
+            int centerZ,
+            int radius,
+            List<ProbeConfig.StructureTarget> structureTargets,
+            Path discoveryCacheFile,
+            int locateStep,
+            CubiomesDiscovery cubiomesDiscovery,
+            ProgressPrinter.ProgressListener progressListener
+    ) throws Exception {
+        Map<String, List<String>> targetsByDimension = groupTargetsByDimension(structureTargets);
+        if (targetsByDimension.isEmpty()) {
+            throw new IllegalArgumentException("Scan mode requires at least one valid structure target.");
+        }
+        List<Point> samplePoints = buildSamplePoints(centerX, centerZ, radius, locateStep);
+        int totalStructures = targetsByDimension.values().stream().mapToInt(List::size).sum();
+        ProgressPrinter locateProgress = new ProgressPrinter(Math.max(samplePoints.size() * totalStructures, 1), 30, progressListener);
+        locateProgress.info("scan: discovering structures...");
+        List<StructureStart> starts = loadOrDiscoverStarts(
+                rcon,
+                runDir,
+                centerX,
+                centerZ,
+                radius,
+                targetsByDimension,
+                discoveryCacheFile,
+                locateStep,
+                samplePoints,
+                cubiomesDiscovery,
+                locateProgress
+        );
+        locateProgress.done("locate pass complete");
+        return starts.size();
+    }
+
+    private static List<StructureStart> loadOrDiscoverStarts(
+            RconClient rcon,
+            Path runDir,
+            int centerX,
+            int centerZ,
+            int radius,
+            Map<String, List<String>> targetsByDimension,
+            Path discoveryCacheFile,
+            int locateStep,
+            List<Point> samplePoints,
+            CubiomesDiscovery cubiomesDiscovery,
+            ProgressPrinter locateProgress
+    ) throws Exception {
+        List<StructureStart> starts = loadDiscoveryCache(discoveryCacheFile);
+        if (!starts.isEmpty()) {
+            if (locateProgress != null) {
+                locateProgress.info("scan: loaded " + starts.size() + " structure starts from cache.");
+            }
+        } else {
+            starts = new ArrayList<>();
+            boolean partial = false;
+            for (Map.Entry<String, List<String>> entry : targetsByDimension.entrySet()) {
+                String dimension = entry.getKey();
+                List<String> structureFilter = entry.getValue();
+                if (cubiomesDiscovery != null) {
+                    List<String> cubiomesIds = new ArrayList<>();
+                    List<String> remaining = new ArrayList<>();
+                    for (String id : structureFilter) {
+                        if (cubiomesDiscovery.handles(id, dimension)) {
+                            cubiomesIds.add(id);
+                        } else {
+                            remaining.add(id);
+                        }
+                    }
+                    if (!cubiomesIds.isEmpty()) {
+                        List<StructureStart> cubiomesStarts = discoverStructureStartsViaCubiomes(
+                                cubiomesDiscovery, dimension, centerX, centerZ, radius, cubiomesIds, locateProgress
+                        );
+                        if (cubiomesStarts != null) {
+                            starts.addAll(cubiomesStarts);
+                            structureFilter = remaining;
+                            if (locateProgress != null) {
+                                locateProgress.info("scan: cubiomes enumerated " + cubiomesStarts.size() + " starts for "
+                                        + cubiomesIds.size() + " vanilla structure ids in " + dimension + ".");
+                            }
+                        }
+                    }
+                    if (structureFilter.isEmpty()) {
+                        continue;
+                    }
+                }
+                List<StructureStart> placementStarts = discoverStructureStartsViaPlacements(
+                        rcon, runDir, dimension, centerX, centerZ, radius, structureFilter, locateProgress
+                );
+                if (placementStarts != null) {
+                    starts.addAll(placementStarts);
+                    if (locateProgress != null) {
+                        locateProgress.info("scan: plugin enumerated " + placementStarts.size() + " starts from structure placements for "
+                                + structureFilter.size() + " structure ids in " + dimension + ".");
+                    }
+                    continue;
+                }
+                PluginDiscovery job = discoverStructureStartsViaPluginJob(
+                        rcon, runDir, dimension, centerX, centerZ, radius, structureFilter, locateStep, locateProgress
+                );
+                List<StructureStart> startsForDim = job != null ? job.starts() : null;
+                if (job != null && job.partial()) {
+                    partial = true;
+                }
+                if (startsForDim == null) {
+                    startsForDim = discoverStructureStartsViaPlugin(
+                            rcon, runDir, dimension, centerX, centerZ, radius, structureFilter, locateStep
+                    );
+                }
+                if (startsForDim.isEmpty()) {
+                    if (locateProgress != null) {
+                        locateProgress.info("scan: plugin discovery unavailable/empty in " + dimension + ", falling back to /locate samples...");
+                    }
+                    startsForDim = discoverStructureStarts(
+                            rcon, dimension, centerX, centerZ, radius, structureFilter, samplePoints, locateProgress
+                    );
+                }
+                starts.addAll(startsForDim);
+            }
+            if (partial) {
+                // A cached partial list would be reused as complete by every later run.
+                if (locateProgress != null) {
+                    locateProgress.info("scan: discovery was incomplete; not caching its " + starts.size() + " starts.");
+                }
+            } else {
+                saveDiscoveryCache(discoveryCacheFile, starts);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Enumerates exact start positions from seed math instead of sampling /locate.
+     * Returns null when the native bridge fails, so the caller keeps the server-side discovery for these ids.
+     */
+    private static List<StructureStart> discoverStructureStartsViaCubiomes(
+            CubiomesDiscovery cubiomes,
+            String dimension,
+            int centerX,
+            int centerZ,
+            int radius,
+            List<String> structureIds,
+            ProgressPrinter progress
+    ) {
+        List<StructureStart> out = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String structureId : structureIds) {
+            List<CubiomesBridge.StructurePoint> points = cubiomes.bridge().generateStructures(
+                    cubiomes.seed(),
+                    cubiomes.mcVersion(),
+                    dimension,
+                    centerX - radius,
+                    centerZ - radius,
+                    centerX + radius,
+                    centerZ + radius,
+                    List.of(structureId),
+                    CUBIOMES_MAX_STARTS_PER_STRUCTURE
+            );
+            if (points.isEmpty() && !cubiomes.bridge().getLastError().isBlank()) {
+                if (progress != null) {
+                    progress.info("scan: cubiomes discovery failed for " + structureId + " (" + cubiomes.bridge().getLastError()
+                            + "); using server-side discovery...");
+                }
+                return null;
+            }
+            for (CubiomesBridge.StructurePoint point : points) {
+                if (dist2(centerX, centerZ, point.x(), point.z()) > (long) radius * radius) {
+                    continue;
+                }
+                String key = structureId + "|" + (point.x() >> 4) + "|" + (point.z() >> 4);
+                if (!seen.add(key)) {
+                    continue;
+                }
+                StructureStart start = new StructureStart();
+                start.id = structureId;
+                start.dimension = dimension;
+                start.x = point.x();
+                start.y = 0;
+                start.z = point.z();
+                out.add(start);
+            }
+        }
+        return out;
+    }
+
     private static List<StructureStart> discoverStructureStarts(
             RconClient rcon,
             String dimension,
@@ -622,26 +1141,28 @@ public final class WorldChestScanner {
 
         for (String structureId : structureFilter) {
             int before = out.size();
-            for (Point p : samplePoints) {
-                String response = rcon.command("execute in " + dimension + " positioned " + p.x + " 80 " + p.z + " run locate structure " + structureId);
-                Coords coords = parseLocateCoords(response);
-                if (coords != null && dist2(centerX, centerZ, coords.x, coords.z) <= (long) radius * radius) {
-                    String key = structureId + "|" + (coords.x >> 4) + "|" + (coords.z >> 4);
-                    if (seen.add(key)) {
-                        StructureStart start = new StructureStart();
-                        start.id = structureId;
-                        start.dimension = dimension;
-                        start.x = coords.x;
-                        start.y = coords.y != null ? coords.y : 0;
-                        start.z = coords.z;
-                        out.add(start);
+            for (int from = 0; from < samplePoints.size(); from += LOCATE_WINDOW) {
+                List<Point> window = samplePoints.subList(from, Math.min(samplePoints.size(), from + LOCATE_WINDOW));
+                for (String response : locateAll(rcon, dimension, structureId, window)) {
+                    Coords coords = parseLocateCoords(response);
+                    if (coords != null && dist2(centerX, centerZ, coords.x, coords.z) <= (long) radius * radius) {
+                        String key = structureId + "|" + (coords.x >> 4) + "|" + (coords.z >> 4);
+                        if (seen.add(key)) {
+                            StructureStart start = new StructureStart();
+                            start.id = structureId;
+                            start.dimension = dimension;
+                            start.x = coords.x;
+                            start.y = coords.y != null ? coords.y : 0;
+                            start.z = coords.z;
+                            out.add(start);
+                        }
+                    } else if (coords == null && progress != null && unparsedExamples < 3) {
+                        progress.info("scan: locate response could not be parsed for " + structureId + ": " + summarizeResponse(response));
+                        unparsedExamples++;
+                    }
+                    if (progress != null) {
+                        progress.step("locating " + structureId);
                     }
-                } else if (coords == null && progress != null && unparsedExamples < 3) {
-                    progress.info("scan: locate response could not be parsed for " + structureId + ": " + summarizeResponse(response));
-                    unparsedExamples++;
-                }
-                if (progress != null) {
-                    progress.step("locating " + structureId);
                 }
             }
             boolean villageNoResults = "minecraft:village".equalsIgnoreCase(structureId) && out.size() == before;
@@ -676,28 +1197,39 @@ public final class WorldChestScanner {
                 "minecraft:village_taiga"
         );
         for (String variant : variants) {
-            for (Point p : samplePoints) {
-                String response = rcon.command("execute in " + dimension + " positioned " + p.x + " 80 " + p.z + " run locate structure " + variant);
-                Coords coords = parseLocateCoords(response);
-                if (coords != null && dist2(centerX, centerZ, coords.x, coords.z) <= (long) radius * radius) {
-                    String key = "minecraft:village" + "|" + (coords.x >> 4) + "|" + (coords.z >> 4);
-                    if (seen.add(key)) {
-                        StructureStart start = new StructureStart();
-                        start.id = "minecraft:village";
-                        start.dimension = dimension;
-                        start.x = coords.x;
-                        start.y = coords.y != null ? coords.y : 0;
-                        start.z = coords.z;
-                        out.add(start);
+            for (int from = 0; from < samplePoints.size(); from += LOCATE_WINDOW) {
+                List<Point> window = samplePoints.subList(from, Math.min(samplePoints.size(), from + LOCATE_WINDOW));
+                for (String response : locateAll(rcon, dimension, variant, window)) {
+                    Coords coords = parseLocateCoords(response);
+                    if (coords != null && dist2(centerX, centerZ, coords.x, coords.z) <= (long) radius * radius) {
+                        String key = "minecraft:village" + "|" + (coords.x >> 4) + "|" + (coords.z >> 4);
+                        if (seen.add(key)) {
+                            StructureStart start = new StructureStart();
+                            start.id = "minecraft:village";
+                            start.dimension = dimension;
+                            start.x = coords.x;
+                            start.y = coords.y != null ? coords.y : 0;
+                            start.z = coords.z;
+                            out.add(start);
+                        }
+                    }
+                    if (progress != null) {
+                        progress.step("locating minecraft:village");
                     }
-                }
-                if (progress != null) {
-                    progress.step("locating minecraft:village");
                 }
             }
         }
     }
 
+    private static List<String> locateAll(RconClient rcon, String dimension, String structureId, List<Point> samplePoints) throws IOException {
+        List<String> commands = new ArrayList<>(samplePoints.size());
+        for (Point p : samplePoints) {
+            commands.add("execute in " + dimension + " positioned " + p.x + " 80 " + p.z + " run locate structure " + structureId);
+        }
+        // Pipelined clients keep many locates in flight instead of paying one round trip each.
+        return rcon.commandAll(commands);
+    }
+
     private static List<StructureStart> discoverStructureStartsViaPlugin(
             RconClient rcon,
             Path runDir,
@@ -740,7 +1272,195 @@ public final class WorldChestScanner {
         if (!waitForFile(outFile, 30)) {
             return out;
         }
+        return readPluginDiscoverDump(outFile, dimension);
+    }
+
+    /**
+     * Runs plugin locate discovery as a server-side job that spreads its locates over ticks under the plugin's tick
+     * budget and streams starts to an NDJSON file as they are found. A job that fails or stops making progress is
+     * cancelled and the starts found so far are kept, marked partial. Returns null when the plugin has no job
+     * commands, so the caller can use the single-command discovery.
+     */
+    private static PluginDiscovery discoverStructureStartsViaPluginJob(
+            RconClient rcon,
+            Path runDir,
+            String dimension,
+            int centerX,
+            int centerZ,
+            int radius,
+            List<String> structureFilter,
+            int locateStep,
+            ProgressPrinter progress
+    ) throws Exception {
+        if (structureFilter == null || structureFilter.isEmpty()) {
+            return new PluginDiscovery(new ArrayList<>(), false);
+        }
+        Path pluginDataDir = runDir.resolve("plugins").resolve("LootProbePaperPlugin").resolve("out");
+        Files.createDirectories(pluginDataDir);
+        String token = "discover-" + Instant.now().toEpochMilli();
+        String relativeOut = "out/" + token + ".ndjson";
+        Path outFile = pluginDataDir.resolve(token + ".ndjson");
+        Files.deleteIfExists(outFile);
+
+        StringBuilder cmd = new StringBuilder("lootprobe_discover_start ")
+                .append(dimension).append(' ')
+                .append(centerX).append(' ')
+                .append(centerZ).append(' ')
+                .append(radius).append(' ')
+                .append(Math.max(128, locateStep)).append(' ')
+                .append(relativeOut);
+        for (String id : structureFilter) {
+            cmd.append(' ').append(id);
+        }
+        return runPluginDiscoverJob(rcon, cmd.toString(), outFile, dimension, "locates", true, progress);
+    }
+
+    /**
+     * Starts a plugin discovery job with {@code startCommand}, streams the starts it appends to {@code outFile} and
+     * polls its status until it finishes. A job whose progress counter stops moving is cancelled. Returns null when
+     * the plugin does not run the command as a job, or when the job fails or stalls and {@code keepPartialOnFailure}
+     * is false; otherwise a failed or stalled job returns the starts found so far, marked partial.
+     */
+    private static PluginDiscovery runPluginDiscoverJob(
+            RconClient rcon,
+            String startCommand,
+            Path outFile,
+            String dimension,
+            String unit,
+            boolean keepPartialOnFailure,
+            ProgressPrinter progress
+    ) throws Exception {
+        List<StructureStart> out = new ArrayList<>();
+        String response = rcon.command(startCommand);
+        String prefix = "";
+        if (looksUnknownCommand(response)) {
+            prefix = "lootprobepaperplugin:";
+            response = rcon.command(prefix + startCommand);
+        }
+        String jobId = parseExtractJobId(response);
+        if (looksUnknownCommand(response) || jobId == null) {
+            return null;
+        }
+
+        AppendOnlyLineReader lines = new AppendOnlyLineReader(outFile, 0L);
+        ObjectMapper mapper = new ObjectMapper();
+        String lastProgress = "";
+        long lastProgressMs = System.currentTimeMillis();
+        long lastLoggedMs = lastProgressMs;
+        while (true) {
+            Thread.sleep(DISCOVERY_STATUS_POLL_MS);
+            String status;
+            try {
+                status = rcon.commandOnce(prefix + "lootprobe_discover_status " + jobId, DISCOVERY_STATUS_TIMEOUT_MS);
+            } catch (SocketTimeoutException timeout) {
+                status = "";
+            }
+            readDiscoverLines(lines, mapper, dimension, out);
+            String s = status != null ? status.trim() : "";
+            if (s.startsWith("done") || s.startsWith("not_found")) {
+                break;
+            }
+            if (s.startsWith("failed")) {
+                if (!keepPartialOnFailure) {
+                    return null;
+                }
+                if (progress != null) {
+                    progress.info("scan: plugin discovery job " + s + " in " + dimension + "; keeping " + out.size() + " starts found so far.");
+                }
+                return new PluginDiscovery(out, true);
+            }
+            long now = System.currentTimeMillis();
+            String counter = s.startsWith("running") ? s.split("\\s+")[1] : lastProgress;
+            if (!counter.equals(lastProgress)) {
+                lastProgress = counter;
+                lastProgressMs = now;
+                if (progress != null && now - lastLoggedMs >= DISCOVERY_PROGRESS_LOG_MS) {
+                    lastLoggedMs = now;
+                    progress.info("scan: plugin discovery " + dimension + " " + unit + " " + counter + ", starts " + out.size());
+                }
+            } else if (now - lastProgressMs > DISCOVERY_STALL_MS) {
+                try {
+                    rcon.commandOnce(prefix + "lootprobe_discover_cancel " + jobId, DISCOVERY_STATUS_TIMEOUT_MS);
+                } catch (SocketTimeoutException ignored) {
+                }
+                if (!keepPartialOnFailure) {
+                    if (progress != null) {
+                        progress.info("scan: plugin discovery stalled in " + dimension + " at " + lastProgress + "; discarding it.");
+                    }
+                    return null;
+                }
+                if (progress != null) {
+                    progress.info("scan: plugin discovery stalled in " + dimension + " at " + lastProgress
+                            + "; keeping " + out.size() + " starts found so far.");
+                }
+                readDiscoverLines(lines, mapper, dimension, out);
+                return new PluginDiscovery(out, true);
+            }
+        }
+        readDiscoverLines(lines, mapper, dimension, out);
+        return new PluginDiscovery(out, false);
+    }
+
+    private static void readDiscoverLines(AppendOnlyLineReader lines, ObjectMapper mapper, String dimension, List<StructureStart> out)
+            throws IOException {
+        for (String line : lines.readNewLines()) {
+            DiscoverStart s;
+            try {
+                s = mapper.readValue(line, DiscoverStart.class);
+            } catch (IOException e) {
+                continue;
+            }
+            if (s == null || s.id == null) {
+                continue;
+            }
+            StructureStart start = new StructureStart();
+            start.id = s.id;
+            start.dimension = dimension;
+            start.x = s.x;
+            start.y = s.y;
+            start.z = s.z;
+            out.add(start);
+        }
+    }
+
+    /**
+     * Has the plugin enumerate starts from the world's structure sets (random-spread regions and concentric rings,
+     * datapack sets included) instead of sampling locate, so there are no gaps between sample points and no caps.
+     * The enumeration runs as a plugin job spread over ticks. Returns null when the plugin lacks the command or cannot
+     * read placements, so the caller keeps locate discovery.
+     */
+    private static List<StructureStart> discoverStructureStartsViaPlacements(
+            RconClient rcon,
+            Path runDir,
+            String dimension,
+            int centerX,
+            int centerZ,
+            int radius,
+            List<String> structureFilter,
+            ProgressPrinter progress
+    ) throws Exception {
+        Path pluginDataDir = runDir.resolve("plugins").resolve("LootProbePaperPlugin").resolve("out");
+        Files.createDirectories(pluginDataDir);
+        String token = "placements-" + Instant.now().toEpochMilli();
+        String relativeOut = "out/" + token + ".ndjson";
+        Path outFile = pluginDataDir.resolve(token + ".ndjson");
+        Files.deleteIfExists(outFile);
+
+        StringBuilder cmd = new StringBuilder("lootprobe_discover_placements ")
+                .append(dimension).append(' ')
+                .append(centerX).append(' ')
+                .append(centerZ).append(' ')
+                .append(radius).append(' ')
+                .append(relativeOut);
+        for (String id : structureFilter) {
+            cmd.append(' ').append(id);
+        }
+        PluginDiscovery discovery = runPluginDiscoverJob(rcon, cmd.toString(), outFile, dimension, "candidates", false, progress);
+        return discovery != null ? discovery.starts() : null;
+    }
 
+    private static List<StructureStart> readPluginDiscoverDump(Path outFile, String dimension) throws IOException {
+        List<StructureStart> out = new ArrayList<>();
         ObjectMapper mapper = new ObjectMapper();
         PluginDiscoverDump dump = mapper.readValue(outFile.toFile(), PluginDiscoverDump.class);
         if (dump == null || dump.starts == null) {
@@ -839,6 +1559,12 @@ public final class WorldChestScanner {
         return dx * dx + dz * dz;
     }
 
+    /**
+     * Starts from a plugin discovery job; {@code partial} when the job failed or stalled before covering the radius.
+     */
+    private record PluginDiscovery(List<StructureStart> starts, boolean partial) {
+    }
+
     private record Coords(int x, Integer y, int z) {
     }
 
@@ -853,12 +1579,132 @@ public final class WorldChestScanner {
         int z;
     }
 
+    /**
+     * Seed-based discovery for vanilla structures Cubiomes knows about; other ids keep using server-side locate.
+     */
+    /**
+     * Seed-math discovery for vanilla ids. {@code overriddenStructures} are vanilla structure ids a datapack
+     * redefines; those are datapack ids for discovery purposes and stay with the server.
+     */
+    public record CubiomesDiscovery(CubiomesBridge bridge, long seed, String mcVersion, Set<String> overriddenStructures) {
+        boolean handles(String structureId, String dimension) {
+            if (overriddenStructures.contains(structureId)) {
+                return false;
+            }
+            if (structureId.equals("minecraft:village")) {
+                // The village id covers every village_* variant.
+                for (String overridden : overriddenStructures) {
+                    if (overridden.startsWith("minecraft:village_")) {
+                        return false;
+                    }
+                }
+            }
+            return bridge.supportsStructure(structureId, dimension);
+        }
+    }
+
+    /**
+     * Selects the structure starts one server handles in a sharded scan. Starts are grouped into square
+     * spatial tiles so neighbouring structures, which often share chunks, land on the same server.
+     */
+    public record ShardSpec(int index, int count) {
+        public static final int TILE_BLOCKS = 2048;
+
+        public boolean owns(String dimension, int x, int z) {
+            if (count <= 1) {
+                return true;
+            }
+            int tileX = Math.floorDiv(x, TILE_BLOCKS);
+            int tileZ = Math.floorDiv(z, TILE_BLOCKS);
+            int hash = 31 * (31 * (dimension != null ? dimension.hashCode() : 0) + tileX) + tileZ;
+            // Mix so adjacent tiles spread evenly across shards.
+            hash ^= hash >>> 16;
+            hash *= 0x45d9f3b;
+            hash ^= hash >>> 16;
+            return Math.floorMod(hash, count) == index;
+        }
+    }
+
+    /**
+     * Receives each finished structure as soon as it is extracted. When a sink is attached the scan report
+     * keeps only chunk totals, so memory use does not grow with the scan radius.
+     */
+    public interface StructureSink {
+        void accept(ScannedStructure structure) throws IOException;
+    }
+
+    private static final class ScanResults {
+        final ScanReport report;
+        final StructureSink sink;
+        final ExtractionCache extractionCache;
+        final int extractChunkRadius;
+        final Map<String, Integer> indexByKey = new LinkedHashMap<>();
+        final Map<String, ScannedStructure> failedByKey = new LinkedHashMap<>();
+
+        ScanResults(ScanReport report, StructureSink sink, ExtractionCache extractionCache, int extractChunkRadius) {
+            this.report = report;
+            this.sink = sink;
+            this.extractionCache = extractionCache;
+            this.extractChunkRadius = extractChunkRadius;
+        }
+
+        void flushFailures() throws IOException {
+            if (sink == null) {
+                return;
+            }
+            for (ScannedStructure failed : failedByKey.values()) {
+                sink.accept(failed);
+            }
+            failedByKey.clear();
+        }
+    }
+
     private static final class ActiveExtractJob {
         StructureStart start;
         String jobId;
         Path outFile;
         int effectiveChunkRadius;
         long deadlineMs;
+        boolean pushCompletion;
+        long nextStatusPollMs;
+        String statusCommand = "lootprobe_extract_status ";
+        CompletableFuture<String> statusReply;
+        long statusSentMs;
+    }
+
+    /**
+     * Inputs for {@link #scan}. Only {@code rcon}, {@code runDir}, the center and radius and {@code structureTargets}
+     * are required; the rest default to the command-line defaults or to "not used".
+     */
+    public static final class ScanOptions {
+        public RconClient rcon;
+        public Path runDir;
+        public int centerX;
+        public int centerZ;
+        public int radius;
+        public List<ProbeConfig.StructureTarget> structureTargets = new ArrayList<>();
+        public Path discoveryCacheFile;
+        public boolean showProgress = true;
+        public int locateStep = 768;
+        public int extractChunkRadius = 5;
+        public boolean extractParallelChunks = true;
+        public int extractParallelChunkCount = 4;
+        public int extractParallelStructureJobs = 1;
+        public int extractTimeoutSec = 90;
+        public int extractStartCommandTimeoutMs = 8_000;
+        public int extractStatusReadTimeoutMs = 12_000;
+        public Integer maxStructures;
+        public List<ScannedStructure> resumeStructures = new ArrayList<>();
+        public ProgressPrinter.ProgressListener progressListener;
+        public StructureSink structureSink;
+        public CubiomesDiscovery cubiomesDiscovery;
+        public ShardSpec shard;
+        public ExtractionCache extractionCache;
+        // Separate connections for discovery, submission and status; null sends everything through rcon.
+        public RconPool rconPool;
+        public boolean adaptiveConcurrency;
+        // 0 keeps the plugin's default per-tick processing budget.
+        public int extractTickBudgetMs;
     }
 
     public static final class ScanReport {
@@ -873,6 +1719,7 @@ public final class WorldChestScanner {
         public int totalChunksNewlyLoaded;
         public int totalChunksAlreadyGenerated;
         public int totalChunksNewlyGenerated;
+        public int totalChunksShared;
         public List<ScannedStructure> structures = new ArrayList<>();
     }
 
@@ -888,7 +1735,25 @@ public final class WorldChestScanner {
         public List<ChestData> chests = new ArrayList<>();
     }
 
+    public static final class ExtractBatchManifest {
+        // Main-thread milliseconds per tick the plugin may spend reading chests; 0 keeps the plugin default.
+        public int processBudgetMs;
+        public List<ExtractBatchEntry> entries = new ArrayList<>();
+    }
+
+    public static final class ExtractBatchEntry {
+        public String key;
+        public String dimension;
+        public String structureId;
+        public int centerX;
+        public int centerZ;
+        public int chunkRadius;
+        public boolean parallelChunks;
+        public int parallelChunkCount;
+    }
+
     public static final class PluginStructureDump {
+        public String jobId;
         public String structureId;
         public String dimension;
         public int centerX;
@@ -920,6 +1785,7 @@ public final class WorldChestScanner {
         public int newlyLoaded;
         public int alreadyGenerated;
         public int newlyGenerated;
+        public int shared;
     }
 
     public static final class ChestData {
@@ -0,0 +1,214 @@
+package dev.lootprobe;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Snapshot of the server's world directories after a run, keyed by server jar, seed and datapack contents.
+ * Restoring it lets the next server with the same key skip spawn preparation and reuse chunks generated earlier.
+ * Region files are rewritten in place by the server, so snapshots are copied rather than hard-linked.
+ */
+public final class WorldTemplateCache {
+    private static final String MARKER_FILE = "template.json";
+    private static final String WORLD_DIR_PREFIX = "probe_world";
+    private static final Set<String> SKIPPED_NAMES = Set.of("session.lock", "datapacks");
+
+    private final Path root;
+    private final Path dir;
+    private final String key;
+
+    private WorldTemplateCache(Path root, String key) {
+        this.root = root;
+        this.key = key;
+        this.dir = root.resolve(key);
+    }
+
+    public static WorldTemplateCache forRun(Path cacheRoot, Path serverJar, long seed, List<Path> datapacks) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, "jar=" + hashFile(serverJar.toAbsolutePath()));
+        update(digest, "seed=" + seed);
+        update(digest, "datapacks=" + datapackFingerprint(datapacks));
+        return new WorldTemplateCache(cacheRoot.toAbsolutePath(), toHex(digest.digest()).substring(0, 32));
+    }
+
+    /**
+     * Content hash of a datapack set, independent of paths and order.
+     */
+    static String datapackFingerprint(List<Path> datapacks) throws IOException {
+        List<String> datapackHashes = new ArrayList<>();
+        for (Path datapack : datapacks) {
+            datapackHashes.add(hashPath(datapack.toAbsolutePath()));
+        }
+        datapackHashes.sort(String::compareTo);
+        MessageDigest digest = newDigest();
+        for (String hash : datapackHashes) {
+            update(digest, hash);
+        }
+        return toHex(digest.digest());
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public boolean exists() {
+        return Files.exists(dir.resolve(MARKER_FILE));
+    }
+
+    /**
+     * Copies the snapshot into {@code runDir}. Does nothing when there is no snapshot or the run dir already has a world.
+     */
+    public boolean restoreInto(Path runDir) throws IOException {
+        if (!exists() || Files.exists(runDir.resolve(WORLD_DIR_PREFIX))) {
+            return false;
+        }
+        Files.createDirectories(runDir);
+        for (Path worldDir : listWorldDirs(dir)) {
+            copyTree(worldDir, runDir.resolve(worldDir.getFileName().toString()));
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the snapshot with the world directories of a stopped server.
+     */
+    public void storeFrom(Path runDir) throws IOException {
+        List<Path> worldDirs = listWorldDirs(runDir);
+        if (worldDirs.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(root);
+        Path staging = root.resolve(key + ".tmp-" + System.nanoTime());
+        try {
+            for (Path worldDir : worldDirs) {
+                copyTree(worldDir, staging.resolve(worldDir.getFileName().toString()));
+            }
+            Marker marker = new Marker();
+            marker.createdUtc = Instant.now().toString();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(staging.resolve(MARKER_FILE).toFile(), marker);
+            deleteRecursively(dir);
+            Files.move(staging, dir, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteRecursively(staging);
+        }
+    }
+
+    private static List<Path> listWorldDirs(Path parent) throws IOException {
+        if (!Files.isDirectory(parent)) {
+            return List.of();
+        }
+        try (Stream<Path> stream = Files.list(parent)) {
+            return stream
+                    .filter(Files::isDirectory)
+                    .filter(p -> p.getFileName().toString().startsWith(WORLD_DIR_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static void copyTree(Path source, Path target) throws IOException {
+        try (Stream<Path> stream = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                Path relative = source.relativize(path);
+                if (isSkipped(relative)) {
+                    continue;
+                }
+                Path dest = target.resolve(relative.toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(dest);
+                } else {
+                    Files.createDirectories(dest.getParent());
+                    Files.copy(path, dest, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    private static boolean isSkipped(Path relative) {
+        for (Path part : relative) {
+            if (SKIPPED_NAMES.contains(part.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(root)) {
+            for (Path path : stream.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static String hashPath(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return hashFile(path);
+        }
+        MessageDigest digest = newDigest();
+        try (Stream<Path> stream = Files.walk(path)) {
+            for (Path file : stream.filter(Files::isRegularFile).sorted().toList()) {
+                update(digest, path.relativize(file).toString().replace('\\', '/'));
+                update(digest, hashFile(file));
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * SHA-256 of a file's contents, hex-encoded.
+     */
+    static String hashFile(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    public static final class Marker {
+        public String createdUtc;
+    }
+}
@@ -0,0 +1,97 @@
+package dev.lootprobe;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyTest {
+    @Test
+    void parsesBatchStatus() {
+        AdaptiveConcurrency.Sample sample = AdaptiveConcurrency.Sample.parse(
+                "running 3/10 running=2 failed=1 tick_ms=41.5 chunk_ms=180 in_flight_chunks=4 queued_chunks=7 chunk_failures=2");
+        assertNotNull(sample);
+        assertEquals(41.5, sample.tickMs());
+        assertEquals(180.0, sample.chunkMs());
+        assertEquals(4, sample.inFlightChunks());
+        assertEquals(7, sample.queuedChunks());
+        assertEquals(2, sample.chunkFailures());
+        assertEquals(1, sample.failedEntries());
+        assertEquals(5, sample.waitingEntries());
+    }
+
+    @Test
+    void statusWithoutLoadFiguresIsNoSample() {
+        assertNull(AdaptiveConcurrency.Sample.parse(null));
+        assertNull(AdaptiveConcurrency.Sample.parse("running 3/10"));
+        assertNull(AdaptiveConcurrency.Sample.parse("running 3/10 tick_ms=40"));
+    }
+
+    @Test
+    void clampsInitialLimits() {
+        AdaptiveConcurrency control = new AdaptiveConcurrency(0, 100);
+        assertEquals(1, control.structures());
+        assertEquals(AdaptiveConcurrency.MAX_CHUNKS, control.chunks());
+    }
+
+    @Test
+    void growsChunksBeforeStructuresAndOnlyWhenWorkWaits() {
+        AdaptiveConcurrency control = new AdaptiveConcurrency(2, AdaptiveConcurrency.MAX_CHUNKS - 1);
+        assertFalse(control.update(sample(30, 100, 0, 0, 0, 0)));
+
+        assertTrue(control.update(sample(30, 100, 5, 0, 0, 3)));
+        assertEquals(AdaptiveConcurrency.MAX_CHUNKS, control.chunks());
+        assertEquals(2, control.structures());
+
+        assertTrue(control.update(sample(30, 100, 5, 0, 0, 3)));
+        assertEquals(3, control.structures());
+        assertEquals("headroom", control.lastReason());
+    }
+
+    @Test
+    void slowTickHalvesBothThenCoolsDown() {
+        AdaptiveConcurrency control = new AdaptiveConcurrency(8, 12);
+        assertTrue(control.update(sample(120, 100, 5, 0, 0, 5)));
+        assertEquals(4, control.structures());
+        assertEquals(6, control.chunks());
+        assertEquals("tick 120 ms", control.lastReason());
+
+        // Two more slow samples are ignored while the decrease takes effect.
+        assertFalse(control.update(sample(120, 100, 5, 0, 0, 5)));
+        assertFalse(control.update(sample(120, 100, 5, 0, 0, 5)));
+        assertTrue(control.update(sample(120, 100, 5, 0, 0, 5)));
+        assertEquals(2, control.structures());
+        assertEquals(3, control.chunks());
+    }
+
+    @Test
+    void slowOrFailingChunkLoadsHalveOnlyChunks() {
+        AdaptiveConcurrency control = new AdaptiveConcurrency(4, 8);
+        assertTrue(control.update(sample(30, 5_000, 5, 0, 0, 0)));
+        assertEquals(4, control.structures());
+        assertEquals(4, control.chunks());
+
+        AdaptiveConcurrency failing = new AdaptiveConcurrency(4, 8);
+        assertFalse(failing.update(sample(30, 100, 0, 1, 0, 0)));
+        assertTrue(failing.update(sample(30, 100, 0, 2, 0, 0)));
+        assertEquals(4, failing.chunks());
+        assertEquals("failed loads", failing.lastReason());
+    }
+
+    @Test
+    void resetCountersForgetsPreviousBatchFailures() {
+        AdaptiveConcurrency control = new AdaptiveConcurrency(4, 8);
+        control.update(sample(30, 100, 0, 5, 0, 0));
+        control.resetCounters();
+        // The new batch starts its counters from zero; its first sample is a baseline, not a new failure.
+        assertFalse(control.update(sample(30, 100, 0, 1, 0, 0)));
+        assertEquals(8, control.chunks());
+    }
+
+    private static AdaptiveConcurrency.Sample sample(double tickMs, double chunkMs, int queued, int chunkFailures, int failed, int waiting) {
+        return new AdaptiveConcurrency.Sample(tickMs, chunkMs, 0, queued, chunkFailures, failed, waiting);
+    }
+}
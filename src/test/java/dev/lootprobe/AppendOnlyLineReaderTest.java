@@ -0,0 +1,61 @@
+package dev.lootprobe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppendOnlyLineReaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void missingFileHasNoLines() throws Exception {
+        AppendOnlyLineReader reader = new AppendOnlyLineReader(dir.resolve("absent.ndjson"), 0L);
+        assertTrue(reader.readNewLines().isEmpty());
+    }
+
+    @Test
+    void partialTrailingLineWaitsForItsNewline() throws Exception {
+        Path file = dir.resolve("out.ndjson");
+        AppendOnlyLineReader reader = new AppendOnlyLineReader(file, 0L);
+        append(file, "{\"a\":1}\n{\"b\":");
+        assertEquals(List.of("{\"a\":1}"), reader.readNewLines());
+
+        assertTrue(reader.readNewLines().isEmpty());
+
+        append(file, "2}\n\n{\"c\":3}\n");
+        assertEquals(List.of("{\"b\":2}", "{\"c\":3}"), reader.readNewLines());
+        assertTrue(reader.readNewLines().isEmpty());
+    }
+
+    @Test
+    void recreatedFileIsReadFromTheStart() throws Exception {
+        Path file = dir.resolve("out.ndjson");
+        AppendOnlyLineReader reader = new AppendOnlyLineReader(file, 0L);
+        append(file, "first line\nsecond line\n");
+        assertEquals(List.of("first line", "second line"), reader.readNewLines());
+
+        Files.writeString(file, "new\n", StandardCharsets.UTF_8);
+        assertEquals(List.of("new"), reader.readNewLines());
+    }
+
+    @Test
+    void startsAtTheGivenOffset() throws Exception {
+        Path file = dir.resolve("out.ndjson");
+        append(file, "old\nnew\n");
+        AppendOnlyLineReader reader = new AppendOnlyLineReader(file, "old\n".length());
+        assertEquals(List.of("new"), reader.readNewLines());
+    }
+
+    private static void append(Path file, String text) throws Exception {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,133 @@
+package dev.lootprobe;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.lootprobe.TestFixtures.chest;
+import static dev.lootprobe.TestFixtures.item;
+import static dev.lootprobe.TestFixtures.structure;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarResultTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripKeepsEveryField() throws Exception {
+        ProbeResult result = result();
+        String expected = MAPPER.writeValueAsString(result);
+        Path file = dir.resolve("result.lpcol");
+        ColumnarResult.write(result, file, null);
+
+        assertTrue(ColumnarResult.isColumnar(file));
+        try (ColumnarResult.Reader reader = ColumnarResult.open(file)) {
+            assertEquals(3, reader.structureCount());
+            assertEquals(3, reader.totalChestCount());
+            assertEquals(4, reader.totalItemCount());
+            assertEquals(2, reader.chestCount(0));
+            assertEquals(3, reader.itemCount(0));
+            assertEquals(0, reader.chestCount(2));
+            assertEquals(0, reader.itemCount(2));
+            assertTrue(reader.header().regionScan.structures.isEmpty());
+            assertEquals(expected, MAPPER.writeValueAsString(reader.toProbeResult()));
+        }
+    }
+
+    @Test
+    void repeatedNbtDecodesForEveryItem() throws Exception {
+        ProbeResult result = result();
+        LootSampler.ItemStackData copy = result.regionScan.structures.get(0).chests.get(0).items.get(0);
+        result.regionScan.structures.get(1).chests.get(0).items.get(0).nbt = copy.nbt;
+        Path file = dir.resolve("result.lpcol");
+        ColumnarResult.write(result, file, null);
+
+        try (ColumnarResult.Reader reader = ColumnarResult.open(file)) {
+            assertEquals(copy.nbt, reader.structure(1).chests.get(0).items.get(0).nbt);
+            assertEquals(copy.nbt, reader.structure(0).chests.get(0).items.get(0).nbt);
+        }
+    }
+
+    @Test
+    void rejectsOutOfRangeSectionId() throws Exception {
+        Path file = dir.resolve("result.lpcol");
+        ColumnarResult.write(result(), file, null);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // magic (8) + version (4) + section count (4), then the first section id.
+            raf.seek(16);
+            raf.writeInt(99);
+        }
+        assertThrows(IOException.class, () -> ColumnarResult.open(file));
+    }
+
+    @Test
+    void rejectsSectionOutsideTheFile() throws Exception {
+        Path file = dir.resolve("result.lpcol");
+        ColumnarResult.write(result(), file, null);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // Length of the first section.
+            raf.seek(16 + 4 + 8);
+            raf.writeLong(raf.length());
+        }
+        assertThrows(IOException.class, () -> ColumnarResult.open(file));
+    }
+
+    @Test
+    void jsonIsNotColumnar() throws Exception {
+        Path file = dir.resolve("result.json");
+        MAPPER.writeValue(file.toFile(), result());
+        assertFalse(ColumnarResult.isColumnar(file));
+    }
+
+    private static ProbeResult result() {
+        ProbeResult result = new ProbeResult();
+        result.seed = 42L;
+        result.mcVersion = "1.21.4";
+        result.regionScan = new WorldChestScanner.ScanReport();
+        result.regionScan.seed = 42L;
+        result.regionScan.radius = 512;
+
+        LootSampler.ItemStackData diamond = item("minecraft:diamond");
+        diamond.count = 2;
+        diamond.displayName = "Diamond";
+        diamond.nbt = "{Count:2b}";
+        LootSampler.ItemStackData book = item("minecraft:enchanted_book");
+        book.slot = 3;
+        book.nbt = "{StoredEnchantments:[]}";
+        book.rawItemNbt = "{raw:1}";
+        book.enchantments.add("minecraft:mending");
+        book.enchantmentLevels.add(1);
+        WorldChestScanner.ChestData first = chest(101, -49, "minecraft:chests/desert_pyramid", diamond, book);
+        first.lootTableSeed = 7L;
+        first.rawLootCommandResponse = "Container at 101 has the following block data: {}";
+        WorldChestScanner.ChestData second = chest(102, -49, "minecraft:chests/desert_pyramid", item("minecraft:bone"));
+        WorldChestScanner.ScannedStructure pyramid = structure("minecraft:desert_pyramid", 100, -50, first, second);
+        pyramid.chunkStats.requested = 9;
+        pyramid.chunkStats.newlyGenerated = 4;
+
+        LootSampler.ItemStackData apple = item("minecraft:golden_apple");
+        apple.nbt = "{}";
+        apple.enchantments.add("minecraft:unbreaking");
+        apple.enchantmentLevels.add(3);
+        WorldChestScanner.ChestData iglooChest = chest(-300, 20, "minecraft:chests/igloo_chest", apple);
+        iglooChest.lootTableSeed = -1L;
+        WorldChestScanner.ScannedStructure igloo = structure("minecraft:igloo", -300, 20, iglooChest);
+
+        WorldChestScanner.ScannedStructure failed = structure("minecraft:igloo", 800, 800);
+        failed.error = "chunk_load_timeout";
+
+        result.regionScan.structures = new ArrayList<>(List.of(pyramid, igloo, failed));
+        return result;
+    }
+}
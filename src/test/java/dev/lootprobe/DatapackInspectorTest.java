@@ -0,0 +1,48 @@
+package dev.lootprobe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatapackInspectorTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void classifiesStructureAndWorldgenOverrides() throws Exception {
+        write("data/minecraft/worldgen/structure/village_plains.json");
+        write("data/example/worldgen/structure/tower.json");
+        write("data/minecraft/loot_table/chests/igloo_chest.json");
+        write("data/minecraft/worldgen/structure_set/villages.json");
+        write("data/minecraft/tags/worldgen/biome/has_structure/igloo.json");
+
+        DatapackInspector.DatapackInfluence influence = DatapackInspector.inspect(List.of(dir));
+        assertEquals(List.of("minecraft:village_plains"), influence.overriddenStructures);
+        assertEquals(List.of("example:tower"), influence.addedStructures);
+        assertEquals(List.of("minecraft:chests/igloo_chest"), influence.overriddenLootTables);
+        assertEquals(List.of(
+                "minecraft:tags/worldgen/biome/has_structure/igloo",
+                "minecraft:worldgen/structure_set/villages"
+        ), influence.worldgenOverrides);
+    }
+
+    @Test
+    void lootOnlyPackLeavesWorldgenAlone() throws Exception {
+        write("data/minecraft/loot_table/chests/simple_dungeon.json");
+        write("data/example/worldgen/structure_set/towers.json");
+
+        assertTrue(DatapackInspector.inspect(List.of(dir)).worldgenOverrides.isEmpty());
+    }
+
+    private void write(String relative) throws Exception {
+        Path file = dir.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "{}");
+    }
+}
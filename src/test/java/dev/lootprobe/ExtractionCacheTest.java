@@ -0,0 +1,97 @@
+package dev.lootprobe;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static dev.lootprobe.TestFixtures.chest;
+import static dev.lootprobe.TestFixtures.item;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExtractionCacheTest {
+    @TempDir
+    Path dir;
+
+    private Path serverJar;
+    private Path pluginJar;
+
+    @BeforeEach
+    void jars() throws Exception {
+        serverJar = Files.write(dir.resolve("server.jar"), new byte[]{1});
+        pluginJar = Files.write(dir.resolve("plugin.jar"), new byte[]{2});
+    }
+
+    @Test
+    void reloadFindsStoredEntries() throws Exception {
+        ExtractionCache cache = open();
+        cache.store("minecraft:overworld", "minecraft:desert_pyramid", 100, -200, 2, List.of(chest(101, 101, null, item("minecraft:diamond"))));
+        cache.store("minecraft:overworld", "minecraft:igloo", 300, 400, 2, List.of());
+
+        ExtractionCache reloaded = open();
+        assertEquals(2, reloaded.size());
+        List<WorldChestScanner.ChestData> chests = reloaded.lookup("minecraft:overworld", "minecraft:desert_pyramid", 100, -200, 2);
+        assertNotNull(chests);
+        assertEquals(101, chests.get(0).x);
+        assertEquals("minecraft:diamond", chests.get(0).items.get(0).itemId);
+        assertTrue(reloaded.lookup("minecraft:overworld", "minecraft:igloo", 300, 400, 2).isEmpty());
+        assertNull(reloaded.lookup("minecraft:overworld", "minecraft:igloo", 300, 400, 3));
+        assertEquals(2, reloaded.getHits());
+    }
+
+    @Test
+    void laterEntryReplacesEarlierOne() throws Exception {
+        ExtractionCache cache = open();
+        cache.store("minecraft:overworld", "minecraft:igloo", 0, 0, 2, List.of(chest(1, 1, null, item("minecraft:apple"))));
+        cache.store("minecraft:overworld", "minecraft:igloo", 0, 0, 2, List.of(chest(2, 2, null, item("minecraft:gold_ingot"))));
+
+        ExtractionCache reloaded = open();
+        assertEquals(1, reloaded.size());
+        assertEquals(2, reloaded.lookup("minecraft:overworld", "minecraft:igloo", 0, 0, 2).get(0).x);
+    }
+
+    @Test
+    void truncatedTrailingLineIsDroppedOnLoad() throws Exception {
+        ExtractionCache cache = open();
+        cache.store("minecraft:overworld", "minecraft:igloo", 0, 0, 2, List.of(chest(1, 1, null, item("minecraft:apple"))));
+        long intact = Files.size(cache.getFile());
+        Files.writeString(cache.getFile(), "{\"dimension\":\"minecraft:overworld\",\"id\":\"minecraft:ig",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        ExtractionCache reloaded = open();
+        assertEquals(intact, Files.size(reloaded.getFile()));
+        assertEquals(1, reloaded.size());
+
+        reloaded.store("minecraft:overworld", "minecraft:desert_pyramid", 50, 50, 2, List.of(chest(50, 50, null, item("minecraft:bone"))));
+        ExtractionCache again = open();
+        assertEquals(2, again.size());
+        assertEquals("minecraft:bone", again.lookup("minecraft:overworld", "minecraft:desert_pyramid", 50, 50, 2).get(0).items.get(0).itemId);
+    }
+
+    @Test
+    void keyCoversPluginAndServerJars() throws Exception {
+        Path file = open().getFile();
+
+        Files.write(pluginJar, new byte[]{3});
+        assertNotEquals(file, open().getFile());
+
+        Files.write(pluginJar, new byte[]{2});
+        assertEquals(file, open().getFile());
+
+        Files.write(serverJar, new byte[]{9});
+        assertNotEquals(file, open().getFile());
+    }
+
+    private ExtractionCache open() throws Exception {
+        return ExtractionCache.open(dir.resolve("cache"), "1.21.4", serverJar, pluginJar, 42L, List.of());
+    }
+}
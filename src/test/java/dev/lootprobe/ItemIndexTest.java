@@ -0,0 +1,94 @@
+package dev.lootprobe;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static dev.lootprobe.TestFixtures.chest;
+import static dev.lootprobe.TestFixtures.item;
+import static dev.lootprobe.TestFixtures.structure;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ItemIndexTest {
+    // Chest refs are numbered by distance from the origin (0, 0): near=0, mid=1, far=2, east=3.
+    private final List<WorldChestScanner.ScannedStructure> structures = List.of(
+            structure("minecraft:desert_pyramid", 0, 0,
+                    chest(300, 0, "minecraft:chests/buried_treasure", item("minecraft:diamond")),
+                    chest(10, 0, "minecraft:chests/desert_pyramid", item("minecraft:diamond_sword"), item("minecraft:bone"))
+            ),
+            structure("minecraft:igloo", 0, 0,
+                    chest(0, -100, "minecraft:chests/igloo_chest", item("minecraft:golden_apple"), item("minecraft:diamond")),
+                    chest(1000, 0, "minecraft:chests/desert_pyramid", item("minecraft:bone"))
+            )
+    );
+    private final ItemIndex index = ItemIndex.build(structures, 0, 0);
+
+    @Test
+    void refsAreNumberedNearestFirst() {
+        assertEquals(4, index.chestCount());
+        assertEquals(0, index.ref(0, 1));
+        assertEquals(1, index.ref(1, 0));
+        assertEquals(2, index.ref(0, 0));
+        assertEquals(3, index.ref(1, 1));
+        assertEquals(1, index.structureOf(1));
+        assertEquals(0, index.chestOf(1));
+        assertEquals(-100, index.zOf(1));
+    }
+
+    @Test
+    void exactTermsMatchWithAndWithoutNamespace() {
+        assertArrayEquals(new int[]{0, 3}, index.query(List.of("minecraft:bone")));
+        assertArrayEquals(new int[]{0, 3}, index.query(List.of("bone")));
+        assertArrayEquals(new int[]{0, 3}, index.query(List.of("desert_pyramid")));
+    }
+
+    @Test
+    void longerTokensAlsoMatchContainingTerms() {
+        assertArrayEquals(new int[]{0, 1, 2}, index.query(List.of("diamond")));
+        assertArrayEquals(new int[]{0, 1, 2}, index.query(List.of("diam")));
+        // Two characters are too short for a substring match.
+        assertArrayEquals(new int[0], index.query(List.of("di")));
+        assertArrayEquals(new int[]{0, 1, 2}, index.queryContaining("di"));
+    }
+
+    @Test
+    void tokensAreIntersected() {
+        assertArrayEquals(new int[]{0}, index.query(List.of("diamond", "bone")));
+        assertArrayEquals(new int[0], index.query(List.of("golden_apple", "bone")));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.query(List.of()));
+    }
+
+    @Test
+    void withinOriginIsAPrefix() {
+        int[] all = index.query(List.of());
+        assertArrayEquals(new int[]{0, 1}, index.within(all, 0, 0, 100));
+        assertArrayEquals(new int[]{0, 1, 2}, index.within(all, 0, 0, 300));
+        assertArrayEquals(new int[0], index.within(all, 0, 0, 5));
+    }
+
+    @Test
+    void withinOtherPointIsSortedByDistanceToIt() {
+        int[] all = index.query(List.of());
+        assertArrayEquals(new int[]{3, 2}, index.within(all, 950, 0, 700));
+        assertArrayEquals(new int[]{2, 0}, index.within(index.query(List.of("diamond")), 250, 0, 250));
+    }
+
+    @Test
+    void parsesWithinClause() {
+        ItemIndex.Query query = ItemIndex.parseQuery("diamond within 500 blocks of -20, 40", 7, 8);
+        assertEquals("diamond", query.text);
+        assertEquals(500, query.radius);
+        assertEquals(-20, query.x);
+        assertEquals(40, query.z);
+
+        ItemIndex.Query plain = ItemIndex.parseQuery("mending WITHIN 64", 7, 8);
+        assertEquals("mending", plain.text);
+        assertEquals(64, plain.radius);
+        assertEquals(7, plain.x);
+        assertEquals(8, plain.z);
+
+        assertNull(ItemIndex.parseQuery("diamond", 0, 0).radius);
+    }
+}
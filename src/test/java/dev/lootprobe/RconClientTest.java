@@ -0,0 +1,140 @@
+package dev.lootprobe;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RconClientTest {
+    private static final int TYPE_COMMAND = 2;
+    private static final int TYPE_RESPONSE = 0;
+
+    private ServerSocket server;
+    private RconClient client;
+
+    @AfterEach
+    void close() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void unpipelinedByDefault() throws Exception {
+        startServer(0, false);
+        client = connect();
+        assertFalse(client.isPipelined());
+        assertEquals("echo:list", client.command("list"));
+        assertEquals("echo:seed", client.command("seed"));
+    }
+
+    @Test
+    void pipelinedRepliesAreMatchedById() throws Exception {
+        startServer(2, false);
+        client = connect();
+        client.enablePipelining(2);
+        assertTrue(client.isPipelined());
+        assertEquals(List.of("echo:first", "echo:second"), client.commandAll(List.of("first", "second")));
+    }
+
+    @Test
+    void multiPacketReplyEndsAtItsSentinel() throws Exception {
+        startServer(1, true);
+        client = connect();
+        client.enablePipelining(4);
+        CompletableFuture<String> reply = client.commandAsync("split");
+        assertEquals("echo:split/part2", reply.get(5, TimeUnit.SECONDS));
+    }
+
+    private RconClient connect() throws IOException {
+        RconClient rcon = new RconClient("127.0.0.1", server.getLocalPort(), "secret");
+        rcon.connectAndLogin();
+        return rcon;
+    }
+
+    /**
+     * Answers the login, then echoes commands back. With {@code batch} 0 each command is answered as it arrives.
+     * Otherwise {@code batch} command/sentinel pairs are read before any reply and answered last-first; each echo is
+     * optionally split over two packets and followed by the sentinel's answer, as vanilla sends for an unknown
+     * request type.
+     */
+    private void startServer(int batch, boolean split) throws IOException {
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                Packet auth = readPacket(in);
+                out.write(packet(auth.id(), TYPE_COMMAND, ""));
+                while (true) {
+                    if (batch == 0) {
+                        Packet command = readPacket(in);
+                        out.write(packet(command.id(), TYPE_RESPONSE, "echo:" + command.payload()));
+                        continue;
+                    }
+                    List<Packet> commands = new ArrayList<>();
+                    List<Packet> sentinels = new ArrayList<>();
+                    while (commands.size() < batch || sentinels.size() < batch) {
+                        Packet next = readPacket(in);
+                        (next.type() == TYPE_COMMAND ? commands : sentinels).add(next);
+                    }
+                    for (int i = batch - 1; i >= 0; i--) {
+                        Packet command = commands.get(i);
+                        out.write(packet(command.id(), TYPE_RESPONSE, "echo:" + command.payload()));
+                        if (split) {
+                            out.write(packet(command.id(), TYPE_RESPONSE, "/part2"));
+                        }
+                        out.write(packet(sentinels.get(i).id(), TYPE_RESPONSE, "Unknown request 0"));
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+        }, "fake-rcon");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private record Packet(int id, int type, String payload) {
+    }
+
+    private static Packet readPacket(DataInputStream in) throws IOException {
+        int length = Integer.reverseBytes(in.readInt());
+        ByteBuffer body = ByteBuffer.wrap(in.readNBytes(length)).order(ByteOrder.LITTLE_ENDIAN);
+        int id = body.getInt();
+        int type = body.getInt();
+        byte[] payload = new byte[length - 10];
+        body.get(payload);
+        return new Packet(id, type, new String(payload, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] packet(int id, int type, String payload) {
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 10 + body.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(10 + body.length);
+        buffer.putInt(id);
+        buffer.putInt(type);
+        buffer.put(body);
+        buffer.put((byte) 0);
+        buffer.put((byte) 0);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,87 @@
+package dev.lootprobe;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpatialIndexTest {
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(1234);
+        for (int round = 0; round < 20; round++) {
+            int count = 1 + random.nextInt(400);
+            int spread = 1 + random.nextInt(20_000);
+            int[] xs = new int[count];
+            int[] zs = new int[count];
+            for (int i = 0; i < count; i++) {
+                xs[i] = random.nextInt(spread) - spread / 2;
+                zs[i] = random.nextInt(spread / 4 + 1);
+            }
+            SpatialIndex index = SpatialIndex.build(xs, zs);
+            for (int q = 0; q < 200; q++) {
+                // Some queries land well outside the indexed bounds.
+                int x = random.nextInt(spread * 2 + 1) - spread;
+                int z = random.nextInt(spread * 2 + 1) - spread;
+                double maxDistance = random.nextBoolean() ? Double.MAX_VALUE : random.nextInt(spread + 1);
+                int expected = bruteForceNearest(xs, zs, x, z, maxDistance);
+                int actual = index.nearest(x, z, maxDistance);
+                if (expected < 0) {
+                    assertEquals(-1, actual);
+                } else {
+                    assertEquals(distanceSq(xs, zs, expected, x, z), distanceSq(xs, zs, actual, x, z),
+                            "round " + round + " query " + x + "," + z + " max " + maxDistance);
+                }
+            }
+        }
+    }
+
+    @Test
+    void nearestRespectsMaxDistance() {
+        SpatialIndex index = SpatialIndex.build(new int[]{0, 100}, new int[]{0, 0});
+        assertEquals(1, index.nearest(90, 0, 10));
+        assertEquals(-1, index.nearest(50, 30, 10));
+        assertEquals(-1, SpatialIndex.build(new int[0], new int[0]).nearest(0, 0, 1_000));
+    }
+
+    @Test
+    void boxQueryVisitsExactlyThePointsInside() {
+        int[] xs = {0, 5, 10, 15, 20, -40};
+        int[] zs = {0, 5, 10, 15, 20, 3};
+        SpatialIndex index = SpatialIndex.build(xs, zs);
+        List<Integer> visited = new ArrayList<>();
+        assertEquals(3, index.query(5, 5, 15, 15, id -> visited.add(id)));
+        visited.sort(Integer::compare);
+        assertEquals(List.of(1, 2, 3), visited);
+
+        assertEquals(1, index.query(-100, -100, 100, 100, id -> false));
+    }
+
+    @Test
+    void rejectsMismatchedArrays() {
+        assertThrows(IllegalArgumentException.class, () -> SpatialIndex.build(new int[2], new int[3]));
+    }
+
+    private static int bruteForceNearest(int[] xs, int[] zs, int x, int z, double maxDistance) {
+        int best = -1;
+        long bestSq = Long.MAX_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            long distSq = distanceSq(xs, zs, i, x, z);
+            if (distSq < bestSq && distSq <= maxDistance * maxDistance) {
+                bestSq = distSq;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static long distanceSq(int[] xs, int[] zs, int id, int x, int z) {
+        long dx = (long) xs[id] - x;
+        long dz = (long) zs[id] - z;
+        return dx * dx + dz * dz;
+    }
+}
@@ -0,0 +1,61 @@
+package dev.lootprobe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.lootprobe.TestFixtures.chest;
+import static dev.lootprobe.TestFixtures.item;
+import static dev.lootprobe.TestFixtures.structure;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StructureJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenDropsLineCutOffByCrash() throws Exception {
+        Path file = dir.resolve("result.json.structures.ndjson");
+        try (StructureJournal journal = StructureJournal.open(file, 42L, "1.21.4")) {
+            journal.accept(structure("minecraft:igloo", 100, 0, chest(100, 0, null, item("minecraft:apple"))));
+            journal.accept(structure("minecraft:desert_pyramid", -200, 0));
+        }
+        Files.writeString(file, "{\"id\":\"minecraft:swamp_hut\",\"dimension\":\"minecraft:over",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (StructureJournal journal = StructureJournal.open(file, 42L, "1.21.4")) {
+            journal.accept(structure("minecraft:jungle_pyramid", 0, 300, chest(0, 300, null, item("minecraft:bone"))));
+            List<String> resumed = journal.readResumable().stream().map(s -> s.id).toList();
+            assertEquals(List.of("minecraft:igloo", "minecraft:desert_pyramid", "minecraft:jungle_pyramid"), resumed);
+        }
+        assertFalse(Files.readString(file, StandardCharsets.UTF_8).contains("swamp_hut"));
+
+        List<WorldChestScanner.ScannedStructure> read = new ArrayList<>();
+        StructureJournal.forEachStructure(file, 0, 0, read::add);
+        assertEquals(3, read.size());
+        assertEquals("minecraft:bone", read.stream()
+                .filter(s -> s.id.equals("minecraft:jungle_pyramid"))
+                .findFirst().orElseThrow()
+                .chests.get(0).items.get(0).itemId);
+    }
+
+    @Test
+    void cutOffHeaderStartsANewJournal() throws Exception {
+        Path file = dir.resolve("result.json.structures.ndjson");
+        Files.writeString(file, "{\"lootprobeJournal\":1,\"seed\":42,\"mcVersion\":\"1.21.4\"}", StandardCharsets.UTF_8);
+
+        try (StructureJournal journal = StructureJournal.open(file, 42L, "1.21.4")) {
+            journal.accept(structure("minecraft:igloo", 0, 0));
+            assertEquals(1, journal.readResumable().size());
+        }
+        assertTrue(StructureJournal.matches(file, 42L, "1.21.4"));
+    }
+}
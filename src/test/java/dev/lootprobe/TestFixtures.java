@@ -0,0 +1,43 @@
+package dev.lootprobe;
+
+import java.util.List;
+
+/**
+ * Builders for the scan result types shared by the tests. Only identity and position are filled in; tests set any
+ * other field they check themselves.
+ */
+final class TestFixtures {
+    private TestFixtures() {
+    }
+
+    static WorldChestScanner.ScannedStructure structure(String id, int x, int z, WorldChestScanner.ChestData... chests) {
+        WorldChestScanner.ScannedStructure structure = new WorldChestScanner.ScannedStructure();
+        structure.id = id;
+        structure.dimension = "minecraft:overworld";
+        structure.type = id;
+        structure.x = x;
+        structure.y = 64;
+        structure.z = z;
+        structure.chests.addAll(List.of(chests));
+        return structure;
+    }
+
+    static WorldChestScanner.ChestData chest(int x, int z, String lootTable, LootSampler.ItemStackData... items) {
+        WorldChestScanner.ChestData chest = new WorldChestScanner.ChestData();
+        chest.x = x;
+        chest.y = 64;
+        chest.z = z;
+        chest.blockId = "minecraft:chest";
+        chest.lootTable = lootTable;
+        chest.items.addAll(List.of(items));
+        return chest;
+    }
+
+    static LootSampler.ItemStackData item(String itemId) {
+        LootSampler.ItemStackData item = new LootSampler.ItemStackData();
+        item.itemId = itemId;
+        item.id = itemId;
+        item.count = 1;
+        return item;
+    }
+}
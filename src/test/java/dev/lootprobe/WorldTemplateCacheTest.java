@@ -0,0 +1,65 @@
+package dev.lootprobe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class WorldTemplateCacheTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void fingerprintIgnoresOrderAndLocation() throws Exception {
+        Path a = datapack(dir.resolve("one/a"), "alpha");
+        Path b = datapack(dir.resolve("one/b"), "beta");
+        Path movedA = datapack(dir.resolve("two/a"), "alpha");
+        Path movedB = datapack(dir.resolve("two/b"), "beta");
+
+        String fingerprint = WorldTemplateCache.datapackFingerprint(List.of(a, b));
+        assertEquals(fingerprint, WorldTemplateCache.datapackFingerprint(List.of(b, a)));
+        assertEquals(fingerprint, WorldTemplateCache.datapackFingerprint(List.of(movedA, movedB)));
+    }
+
+    @Test
+    void fingerprintChangesWithContent() throws Exception {
+        Path pack = datapack(dir.resolve("pack"), "alpha");
+        String before = WorldTemplateCache.datapackFingerprint(List.of(pack));
+
+        Files.writeString(pack.resolve("data/test/loot_table/chest.json"), "{\"changed\":true}", StandardCharsets.UTF_8);
+        assertNotEquals(before, WorldTemplateCache.datapackFingerprint(List.of(pack)));
+    }
+
+    @Test
+    void fingerprintChangesWhenAFileIsRenamed() throws Exception {
+        Path pack = datapack(dir.resolve("pack"), "alpha");
+        String before = WorldTemplateCache.datapackFingerprint(List.of(pack));
+
+        Files.move(pack.resolve("data/test/loot_table/chest.json"), pack.resolve("data/test/loot_table/barrel.json"));
+        assertNotEquals(before, WorldTemplateCache.datapackFingerprint(List.of(pack)));
+    }
+
+    @Test
+    void zippedDatapackIsHashedByContent() throws Exception {
+        Path zip = dir.resolve("pack.zip");
+        Files.write(zip, new byte[]{1, 2, 3});
+        String before = WorldTemplateCache.datapackFingerprint(List.of(zip));
+
+        Files.write(zip, new byte[]{1, 2, 4});
+        assertNotEquals(before, WorldTemplateCache.datapackFingerprint(List.of(zip)));
+        assertNotEquals(before, WorldTemplateCache.datapackFingerprint(List.of()));
+    }
+
+    private static Path datapack(Path root, String description) throws Exception {
+        Files.createDirectories(root.resolve("data/test/loot_table"));
+        Files.writeString(root.resolve("pack.mcmeta"), "{\"pack\":{\"description\":\"" + description + "\"}}", StandardCharsets.UTF_8);
+        Files.writeString(root.resolve("data/test/loot_table/chest.json"), "{\"pools\":[]}", StandardCharsets.UTF_8);
+        return root;
+    }
+}